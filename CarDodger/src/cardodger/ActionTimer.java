@@ -1,3 +1,5 @@
+package cardodger;
+
 /**
  * Car Dodger
  * Author: Peter Mitchell (2021)
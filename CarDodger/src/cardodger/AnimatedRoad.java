@@ -0,0 +1,162 @@
+package cardodger;
+
+import java.awt.*;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * AnimatedRoad class:
+ * Visually changes an animated road to make it appear like the background is moving.
+ * The road is drawn from a RoadTexture so it costs a single image copy for any number of lanes.
+ */
+public class AnimatedRoad {
+    private final int ROAD_SEGMENT_LENGTH = 10;
+    private final int ROAD_MOVE_SPEED = 3;
+
+    /**
+     * Number of lanes to display.
+     */
+    private int lanes;
+    /**
+     * Width of the world the road covers.
+     */
+    private int worldWidth;
+    /**
+     * Height of the world the road covers.
+     */
+    private int worldHeight;
+    /**
+     * Animation offset to offset the visual elements.
+     */
+    private int offset;
+    /**
+     * Timer for triggering the changes in the animation offset.
+     */
+    private ActionTimer offsetTimer;
+    /**
+     * Pre-drawn road. Only created once the road is drawn, so the road can be simulated
+     * without loading any AWT classes.
+     */
+    private RoadTexture texture;
+
+    /**
+     * Prepares the AnimatedRoad to be updated as an animation,
+     * and to show the result of the animation.
+     *
+     * @param lanes Number of lanes to show.
+     * @param worldWidth Width of the world the road covers.
+     * @param worldHeight Height of the world the road covers.
+     */
+    public AnimatedRoad(int lanes, int worldWidth, int worldHeight) {
+        this.lanes = lanes;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        offset = 0;
+        offsetTimer = new ActionTimer(40);
+    }
+
+    /**
+     * Updates the animation step by incrementing the offset on a timer.
+     * The animation resets after it has passed the point where it needs to repeat.
+     *
+     * @param deltaTime Time since last update.
+     */
+    public void update(int deltaTime) {
+        offsetTimer.update(deltaTime);
+        if(offsetTimer.isTriggered()) {
+            offset+=ROAD_MOVE_SPEED;
+            offset = offset % (ROAD_SEGMENT_LENGTH*2-1);
+            offsetTimer.reset();
+        }
+    }
+
+    /**
+     * Changes the number of lanes to display.
+     *
+     * @param lanes Number of lanes to show.
+     */
+    public void setLanes(int lanes) {
+        this.lanes = lanes;
+    }
+
+    /**
+     * Gets the number of lanes being shown.
+     *
+     * @return The number of lanes.
+     */
+    public int getLanes() {
+        return lanes;
+    }
+
+    /**
+     * Gets the animation offset of the road markings.
+     *
+     * @return The current offset.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Gets the length of each road marking segment.
+     *
+     * @return Length of a segment.
+     */
+    public int getSegmentLength() {
+        return ROAD_SEGMENT_LENGTH;
+    }
+
+    /**
+     * Reports when the road markings have moved so the columns they are drawn in are drawn again.
+     *
+     * @param regions Regions to make dirty.
+     * @param slot The slot of the regions the road owns.
+     * @param width Width of the area the road covers.
+     * @param height Height of the area the road covers.
+     */
+    public void addDirtyRegions(DirtyRegions regions, int slot, int width, int height) {
+        addDirtyRegions(regions, slot, lanes, offset, width, height);
+    }
+
+    /**
+     * Reports when the road markings of a road in any state have moved so the columns
+     * they are drawn in are drawn again.
+     *
+     * @param regions Regions to make dirty.
+     * @param slot The slot of the regions the road owns.
+     * @param lanes Number of lanes on the road.
+     * @param offset Animation offset of the road markings.
+     * @param width Width of the area the road covers.
+     * @param height Height of the area the road covers.
+     */
+    public static void addDirtyRegions(DirtyRegions regions, int slot, int lanes, int offset, int width, int height) {
+        if(!regions.changed(slot, offset)) return;
+        for(int column = 1; column < lanes; column++) {
+            regions.add(Simulation.getLaneEdge(width, lanes, column), 0, RoadTexture.MARKING_WIDTH, height);
+        }
+    }
+
+    /**
+     * Draws the road surface and all the segments of road covering the world.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     */
+    public void paint(Graphics g) {
+        paint(g, worldWidth, worldHeight);
+    }
+
+    /**
+     * Draws the road surface and all the segments of road covering an area from the top left corner.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     * @param width Width of the area to cover.
+     * @param height Height of the area to cover.
+     */
+    public void paint(Graphics g, int width, int height) {
+        if(texture == null) {
+            texture = new RoadTexture();
+        }
+        texture.paint(g, lanes, width, height, ROAD_SEGMENT_LENGTH, offset);
+    }
+}
@@ -0,0 +1,164 @@
+package cardodger;
+
+import java.io.PrintStream;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * BalanceResults class:
+ * Accumulates the outcome of many simulated games as streaming statistics and
+ * percentile histograms, without keeping the result of each individual game.
+ * Results accumulated separately can be merged together.
+ */
+public class BalanceResults implements SimulationListener {
+    /**
+     * Number of games recorded.
+     */
+    private long games;
+    /**
+     * Total number of updates across all games.
+     */
+    private long totalTicks;
+    /**
+     * Best score reached in each game.
+     */
+    private final RunningStatistics bestScore;
+    /**
+     * Percentiles of the best score reached in each game.
+     */
+    private final LogHistogram bestScoreHistogram;
+    /**
+     * Crashes per minute of game time in each game.
+     */
+    private final RunningStatistics crashRate;
+    /**
+     * Percentiles of the crashes per hour of game time in each game.
+     */
+    private final LogHistogram crashRateHistogram;
+    /**
+     * Score reached before each crash.
+     */
+    private final RunningStatistics lifeScore;
+    /**
+     * Percentiles of the score reached before each crash.
+     */
+    private final LogHistogram lifeScoreHistogram;
+    /**
+     * Latest score of the game currently being recorded.
+     */
+    private int currentScore;
+    /**
+     * Best score of the game currently being recorded.
+     */
+    private int currentBestScore;
+
+    /**
+     * Creates empty results.
+     */
+    public BalanceResults() {
+        bestScore = new RunningStatistics();
+        bestScoreHistogram = new LogHistogram();
+        crashRate = new RunningStatistics();
+        crashRateHistogram = new LogHistogram();
+        lifeScore = new RunningStatistics();
+        lifeScoreHistogram = new LogHistogram();
+    }
+
+    /**
+     * Starts recording a new game. This should be set as the game's SimulationListener.
+     */
+    public void startGame() {
+        currentScore = 0;
+        currentBestScore = 0;
+    }
+
+    /**
+     * Finishes recording the current game.
+     *
+     * @param simulation The simulation that was played.
+     * @param ticks Number of updates the game ran for.
+     * @param deltaTime Length of each update in ms.
+     */
+    public void endGame(Simulation simulation, long ticks, int deltaTime) {
+        games++;
+        totalTicks += ticks;
+        bestScore.add(currentBestScore);
+        bestScoreHistogram.record(currentBestScore);
+        double minutes = ticks * deltaTime / 60_000.0;
+        double crashesPerMinute = simulation.getCrashCount() / minutes;
+        crashRate.add(crashesPerMinute);
+        crashRateHistogram.record(Math.round(crashesPerMinute * 60));
+    }
+
+    /**
+     * Tracks the score of the current game.
+     *
+     * @param newScore The new score.
+     */
+    @Override
+    public void scoreChanged(int newScore) {
+        currentScore = newScore;
+        currentBestScore = Math.max(currentBestScore, newScore);
+    }
+
+    /**
+     * Records the score reached before the crash. Called before the score is reset to 0.
+     *
+     * @param newCrashes The new number of crashes.
+     */
+    @Override
+    public void crashCountChanged(int newCrashes) {
+        lifeScore.add(currentScore);
+        lifeScoreHistogram.record(currentScore);
+    }
+
+    /**
+     * Adds all the games recorded by other results into these results.
+     *
+     * @param other Results to merge in. Not changed.
+     */
+    public void merge(BalanceResults other) {
+        games += other.games;
+        totalTicks += other.totalTicks;
+        bestScore.merge(other.bestScore);
+        bestScoreHistogram.merge(other.bestScoreHistogram);
+        crashRate.merge(other.crashRate);
+        crashRateHistogram.merge(other.crashRateHistogram);
+        lifeScore.merge(other.lifeScore);
+        lifeScoreHistogram.merge(other.lifeScoreHistogram);
+    }
+
+    /**
+     * Gets the number of games recorded.
+     *
+     * @return Number of games recorded.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the total number of updates across all games.
+     *
+     * @return Total number of updates.
+     */
+    public long getTotalTicks() {
+        return totalTicks;
+    }
+
+    /**
+     * Prints a summary of every statistic.
+     *
+     * @param out Where to print the summary.
+     */
+    public void print(PrintStream out) {
+        out.println("Games: " + games + ", ticks: " + totalTicks);
+        out.println("Best score per game:      " + bestScore);
+        out.println("                          " + bestScoreHistogram);
+        out.println("Crashes per minute:       " + crashRate);
+        out.println("Crashes per hour:         " + crashRateHistogram);
+        out.println("Score before each crash:  " + lifeScore);
+        out.println("                          " + lifeScoreHistogram);
+    }
+}
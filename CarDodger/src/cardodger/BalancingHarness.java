@@ -0,0 +1,249 @@
+package cardodger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * BalancingHarness class:
+ * Plays many independent headless games in parallel on a fork-join pool using a scripted
+ * PlayerPolicy, and reports the distribution of scores and crash rates. Used to tune the
+ * number of lanes, the number of active lanes, and the speeds of each type of car.
+ * Each game is seeded from its index and the base seed, and the games are always split
+ * and merged in the same order, so the same arguments always give the same results
+ * no matter how many threads are used.
+ *
+ * Arguments (all optional):
+ *   --games N          Number of games to play (default 10000).
+ *   --ticks N          Updates per game (default 3000, one minute of game time).
+ *   --lanes N          Number of lanes (default Simulation.NUMBER_OF_LANES).
+ *   --active N         Maximum active lanes (default Simulation.MAX_ACTIVE_LANES).
+ *   --world WxH        Size of the world (default Simulation.WORLD_WIDTH x WORLD_HEIGHT).
+ *   --policy NAME      stay, random, or dodge (default dodge).
+ *   --seed N           Base seed (default 1).
+ *   --threads N        Threads to use (default all available processors).
+ *   --speed T,MIN,MAX  Speed range for car type T. Can be repeated.
+ */
+public class BalancingHarness {
+    /**
+     * Most games to play in one task before it is no longer split.
+     */
+    private static final int GAMES_PER_TASK = 16;
+
+    /**
+     * Number of games to play.
+     */
+    private int games = 10_000;
+    /**
+     * Updates per game.
+     */
+    private int ticksPerGame = 3_000;
+    /**
+     * Number of lanes.
+     */
+    private int lanes = Simulation.NUMBER_OF_LANES;
+    /**
+     * Maximum active lanes.
+     */
+    private int maxActiveLanes = Simulation.MAX_ACTIVE_LANES;
+    /**
+     * Width of the world.
+     */
+    private int worldWidth = Simulation.WORLD_WIDTH;
+    /**
+     * Height of the world.
+     */
+    private int worldHeight = Simulation.WORLD_HEIGHT;
+    /**
+     * Name of the policy to play with.
+     */
+    private String policyName = "dodge";
+    /**
+     * Base seed that every game's seed is made from.
+     */
+    private long baseSeed = 1;
+    /**
+     * Number of threads to use.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+    /**
+     * Speed overrides as {carType, minSpeed, maxSpeed}.
+     */
+    private List<int[]> speedOverrides = new ArrayList<>();
+
+    /**
+     * Entry point to run the harness.
+     *
+     * @param args See the class description.
+     */
+    public static void main(String[] args) {
+        BalancingHarness harness = new BalancingHarness();
+        for(int i = 0; i + 1 < args.length; i += 2) {
+            harness.setOption(args[i], args[i + 1]);
+        }
+
+        System.out.printf("Playing %d games of %d ticks, %dx%d world, %d lanes, %d active, policy %s, seed %d, %d threads%n",
+                harness.games, harness.ticksPerGame, harness.worldWidth, harness.worldHeight,
+                harness.lanes, harness.maxActiveLanes,
+                harness.policyName, harness.baseSeed, harness.threads);
+        long startTime = System.nanoTime();
+        BalanceResults results = harness.run();
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        results.print(System.out);
+        System.out.printf("Took %.2f s (%.0f games/s, %.0f ticks/s)%n",
+                seconds, results.getGames() / seconds, results.getTotalTicks() / seconds);
+    }
+
+    /**
+     * Gets the seed for a game. Mixes the bits so neighbouring games get unrelated seeds.
+     *
+     * @param baseSeed The base seed.
+     * @param game Index of the game.
+     * @return Seed for the game.
+     */
+    public static long getGameSeed(long baseSeed, int game) {
+        long seed = baseSeed + game * 0x9E3779B97F4A7C15L;
+        seed = (seed ^ (seed >>> 30)) * 0xBF58476D1CE4E5B9L;
+        seed = (seed ^ (seed >>> 27)) * 0x94D049BB133111EBL;
+        return seed ^ (seed >>> 31);
+    }
+
+    /**
+     * Plays all the games and merges the results.
+     *
+     * @return The combined results of every game.
+     */
+    public BalanceResults run() {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new GamesTask(0, games));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays one game and records it.
+     *
+     * @param game Index of the game.
+     * @param results Where to record the game.
+     */
+    private void playGame(int game, BalanceResults results) {
+        long seed = getGameSeed(baseSeed, game);
+        Simulation simulation = new Simulation(worldWidth, worldHeight, lanes, maxActiveLanes, seed);
+        for(int[] speed : speedOverrides) {
+            simulation.getEnemyCarManager().setCarTypeSpeed(speed[0], speed[1], speed[2]);
+        }
+        PlayerPolicy policy = PlayerPolicy.create(policyName, ~seed);
+        results.startGame();
+        simulation.setListener(results);
+        for(int tick = 0; tick < ticksPerGame; tick++) {
+            policy.act(simulation);
+            simulation.update(Simulation.TIME_INTERVAL);
+        }
+        results.endGame(simulation, ticksPerGame, Simulation.TIME_INTERVAL);
+    }
+
+    /**
+     * Changes one of the options from the command line.
+     *
+     * @param name Name of the option including the leading "--".
+     * @param value Value for the option.
+     * @throws IllegalArgumentException If the option is not known.
+     */
+    private void setOption(String name, String value) {
+        switch(name) {
+            case "--games":
+                games = Integer.parseInt(value);
+                break;
+            case "--ticks":
+                ticksPerGame = Integer.parseInt(value);
+                break;
+            case "--lanes":
+                lanes = Integer.parseInt(value);
+                break;
+            case "--active":
+                maxActiveLanes = Integer.parseInt(value);
+                break;
+            case "--world":
+                int[] size = GameOptions.parseSize(value);
+                worldWidth = size[0];
+                worldHeight = size[1];
+                break;
+            case "--policy":
+                policyName = value;
+                break;
+            case "--seed":
+                baseSeed = Long.parseLong(value);
+                break;
+            case "--threads":
+                threads = Integer.parseInt(value);
+                break;
+            case "--speed":
+                String[] parts = value.split(",");
+                speedOverrides.add(new int[] {Integer.parseInt(parts[0]),
+                        Integer.parseInt(parts[1]), Integer.parseInt(parts[2])});
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + name);
+        }
+    }
+
+    /**
+     * Plays a range of games, splitting the range in half until it is small enough
+     * to play directly, then merges the results of each half left then right.
+     */
+    private class GamesTask extends RecursiveTask<BalanceResults> {
+        /**
+         * Version of the serialized form, which RecursiveTask has but is never used.
+         */
+        private static final long serialVersionUID = 1L;
+        /**
+         * First game to play.
+         */
+        private final int firstGame;
+        /**
+         * Game after the last game to play.
+         */
+        private final int endGame;
+
+        /**
+         * Creates a task for a range of games.
+         *
+         * @param firstGame First game to play.
+         * @param endGame Game after the last game to play.
+         */
+        GamesTask(int firstGame, int endGame) {
+            this.firstGame = firstGame;
+            this.endGame = endGame;
+        }
+
+        /**
+         * Plays the games or splits them between two new tasks.
+         *
+         * @return Results of every game in the range.
+         */
+        @Override
+        protected BalanceResults compute() {
+            if(endGame - firstGame <= GAMES_PER_TASK) {
+                BalanceResults results = new BalanceResults();
+                for(int game = firstGame; game < endGame; game++) {
+                    playGame(game, results);
+                }
+                return results;
+            }
+            int middle = (firstGame + endGame) >>> 1;
+            GamesTask left = new GamesTask(firstGame, middle);
+            GamesTask right = new GamesTask(middle, endGame);
+            right.fork();
+            BalanceResults results = left.compute();
+            results.merge(right.join());
+            return results;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package cardodger;
+
+import java.awt.*;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * Car class:
+ * General definition of a car to represent the position and drawing of a car.
+ */
+public abstract class Car extends Rectangle {
+    /**
+     * Width of each car.
+     */
+    public static final int CAR_WIDTH = 30;
+    /**
+     * Height of each car.
+     */
+    public static final int CAR_HEIGHT = 60;
+    /**
+     * The initial position used to reset to the start position.
+     */
+    private Position startPosition;
+    /**
+     * The position at the start of the most recent update, used to interpolate drawing.
+     */
+    protected Position previousPosition;
+
+    /**
+     * Initialises the Car ready to draw.
+     *
+     * @param position Position used to reset the car back as a start position each time.
+     */
+    public Car(Position position) {
+        super(position, CAR_WIDTH, CAR_HEIGHT);
+        startPosition = new Position(position);
+        previousPosition = new Position(position);
+    }
+
+    /**
+     * Resets the car back to its start position.
+     */
+    public void reset() {
+        position.setPosition(startPosition.x, startPosition.y);
+        previousPosition.setPosition(startPosition.x, startPosition.y);
+    }
+
+    /**
+     * Remembers the current position as the previous position.
+     * Should be called at the start of each update before the car moves.
+     */
+    public void storePreviousPosition() {
+        previousPosition.setPosition(position.x, position.y);
+    }
+
+    /**
+     * Gets the position at the start of the most recent update.
+     *
+     * @return Reference to the previous position.
+     */
+    public Position getPreviousPosition() {
+        return previousPosition;
+    }
+
+    /**
+     * Gets the car body colour. Colours are only looked up while painting
+     * so the car can be simulated without loading any AWT classes.
+     *
+     * @return Car body colour.
+     */
+    protected abstract Color getBackgroundColour();
+
+    /**
+     * Gets the window/detail top colour.
+     *
+     * @return Window/detail top colour.
+     */
+    protected abstract Color getForegroundColour();
+
+    /**
+     * Draws the car at its current position.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     */
+    public void paint(Graphics g) {
+        paint(g, 1);
+    }
+
+    /**
+     * Draws the car interpolated between its previous and current position.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     * @param alpha How far between the previous and current position to draw, from 0 to 1.
+     */
+    public void paint(Graphics g, float alpha) {
+        paintAt(g, getPaintX(alpha), getPaintY(alpha));
+    }
+
+    /**
+     * Draws the car interpolated between its previous and current position
+     * by copying its pre-drawn image from a sprite cache.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     * @param alpha How far between the previous and current position to draw, from 0 to 1.
+     * @param sprites Sprite cache that has been validated for this frame.
+     */
+    public void paint(Graphics g, float alpha, CarSpriteCache sprites) {
+        sprites.drawSprite(g, getSprite(), getPaintX(alpha), getPaintY(alpha));
+    }
+
+    /**
+     * Reports where and how the car will be drawn so the area it moved from and to is drawn again.
+     *
+     * @param regions Regions to make dirty.
+     * @param slot The slot of the regions this car owns.
+     * @param alpha How far between the previous and current position it will be drawn, from 0 to 1.
+     */
+    public void addDirtyRegion(DirtyRegions regions, int slot, float alpha) {
+        regions.update(slot, getPaintX(alpha), getPaintY(alpha), width, height, getSprite());
+    }
+
+    /**
+     * Gets the x coordinate the car is drawn at between its previous and current position.
+     *
+     * @param alpha How far between the previous and current position, from 0 to 1.
+     * @return X coordinate of the top left corner.
+     */
+    public int getPaintX(float alpha) {
+        return previousPosition.x + Math.round((position.x - previousPosition.x) * alpha);
+    }
+
+    /**
+     * Gets the y coordinate the car is drawn at between its previous and current position.
+     *
+     * @param alpha How far between the previous and current position, from 0 to 1.
+     * @return Y coordinate of the top left corner.
+     */
+    public int getPaintY(float alpha) {
+        return previousPosition.y + Math.round((position.y - previousPosition.y) * alpha);
+    }
+
+    /**
+     * Gets which sprite in a CarSpriteCache looks the same as this car currently does.
+     *
+     * @return The sprite to draw.
+     */
+    protected abstract int getSprite();
+
+    /**
+     * Draws the car with a body and two windows using the colours defined by the type of car.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     * @param x X coordinate of the top left corner to draw at.
+     * @param y Y coordinate of the top left corner to draw at.
+     */
+    protected void paintAt(Graphics g, int x, int y) {
+        paintCar(g, x, y, width, height, getBackgroundColour(), getForegroundColour());
+    }
+
+    /**
+     * Draws a car body with two windows.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     * @param x X coordinate of the top left corner to draw at.
+     * @param y Y coordinate of the top left corner to draw at.
+     * @param width Width of the car.
+     * @param height Height of the car.
+     * @param backgroundColour Car body colour.
+     * @param foregroundColour Window/detail top colour.
+     */
+    public static void paintCar(Graphics g, int x, int y, int width, int height,
+                                Color backgroundColour, Color foregroundColour) {
+        g.setColor(backgroundColour);
+        g.fillRect(x, y, width, height);
+        g.setColor(foregroundColour);
+        g.fillRect(x + width/7, y + height/5, width*5/7, height/6);
+        g.fillRect(x + width/7, y + height*3/5, width*5/7, height/6);
+    }
+}
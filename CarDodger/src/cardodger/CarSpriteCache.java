@@ -0,0 +1,139 @@
+package cardodger;
+
+import java.awt.*;
+import java.awt.image.VolatileImage;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * CarSpriteCache class:
+ * Keeps a pre-drawn image of every car that can appear: one for each type of enemy car,
+ * and one for each state of the player's flashing lights. Drawing a car then becomes a
+ * single image copy that can be accelerated, instead of setting colours and filling
+ * rectangles for every part of every car. The images are VolatileImages so they can live
+ * in video memory, which means their contents can be lost at any time, such as when the
+ * display mode changes. validate() must be called at the start of every frame to recreate
+ * or redraw any images that have been lost.
+ */
+public class CarSpriteCache {
+    /**
+     * Sprite for the player car while the left light is blue.
+     */
+    public static final int PLAYER_FLASH_BLUE = EnemyCarManager.CAR_TYPES;
+    /**
+     * Sprite for the player car while the left light is red.
+     */
+    public static final int PLAYER_FLASH_RED = EnemyCarManager.CAR_TYPES + 1;
+    /**
+     * Total number of sprites. Sprites 0 to CAR_TYPES-1 are the enemy car types.
+     */
+    public static final int SPRITE_COUNT = EnemyCarManager.CAR_TYPES + 2;
+
+    /**
+     * Image for each sprite, or null until the first validate().
+     */
+    private VolatileImage[] sprites;
+    /**
+     * Number of times any sprite has had to be drawn again.
+     */
+    private int rebuildCount;
+
+    /**
+     * Creates an empty cache. The sprites are created by the first validate().
+     */
+    public CarSpriteCache() {
+        sprites = new VolatileImage[SPRITE_COUNT];
+    }
+
+    /**
+     * Makes sure every sprite exists and has its contents, creating or redrawing any that
+     * are missing, incompatible with the surface being drawn to, or have been lost.
+     * Call once per frame before drawing any sprites.
+     *
+     * @param g Graphics for the surface the sprites will be drawn to.
+     */
+    public void validate(Graphics g) {
+        GraphicsConfiguration configuration = ((Graphics2D) g).getDeviceConfiguration();
+        for(int sprite = 0; sprite < SPRITE_COUNT; sprite++) {
+            VolatileImage image = sprites[sprite];
+            int status = image == null ? VolatileImage.IMAGE_INCOMPATIBLE : image.validate(configuration);
+            if(status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                if(image != null) {
+                    image.flush();
+                }
+                image = configuration.createCompatibleVolatileImage(Car.CAR_WIDTH, Car.CAR_HEIGHT, Transparency.OPAQUE);
+                sprites[sprite] = image;
+                image.validate(configuration);
+                renderSprite(image, sprite);
+            } else if(status == VolatileImage.IMAGE_RESTORED) {
+                renderSprite(image, sprite);
+            }
+        }
+    }
+
+    /**
+     * Draws a sprite. validate() must have been called this frame.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     * @param sprite The sprite to draw, either an enemy car type or PLAYER_FLASH_BLUE/RED.
+     * @param x X coordinate of the top left corner to draw at.
+     * @param y Y coordinate of the top left corner to draw at.
+     */
+    public void drawSprite(Graphics g, int sprite, int x, int y) {
+        g.drawImage(sprites[sprite], x, y, null);
+    }
+
+    /**
+     * Checks if any sprite lost its contents since it was last validated, in which case
+     * the frame may have been drawn with blank cars and should be drawn again.
+     *
+     * @return True if any sprite's contents were lost.
+     */
+    public boolean contentsLost() {
+        for(VolatileImage image : sprites) {
+            if(image != null && image.contentsLost()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of times any sprite has had to be drawn, including the first time.
+     *
+     * @return The number of sprite rebuilds.
+     */
+    public int getRebuildCount() {
+        return rebuildCount;
+    }
+
+    /**
+     * Releases the video memory used by the sprites. They are created again by the next validate().
+     */
+    public void flush() {
+        for(int sprite = 0; sprite < SPRITE_COUNT; sprite++) {
+            if(sprites[sprite] != null) {
+                sprites[sprite].flush();
+                sprites[sprite] = null;
+            }
+        }
+    }
+
+    /**
+     * Draws the contents of a sprite with the same drawing code used without the cache.
+     *
+     * @param image Image to draw into.
+     * @param sprite The sprite to draw.
+     */
+    private void renderSprite(VolatileImage image, int sprite) {
+        Graphics2D g = image.createGraphics();
+        if(sprite < EnemyCarManager.CAR_TYPES) {
+            Car.paintCar(g, 0, 0, Car.CAR_WIDTH, Car.CAR_HEIGHT, EnemyCarManager.getColour(sprite), Color.BLACK);
+        } else {
+            PlayerCar.paintPlayerCar(g, 0, 0, Car.CAR_WIDTH, Car.CAR_HEIGHT, sprite == PLAYER_FLASH_BLUE);
+        }
+        g.dispose();
+        rebuildCount++;
+    }
+}
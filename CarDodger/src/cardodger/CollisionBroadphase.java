@@ -0,0 +1,187 @@
+package cardodger;
+
+import java.util.Arrays;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * CollisionBroadphase class:
+ * Buckets the enemy cars by lane and by vertical band, so that a collision query for a
+ * rectangle only has to look at cars in the lanes it overlaps that are also in a band
+ * near its y-range. Each band keeps a bit set of the lanes that have a car in that band.
+ * The cars found are only candidates, and still need an exact intersection test.
+ */
+public class CollisionBroadphase {
+    /**
+     * Each band covers 2^BAND_SHIFT pixels vertically.
+     */
+    private static final int BAND_SHIFT = 6;
+
+    /**
+     * X coordinate of the car in each lane, in increasing order.
+     */
+    private final int[] laneX;
+    /**
+     * Width of every car.
+     */
+    private final int carWidth;
+    /**
+     * Height of every car.
+     */
+    private final int carHeight;
+    /**
+     * Number of vertical bands.
+     */
+    private final int bandCount;
+    /**
+     * The band each lane's car is currently in, or -1 if the lane has no car to collide with.
+     */
+    private final int[] carBand;
+    /**
+     * For each band a bit set of the lanes with a car in that band.
+     * Lane i is stored in bit (i % 64) of bandLanes[band][i / 64].
+     */
+    private final long[][] bandLanes;
+
+    /**
+     * Creates an empty broadphase with no cars in it.
+     *
+     * @param laneX X coordinate of the car in each lane, in increasing order.
+     * @param carWidth Width of every car.
+     * @param carHeight Height of every car.
+     * @param worldHeight Height of the area cars can collide in.
+     */
+    public CollisionBroadphase(int[] laneX, int carWidth, int carHeight, int worldHeight) {
+        this.laneX = laneX;
+        this.carWidth = carWidth;
+        this.carHeight = carHeight;
+        bandCount = ((worldHeight + carHeight) >> BAND_SHIFT) + 1;
+        carBand = new int[laneX.length];
+        bandLanes = new long[bandCount][(laneX.length + 63) / 64];
+        clear();
+    }
+
+    /**
+     * Removes all cars.
+     */
+    public void clear() {
+        for(long[] lanes : bandLanes) {
+            Arrays.fill(lanes, 0);
+        }
+        Arrays.fill(carBand, -1);
+    }
+
+    /**
+     * Adds the car in a lane, or moves it to the band matching its new y coordinate.
+     *
+     * @param lane The lane of the car.
+     * @param y Y coordinate of the top of the car.
+     */
+    public void move(int lane, int y) {
+        int band = getBand(y);
+        int oldBand = carBand[lane];
+        if(band == oldBand) return;
+
+        long laneBit = 1L << lane;
+        if(oldBand >= 0) {
+            bandLanes[oldBand][lane >>> 6] &= ~laneBit;
+        }
+        bandLanes[band][lane >>> 6] |= laneBit;
+        carBand[lane] = band;
+    }
+
+    /**
+     * Removes the car in a lane so it can no longer be returned as a candidate.
+     *
+     * @param lane The lane of the car.
+     */
+    public void remove(int lane) {
+        int oldBand = carBand[lane];
+        if(oldBand < 0) return;
+
+        bandLanes[oldBand][lane >>> 6] &= ~(1L << lane);
+        carBand[lane] = -1;
+    }
+
+    /**
+     * Finds the lanes with a car that may be intersecting a rectangle.
+     *
+     * @param rectangle The rectangle to find cars near.
+     * @param candidates Filled with the candidate lanes in increasing order. Must fit every lane.
+     * @return Number of candidate lanes stored in candidates.
+     */
+    public int findCandidates(Rectangle rectangle, int[] candidates) {
+        Position position = rectangle.getPosition();
+        return findCandidates(position.x, position.y, rectangle.getWidth(), rectangle.getHeight(), candidates);
+    }
+
+    /**
+     * Finds the lanes with a car that may be intersecting a rectangle defined by its values.
+     *
+     * @param x X coordinate of the top left corner of the rectangle.
+     * @param y Y coordinate of the top left corner of the rectangle.
+     * @param width Width of the rectangle.
+     * @param height Height of the rectangle.
+     * @param candidates Filled with the candidate lanes in increasing order. Must fit every lane.
+     * @return Number of candidate lanes stored in candidates.
+     */
+    public int findCandidates(int x, int y, int width, int height, int[] candidates) {
+        // A car can only touch the rectangle if its x is in this range
+        int firstLane = lowerBound(x - carWidth);
+        int lastLane = lowerBound(x + width + 1) - 1;
+        if(firstLane > lastLane) return 0;
+        int firstBand = getBand(y - carHeight);
+        int lastBand = getBand(y + height);
+
+        int count = 0;
+        for(int wordIndex = firstLane >>> 6; wordIndex <= lastLane >>> 6; wordIndex++) {
+            long word = 0;
+            for(int band = firstBand; band <= lastBand; band++) {
+                word |= bandLanes[band][wordIndex];
+            }
+            // Mask off lanes outside the range in the first and last words
+            if(wordIndex == firstLane >>> 6) {
+                word &= -1L << firstLane;
+            }
+            if(wordIndex == lastLane >>> 6) {
+                word &= -1L >>> (63 - (lastLane & 63));
+            }
+            while(word != 0) {
+                candidates[count++] = wordIndex * 64 + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Gets the band containing a y coordinate, limited to the range of bands.
+     *
+     * @param y Y coordinate.
+     * @return The band index.
+     */
+    private int getBand(int y) {
+        return Math.max(0, Math.min(bandCount - 1, (y + carHeight) >> BAND_SHIFT));
+    }
+
+    /**
+     * Finds the first lane with a car x coordinate greater than or equal to x.
+     *
+     * @param x X coordinate to search for.
+     * @return The first lane at or after x, or the number of lanes if there is none.
+     */
+    private int lowerBound(int x) {
+        int low = 0;
+        int high = laneX.length;
+        while(low < high) {
+            int middle = (low + high) >>> 1;
+            if(laneX[middle] < x) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
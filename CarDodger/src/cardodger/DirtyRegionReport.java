@@ -0,0 +1,68 @@
+package cardodger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * DirtyRegionReport class:
+ * Measures how much of the panel would be repainted each frame by dirty region tracking,
+ * compared to repainting the whole panel every frame. Plays a headless game with a scripted
+ * player at 60 frames per second worth of game time, collecting the dirty regions the same
+ * way the GamePanel does for a range of full repaint thresholds.
+ *
+ * Arguments (all optional): number of frames (default 36000, ten minutes), and the policy
+ * to play with (default dodge).
+ */
+public class DirtyRegionReport {
+    /**
+     * Full repaint thresholds to report.
+     */
+    private static final double[] THRESHOLDS = {0.25, 0.5, 0.75, 1.0};
+
+    /**
+     * Entry point to run the report.
+     *
+     * @param args See the class description.
+     */
+    public static void main(String[] args) {
+        int frames = args.length > 0 ? Integer.parseInt(args[0]) : 36_000;
+        String policyName = args.length > 1 ? args[1] : "dodge";
+
+        System.out.println("threshold, mean fraction repainted, frames fully repainted, mean regions per frame");
+        for(double threshold : THRESHOLDS) {
+            Simulation simulation = new Simulation(Simulation.NUMBER_OF_LANES, Simulation.MAX_ACTIVE_LANES, 1);
+            PlayerPolicy policy = PlayerPolicy.create(policyName, 1);
+            EnemyCarManager manager = simulation.getEnemyCarManager();
+            DirtyRegions regions = new DirtyRegions(2 + manager.getLanes(),
+                    Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT, threshold);
+            RunningStatistics coverage = new RunningStatistics();
+            RunningStatistics regionCount = new RunningStatistics();
+            long fullRepaints = 0;
+
+            long stepNanos = Simulation.TIME_INTERVAL * 1_000_000L;
+            long frameNanos = 1_000_000_000L / GameLoop.TARGET_FRAME_RATE;
+            long accumulator = 0;
+            for(int frame = 0; frame < frames; frame++) {
+                accumulator += frameNanos;
+                while(accumulator >= stepNanos) {
+                    accumulator -= stepNanos;
+                    policy.act(simulation);
+                    simulation.update(Simulation.TIME_INTERVAL);
+                }
+                float alpha = accumulator / (float) stepNanos;
+                simulation.getAnimatedRoad().addDirtyRegions(regions, 0, Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT);
+                simulation.getPlayerCar().addDirtyRegion(regions, 1, alpha);
+                manager.addDirtyRegions(regions, 2, alpha);
+                if(regions.isFullRepaint()) {
+                    fullRepaints++;
+                } else {
+                    regionCount.add(regions.getCount());
+                }
+                coverage.add(regions.getRepaintArea() / (double) (Simulation.WORLD_WIDTH * Simulation.WORLD_HEIGHT));
+                regions.clear();
+            }
+            System.out.printf("%.2f, %.3f, %.1f%%, %.1f%n", threshold, coverage.getMean(),
+                    100.0 * fullRepaints / frames, regionCount.getMean());
+        }
+    }
+}
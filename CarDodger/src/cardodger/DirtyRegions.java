@@ -0,0 +1,271 @@
+package cardodger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * DirtyRegions class:
+ * Collects the parts of an area that need to be drawn again for the next frame.
+ * Each thing that is drawn owns a slot that remembers where and how it was last drawn,
+ * and reports where and how it will be drawn next. If it moved or changed, the union of
+ * its old and new bounds becomes dirty. When the dirty regions cover more than a threshold
+ * fraction of the area, drawing the whole area is cheaper than drawing every region.
+ * Only stores numbers, so it can be used by the simulation classes without AWT.
+ */
+public class DirtyRegions {
+    /**
+     * Width of the area.
+     */
+    private int width;
+    /**
+     * Height of the area.
+     */
+    private int height;
+    /**
+     * Fraction of the area that can be dirty before the whole area should be drawn.
+     */
+    private double fullRepaintThreshold;
+    /**
+     * Bounds each slot was last drawn at, as x, y, width, height for slot i at index i*4.
+     */
+    private int[] slotBounds;
+    /**
+     * How each slot last looked, such as which sprite was drawn.
+     */
+    private int[] slotAppearance;
+    /**
+     * True for each slot that was drawn last frame.
+     */
+    private boolean[] slotVisible;
+    /**
+     * Dirty regions as x, y, width, height for region i at index i*4.
+     */
+    private int[] regions;
+    /**
+     * Number of dirty regions.
+     */
+    private int regionCount;
+    /**
+     * Total area of the dirty regions. Overlapping regions are counted more than once.
+     */
+    private long dirtyArea;
+    /**
+     * True if the whole area must be drawn no matter which regions are dirty.
+     */
+    private boolean everythingDirty;
+
+    /**
+     * Creates the regions with everything dirty so the first frame is drawn in full.
+     *
+     * @param slots Number of things that will report where they are drawn.
+     * @param width Width of the area.
+     * @param height Height of the area.
+     * @param fullRepaintThreshold Fraction of the area that can be dirty before the whole area should be drawn.
+     */
+    public DirtyRegions(int slots, int width, int height, double fullRepaintThreshold) {
+        this.width = width;
+        this.height = height;
+        this.fullRepaintThreshold = fullRepaintThreshold;
+        slotBounds = new int[slots * 4];
+        slotAppearance = new int[slots];
+        slotVisible = new boolean[slots];
+        // Room for every slot to move, plus a region for every lane marking column
+        regions = new int[slots * 3 * 4];
+        everythingDirty = true;
+    }
+
+    /**
+     * Reports where and how a slot will be drawn this frame. If the slot was drawn somewhere
+     * else or looked different last frame, the old and new bounds are both made dirty.
+     *
+     * @param slot The slot being drawn.
+     * @param x X coordinate of the top left corner.
+     * @param y Y coordinate of the top left corner.
+     * @param regionWidth Width of the bounds.
+     * @param regionHeight Height of the bounds.
+     * @param appearance Any number that changes when the slot looks different.
+     */
+    public void update(int slot, int x, int y, int regionWidth, int regionHeight, int appearance) {
+        int index = slot * 4;
+        if(slotVisible[slot] && slotAppearance[slot] == appearance && slotBounds[index] == x
+                && slotBounds[index + 1] == y && slotBounds[index + 2] == regionWidth
+                && slotBounds[index + 3] == regionHeight) {
+            return;
+        }
+        if(slotVisible[slot]) {
+            addUnion(slotBounds[index], slotBounds[index + 1], slotBounds[index + 2], slotBounds[index + 3],
+                    x, y, regionWidth, regionHeight);
+        } else {
+            add(x, y, regionWidth, regionHeight);
+        }
+        slotBounds[index] = x;
+        slotBounds[index + 1] = y;
+        slotBounds[index + 2] = regionWidth;
+        slotBounds[index + 3] = regionHeight;
+        slotAppearance[slot] = appearance;
+        slotVisible[slot] = true;
+    }
+
+    /**
+     * Reports that a slot will not be drawn this frame, making where it was last drawn dirty.
+     *
+     * @param slot The slot that is not being drawn.
+     */
+    public void hide(int slot) {
+        if(!slotVisible[slot]) return;
+        int index = slot * 4;
+        add(slotBounds[index], slotBounds[index + 1], slotBounds[index + 2], slotBounds[index + 3]);
+        slotVisible[slot] = false;
+    }
+
+    /**
+     * Reports how a slot that is drawn over a fixed area will look this frame.
+     * The caller should add the area it covers if this returns true.
+     *
+     * @param slot The slot being drawn.
+     * @param appearance Any number that changes when the slot looks different.
+     * @return True if the slot looks different to last frame.
+     */
+    public boolean changed(int slot, int appearance) {
+        if(slotVisible[slot] && slotAppearance[slot] == appearance) return false;
+        slotAppearance[slot] = appearance;
+        slotVisible[slot] = true;
+        return true;
+    }
+
+    /**
+     * Makes a region dirty. The parts outside the area are ignored.
+     *
+     * @param x X coordinate of the top left corner.
+     * @param y Y coordinate of the top left corner.
+     * @param regionWidth Width of the region.
+     * @param regionHeight Height of the region.
+     */
+    public void add(int x, int y, int regionWidth, int regionHeight) {
+        int left = Math.max(0, x);
+        int top = Math.max(0, y);
+        int right = Math.min(width, x + regionWidth);
+        int bottom = Math.min(height, y + regionHeight);
+        if(left >= right || top >= bottom || everythingDirty) return;
+
+        if(regionCount * 4 == regions.length) {
+            // Too many separate regions to be worth drawing one at a time
+            everythingDirty = true;
+            return;
+        }
+        int index = regionCount * 4;
+        regions[index] = left;
+        regions[index + 1] = top;
+        regions[index + 2] = right - left;
+        regions[index + 3] = bottom - top;
+        regionCount++;
+        dirtyArea += (long) (right - left) * (bottom - top);
+    }
+
+    /**
+     * Makes the whole area dirty, such as after it has been resized or uncovered.
+     */
+    public void addEverything() {
+        everythingDirty = true;
+    }
+
+    /**
+     * Checks if the whole area should be drawn instead of the separate regions, because
+     * everything was made dirty or the regions cover more than the threshold.
+     *
+     * @return True if the whole area should be drawn.
+     */
+    public boolean isFullRepaint() {
+        return everythingDirty || dirtyArea > fullRepaintThreshold * width * height;
+    }
+
+    /**
+     * Gets the number of dirty regions.
+     *
+     * @return The number of regions.
+     */
+    public int getCount() {
+        return regionCount;
+    }
+
+    /**
+     * Gets the x coordinate of a dirty region.
+     *
+     * @param region Index of the region.
+     * @return X coordinate of the top left corner.
+     */
+    public int getX(int region) {
+        return regions[region * 4];
+    }
+
+    /**
+     * Gets the y coordinate of a dirty region.
+     *
+     * @param region Index of the region.
+     * @return Y coordinate of the top left corner.
+     */
+    public int getY(int region) {
+        return regions[region * 4 + 1];
+    }
+
+    /**
+     * Gets the width of a dirty region.
+     *
+     * @param region Index of the region.
+     * @return Width of the region.
+     */
+    public int getWidth(int region) {
+        return regions[region * 4 + 2];
+    }
+
+    /**
+     * Gets the height of a dirty region.
+     *
+     * @param region Index of the region.
+     * @return Height of the region.
+     */
+    public int getHeight(int region) {
+        return regions[region * 4 + 3];
+    }
+
+    /**
+     * Gets the area that will be drawn for this frame.
+     *
+     * @return The whole area if isFullRepaint(), otherwise the total area of the regions.
+     */
+    public long getRepaintArea() {
+        return isFullRepaint() ? (long) width * height : dirtyArea;
+    }
+
+    /**
+     * Forgets the dirty regions once the frame has been drawn. Remembers where each slot was drawn.
+     */
+    public void clear() {
+        regionCount = 0;
+        dirtyArea = 0;
+        everythingDirty = false;
+    }
+
+    /**
+     * Makes the union of two bounds dirty as one region if they overlap, or as two if not.
+     *
+     * @param x1 X coordinate of the first bounds.
+     * @param y1 Y coordinate of the first bounds.
+     * @param width1 Width of the first bounds.
+     * @param height1 Height of the first bounds.
+     * @param x2 X coordinate of the second bounds.
+     * @param y2 Y coordinate of the second bounds.
+     * @param width2 Width of the second bounds.
+     * @param height2 Height of the second bounds.
+     */
+    private void addUnion(int x1, int y1, int width1, int height1, int x2, int y2, int width2, int height2) {
+        if(x1 < x2 + width2 && x2 < x1 + width1 && y1 < y2 + height2 && y2 < y1 + height1) {
+            int left = Math.min(x1, x2);
+            int top = Math.min(y1, y2);
+            add(left, top, Math.max(x1 + width1, x2 + width2) - left, Math.max(y1 + height1, y2 + height2) - top);
+        } else {
+            add(x1, y1, width1, height1);
+            add(x2, y2, width2, height2);
+        }
+    }
+}
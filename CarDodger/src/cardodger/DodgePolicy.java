@@ -0,0 +1,63 @@
+package cardodger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * DodgePolicy class:
+ * A greedy policy that looks at every place the player car could be and moves toward
+ * the one with the most room before the next car coming down the screen would hit it.
+ */
+public class DodgePolicy extends PlayerPolicy {
+    /**
+     * Distance between each place that is considered for the player car.
+     */
+    private static final int SEARCH_STEP = 10;
+
+    /**
+     * Finds the place with the most room and moves toward it.
+     * Ties are broken by choosing the place closest to the player car.
+     *
+     * @param simulation The simulation being played.
+     */
+    @Override
+    public void act(Simulation simulation) {
+        Position playerPosition = simulation.getPlayerCar().getPosition();
+        int bestX = playerPosition.x;
+        int bestRoom = getRoom(simulation, bestX);
+        for(int x = 0; x <= simulation.getWorldWidth() - Car.CAR_WIDTH; x += SEARCH_STEP) {
+            int room = getRoom(simulation, x);
+            if(room > bestRoom || (room == bestRoom
+                    && Math.abs(x - playerPosition.x) < Math.abs(bestX - playerPosition.x))) {
+                bestRoom = room;
+                bestX = x;
+            }
+        }
+        moveToward(simulation, bestX);
+    }
+
+    /**
+     * Finds how far the nearest car above the player would travel before hitting
+     * the player car if it was moved to x.
+     *
+     * @param simulation The simulation being played.
+     * @param x X coordinate for the left side of the player car.
+     * @return Distance to the nearest car, or Integer.MAX_VALUE if nothing would hit it.
+     */
+    private int getRoom(Simulation simulation, int x) {
+        EnemyCarManager enemyCarManager = simulation.getEnemyCarManager();
+        PlayerCar playerCar = simulation.getPlayerCar();
+        int playerY = playerCar.getPosition().y;
+        int room = Integer.MAX_VALUE;
+        for(int lane = 0; lane < enemyCarManager.getLanes(); lane++) {
+            if(!enemyCarManager.isActive(lane)) continue;
+            int carX = enemyCarManager.getCarX(lane);
+            int carBottom = enemyCarManager.getCarY(lane) + Car.CAR_HEIGHT;
+            boolean sameColumn = carX <= x + playerCar.getWidth() && carX + Car.CAR_WIDTH >= x;
+            if(sameColumn && carBottom <= playerY + playerCar.getHeight()) {
+                room = Math.min(room, Math.max(0, playerY - carBottom));
+            }
+        }
+        return room;
+    }
+}
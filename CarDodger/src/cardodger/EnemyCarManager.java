@@ -0,0 +1,561 @@
+package cardodger;
+
+import java.awt.*;
+import java.util.SplittableRandom;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * EnemyCarManager class:
+ * Manages a collection of cars that have one car per lane making them update movement,
+ * and managing collision/reset states. The cars are stored as parallel arrays indexed
+ * by lane instead of as one object per car, so updating the whole fleet is a linear scan
+ * over primitive arrays. The rules for each type of car are also provided as static
+ * methods so the sprites can be drawn without a manager.
+ * Collisions are found with a CollisionBroadphase so only cars near the player
+ * are tested exactly against it. The exact test sweeps each car along the whole of
+ * its move, so even with a long update a fast car cannot jump over the player.
+ */
+public class EnemyCarManager {
+    /**
+     * Number of different types of car.
+     */
+    public static final int CAR_TYPES = 3;
+    /**
+     * Default slowest speed for each type of car.
+     */
+    private static final int[] DEFAULT_MIN_SPEEDS = {300, 400, 100};
+    /**
+     * Default speed each type of car is always slower than, or the same as DEFAULT_MIN_SPEEDS for a fixed speed.
+     */
+    private static final int[] DEFAULT_MAX_SPEEDS = {300, 400, 500};
+
+    /**
+     * Reference to the Simulation to pass collision and score updates.
+     */
+    private Simulation simulation;
+    /**
+     * Number of lanes, with one car for each lane.
+     */
+    private int lanes;
+    /**
+     * Height of the world, after which cars have left the screen.
+     */
+    private int worldHeight;
+    /**
+     * X coordinate of the car in each lane. Never changes.
+     */
+    private int[] carX;
+    /**
+     * Y coordinate of the car in each lane, as the whole pixel part of carFixedY.
+     */
+    private int[] carY;
+    /**
+     * Exact y coordinate of the car in each lane in 16.16 fixed-point, so fractions of a
+     * pixel moved each update are kept and the movement uses only integer maths. Held as
+     * longs so worlds taller than 32767 pixels do not overflow.
+     */
+    private long[] carFixedY;
+    /**
+     * Y coordinate of the car in each lane at the start of the most recent update.
+     */
+    private int[] previousCarY;
+    /**
+     * Speed of the car in each lane based on its type.
+     */
+    private int[] carSpeed;
+    /**
+     * Type of the car in each lane. Is changed each time the car is reset.
+     */
+    private int[] carType;
+    /**
+     * Slowest speed for each type of car.
+     */
+    private int[] minSpeeds;
+    /**
+     * Speed each type of car is always slower than, or the same as minSpeeds for a fixed speed.
+     */
+    private int[] maxSpeeds;
+    /**
+     * Random number generator for car types, speeds, and which lanes to activate.
+     */
+    private SplittableRandom random;
+    /**
+     * Bit set where set bits are lanes with a car that is currently moving.
+     * Lane i is stored in bit (i % 64) of activeCars[i / 64].
+     */
+    private long[] activeCars;
+    /**
+     * Pool of lanes with inactive cars to pick the next one to activate from.
+     * Only the first inactiveCount entries are used, in no particular order, so a lane
+     * can be taken from anywhere by moving the last entry into its place.
+     */
+    private int[] inactiveLanes;
+    /**
+     * Number of lanes stored in inactiveLanes.
+     */
+    private int inactiveCount;
+    /**
+     * The maximum number of lanes that should have a car moving down in them at a time.
+     */
+    private int maxActiveLanes;
+    /**
+     * Reference to the player car to check for collisions.
+     */
+    private PlayerCar playerCar;
+    /**
+     * Buckets the active cars by lane and vertical band to find cars near the player.
+     */
+    private CollisionBroadphase broadphase;
+    /**
+     * Reused to store the lanes returned by the broadphase.
+     */
+    private int[] collisionCandidates;
+    /**
+     * Furthest any car moved in the current update.
+     */
+    private int maxMoveDistance;
+    /**
+     * True if a car that left the screen in the current update hit the player on the way.
+     */
+    private boolean playerHit;
+
+    /**
+     * Creates all the cars to be managed and initialises the correct number of active cars.
+     *
+     * @param lanes The total number of lanes.
+     * @param maxActiveLanes The maximum number of lanes that should have a car moving down in them at a time.
+     * @param playerCar Reference to the player car to check for collisions.
+     * @param simulation Reference to the Simulation to pass collision and score updates.
+     * @param random Random number generator for car types, speeds, and which lanes to activate.
+     */
+    public EnemyCarManager(int lanes, int maxActiveLanes, PlayerCar playerCar, Simulation simulation, SplittableRandom random) {
+        this.simulation = simulation;
+        this.random = random;
+        this.lanes = lanes;
+        worldHeight = simulation.getWorldHeight();
+        this.maxActiveLanes = maxActiveLanes;
+        this.playerCar = playerCar;
+        carX = new int[lanes];
+        carY = new int[lanes];
+        carFixedY = new long[lanes];
+        previousCarY = new int[lanes];
+        carSpeed = new int[lanes];
+        carType = new int[lanes];
+        activeCars = new long[(lanes + 63) / 64];
+        inactiveLanes = new int[lanes];
+        minSpeeds = new int[CAR_TYPES];
+        maxSpeeds = new int[CAR_TYPES];
+        for(int type = 0; type < CAR_TYPES; type++) {
+            setCarTypeSpeed(type, getDefaultMinSpeed(type), getDefaultMaxSpeed(type));
+        }
+        int worldWidth = simulation.getWorldWidth();
+        for(int i = 0; i < lanes; i++) {
+            int laneCentre = (Simulation.getLaneEdge(worldWidth, lanes, i) + Simulation.getLaneEdge(worldWidth, lanes, i + 1)) / 2;
+            carX[i] = laneCentre - Car.CAR_WIDTH/2;
+        }
+        broadphase = new CollisionBroadphase(carX, Car.CAR_WIDTH, Car.CAR_HEIGHT, worldHeight);
+        collisionCandidates = new int[lanes];
+        reset();
+    }
+
+    /**
+     * Updates all the cars, checking if they have left the screen to provide score,
+     * and then checks if any of the cars hit the player while moving to trigger a crash.
+     *
+     * @param deltaTime Time since last update.
+     */
+    public void update(int deltaTime) {
+        System.arraycopy(carY, 0, previousCarY, 0, lanes);
+        maxMoveDistance = 0;
+        playerHit = false;
+        for(int wordIndex = 0; wordIndex < activeCars.length; wordIndex++) {
+            // Walk only the set bits of each word, lowest lane first
+            long word = activeCars[wordIndex];
+            while(word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                int lane = wordIndex * 64 + bit;
+                updateCar(lane, deltaTime);
+                // Re-read the word as cars may have been activated or reset by this car
+                word = bit == 63 ? 0 : activeCars[wordIndex] & (-1L << (bit + 1));
+            }
+        }
+        if(playerHit || isSweptCollidingWith(playerCar)) {
+            simulation.increaseCrashCount();
+        }
+    }
+
+    /**
+     * Checks if any active car touched a rectangle at any point while moving from its
+     * previous to its current position in the most recent update. Only the cars in lanes
+     * and bands between the rectangle and the furthest any car could have moved past it
+     * are tested exactly.
+     *
+     * @param rectangle The rectangle to test, such as a player car.
+     * @return True if any car touched the rectangle during its move.
+     */
+    public boolean isSweptCollidingWith(Rectangle rectangle) {
+        Position position = rectangle.getPosition();
+        int candidateCount = broadphase.findCandidates(position.x, position.y, rectangle.getWidth(),
+                rectangle.getHeight() + maxMoveDistance, collisionCandidates);
+        for(int i = 0; i < candidateCount; i++) {
+            if(isSweptColliding(collisionCandidates[i], rectangle)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if any active car is intersecting a rectangle. Only the cars in lanes
+     * and bands near the rectangle are tested exactly.
+     *
+     * @param rectangle The rectangle to test, such as a player car.
+     * @return True if any car is intersecting the rectangle.
+     */
+    public boolean isCollidingWith(Rectangle rectangle) {
+        int candidateCount = broadphase.findCandidates(rectangle, collisionCandidates);
+        for(int i = 0; i < candidateCount; i++) {
+            int lane = collisionCandidates[i];
+            if(rectangle.isIntersecting(carX[lane], carY[lane], Car.CAR_WIDTH, Car.CAR_HEIGHT)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resets all cars, and then activates up to the max number of lanes again.
+     */
+    public void reset() {
+        inactiveCount = 0;
+        for(int lane = 0; lane < lanes; lane++) {
+            resetCar(lane);
+        }
+        for(int i = 0; i < maxActiveLanes; i++) {
+            activateRandomCar();
+        }
+    }
+
+    /**
+     * Draws all the cars.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     */
+    public void paint(Graphics g) {
+        paint(g, 1);
+    }
+
+    /**
+     * Draws all the active cars interpolated between their previous and current positions.
+     * Inactive cars are waiting above the top of the screen so are not drawn.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     * @param alpha How far between the previous and current positions to draw, from 0 to 1.
+     */
+    public void paint(Graphics g, float alpha) {
+        for(int lane = 0; lane < lanes; lane++) {
+            if(!isActive(lane)) continue;
+            Car.paintCar(g, carX[lane], getPaintY(lane, alpha), Car.CAR_WIDTH, Car.CAR_HEIGHT,
+                    getColour(carType[lane]), Color.BLACK);
+        }
+    }
+
+    /**
+     * Draws all the active cars interpolated between their previous and current positions
+     * by copying the pre-drawn image for each car's type from a sprite cache.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     * @param alpha How far between the previous and current positions to draw, from 0 to 1.
+     * @param sprites Sprite cache that has been validated for this frame.
+     */
+    public void paint(Graphics g, float alpha, CarSpriteCache sprites) {
+        for(int lane = 0; lane < lanes; lane++) {
+            if(!isActive(lane)) continue;
+            sprites.drawSprite(g, carType[lane], carX[lane], getPaintY(lane, alpha));
+        }
+    }
+
+    /**
+     * Reports where and how every car will be drawn so the areas they moved from and to are
+     * drawn again. Each lane owns a slot of the regions, starting from firstSlot.
+     *
+     * @param regions Regions to make dirty.
+     * @param firstSlot The slot of the regions owned by lane 0.
+     * @param alpha How far between the previous and current positions they will be drawn, from 0 to 1.
+     */
+    public void addDirtyRegions(DirtyRegions regions, int firstSlot, float alpha) {
+        for(int lane = 0; lane < lanes; lane++) {
+            if(isActive(lane)) {
+                regions.update(firstSlot + lane, carX[lane], getPaintY(lane, alpha),
+                        Car.CAR_WIDTH, Car.CAR_HEIGHT, carType[lane]);
+            } else {
+                regions.hide(firstSlot + lane);
+            }
+        }
+    }
+
+    /**
+     * Changes how fast a type of car moves. If the max speed is larger than the min speed
+     * a new random speed in that range is chosen every update.
+     *
+     * @param carType The type of car to change.
+     * @param minSpeed Slowest speed in pixels per second.
+     * @param maxSpeed Speed the car is always slower than, or the same as minSpeed for a fixed speed.
+     */
+    public void setCarTypeSpeed(int carType, int minSpeed, int maxSpeed) {
+        minSpeeds[carType] = minSpeed;
+        maxSpeeds[carType] = Math.max(minSpeed, maxSpeed);
+    }
+
+    /**
+     * Gets the x coordinate of the car in a lane.
+     *
+     * @param lane The lane of the car.
+     * @return X coordinate of the top left corner of the car.
+     */
+    public int getCarX(int lane) {
+        return carX[lane];
+    }
+
+    /**
+     * Gets the y coordinate of the car in a lane.
+     *
+     * @param lane The lane of the car.
+     * @return Y coordinate of the top left corner of the car.
+     */
+    public int getCarY(int lane) {
+        return carY[lane];
+    }
+
+    /**
+     * Gets the type of the car in a lane.
+     *
+     * @param lane The lane of the car.
+     * @return The car's type from 0 to CAR_TYPES-1.
+     */
+    public int getCarType(int lane) {
+        return carType[lane];
+    }
+
+    /**
+     * Gets the speed of the car in a lane.
+     *
+     * @param lane The lane of the car.
+     * @return The car's speed in pixels per second.
+     */
+    public int getCarSpeed(int lane) {
+        return carSpeed[lane];
+    }
+
+    /**
+     * Lists the lanes with a car that is currently moving, lowest lane first.
+     *
+     * @param toLanes Receives the active lanes, with room for one entry per lane.
+     * @return The number of active lanes written.
+     */
+    public int getActiveLanes(int[] toLanes) {
+        int count = 0;
+        for(int wordIndex = 0; wordIndex < activeCars.length; wordIndex++) {
+            long word = activeCars[wordIndex];
+            while(word != 0) {
+                toLanes[count++] = wordIndex * 64 + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Copies the state needed to draw every car into arrays of at least one entry per lane,
+     * so it can be drawn on another thread while the cars keep moving.
+     *
+     * @param toCarX Receives the x coordinate of the car in each lane.
+     * @param toCarY Receives the y coordinate of the car in each lane.
+     * @param toPreviousCarY Receives the y coordinate of each car at the start of the most recent update.
+     * @param toCarType Receives the type of the car in each lane.
+     * @param toActiveCars Receives the bit set of active lanes, with at least (lanes + 63) / 64 words.
+     */
+    public void copyState(int[] toCarX, int[] toCarY, int[] toPreviousCarY, int[] toCarType, long[] toActiveCars) {
+        System.arraycopy(carX, 0, toCarX, 0, lanes);
+        System.arraycopy(carY, 0, toCarY, 0, lanes);
+        System.arraycopy(previousCarY, 0, toPreviousCarY, 0, lanes);
+        System.arraycopy(carType, 0, toCarType, 0, lanes);
+        System.arraycopy(activeCars, 0, toActiveCars, 0, activeCars.length);
+    }
+
+    /**
+     * Gets the number of lanes.
+     *
+     * @return The number of lanes, with one car for each lane.
+     */
+    public int getLanes() {
+        return lanes;
+    }
+
+    /**
+     * Gets the maximum number of lanes that can have a car moving at one time.
+     *
+     * @return The maximum number of active lanes.
+     */
+    public int getMaxActiveLanes() {
+        return maxActiveLanes;
+    }
+
+    /**
+     * Gets the number of cars that are currently moving.
+     *
+     * @return The number of active cars.
+     */
+    public int getActiveCarCount() {
+        int count = 0;
+        for(long word : activeCars) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Checks if the car in a lane is currently moving.
+     *
+     * @param lane The lane to check.
+     * @return True if the car in the lane is active.
+     */
+    public boolean isActive(int lane) {
+        return (activeCars[lane >>> 6] & (1L << lane)) != 0;
+    }
+
+    /**
+     * Gets the y coordinate the car in a lane is drawn at between its previous and current position.
+     *
+     * @param lane The lane of the car.
+     * @param alpha How far between the previous and current position, from 0 to 1.
+     * @return Y coordinate of the top left corner.
+     */
+    private int getPaintY(int lane, float alpha) {
+        return previousCarY[lane] + Math.round((carY[lane] - previousCarY[lane]) * alpha);
+    }
+
+    /**
+     * Checks if the car in a lane touched a rectangle while moving from its previous to its current position.
+     *
+     * @param lane The lane of the car.
+     * @param rectangle The rectangle to test.
+     * @return True if the car touched the rectangle during its move.
+     */
+    private boolean isSweptColliding(int lane, Rectangle rectangle) {
+        return rectangle.isSweptIntersecting(carX[lane], previousCarY[lane], Car.CAR_WIDTH, Car.CAR_HEIGHT,
+                0, carY[lane] - previousCarY[lane]);
+    }
+
+    /**
+     * Moves an active car and checks if it has left the screen to provide score.
+     * A car that hit the player on its way off the screen causes a crash instead of scoring.
+     *
+     * @param lane The lane of the car to update.
+     * @param deltaTime Time since last update.
+     */
+    private void updateCar(int lane, int deltaTime) {
+        int type = carType[lane];
+        int speedRange = maxSpeeds[type] - minSpeeds[type];
+        carSpeed[lane] = minSpeeds[type] + (speedRange > 0 ? random.nextInt(speedRange) : 0);
+        carFixedY[lane] += Position.getFixedDistance(carSpeed[lane], deltaTime);
+        carY[lane] = Position.toPixels(carFixedY[lane]);
+        maxMoveDistance = Math.max(maxMoveDistance, carY[lane] - previousCarY[lane]);
+        if(carY[lane] > worldHeight) {
+            // Car has left the screen
+            if(isSweptColliding(lane, playerCar)) {
+                playerHit = true;
+            } else {
+                simulation.increaseScore(carType[lane]+1);
+            }
+            resetCar(lane);
+            activateRandomCar();
+        } else {
+            broadphase.move(lane, carY[lane]);
+        }
+    }
+
+    /**
+     * Moves the car in a lane back to its start position above the screen,
+     * deactivates it, randomises it to a new car type, and adds it to the inactive lanes.
+     * Package-private so it can be benchmarked.
+     *
+     * @param lane The lane of the car to reset.
+     */
+    void resetCar(int lane) {
+        carY[lane] = -Car.CAR_HEIGHT;
+        carFixedY[lane] = Position.toFixed(-Car.CAR_HEIGHT);
+        previousCarY[lane] = -Car.CAR_HEIGHT;
+        carType[lane] = getRandomCarType(random);
+        activeCars[lane >>> 6] &= ~(1L << lane);
+        broadphase.remove(lane);
+        inactiveLanes[inactiveCount++] = lane;
+    }
+
+    /**
+     * Activates a car that is not currently active, with every inactive lane equally likely.
+     * Takes the same time no matter how many lanes there are.
+     * Package-private so it can be benchmarked.
+     *
+     * @return The lane of the car that was activated.
+     */
+    int activateRandomCar() {
+        int index = random.nextInt(inactiveCount);
+        int lane = inactiveLanes[index];
+        // Fill the gap with the last lane in the pool
+        inactiveLanes[index] = inactiveLanes[--inactiveCount];
+        activeCars[lane >>> 6] |= 1L << lane;
+        broadphase.move(lane, carY[lane]);
+        return lane;
+    }
+
+    /**
+     * Gets the default slowest speed for a type of car.
+     *
+     * @param carType The type of car.
+     * @return Speed in pixels per second.
+     */
+    public static int getDefaultMinSpeed(int carType) {
+        return DEFAULT_MIN_SPEEDS[carType];
+    }
+
+    /**
+     * Gets the default speed a type of car is always slower than, or the same as
+     * getDefaultMinSpeed() if the type of car has a fixed speed.
+     *
+     * @param carType The type of car.
+     * @return Speed in pixels per second.
+     */
+    public static int getDefaultMaxSpeed(int carType) {
+        return DEFAULT_MAX_SPEEDS[carType];
+    }
+
+    /**
+     * Randomly selects a type of car using the provided random number generator.
+     *
+     * @param random Random number generator to use.
+     * @return A car type from 0 to CAR_TYPES-1.
+     */
+    public static int getRandomCarType(SplittableRandom random) {
+        return random.nextInt(CAR_TYPES);
+    }
+
+    /**
+     * Gets the body colour for a type of car.
+     *
+     * @param carType The type of car.
+     * @return Blue, green, or red for car types 0, 1, and 2.
+     */
+    public static Color getColour(int carType) {
+        switch(carType) {
+            case 0:
+                return Color.BLUE;
+            case 1:
+                return Color.GREEN;
+            default:
+                return Color.RED;
+        }
+    }
+}
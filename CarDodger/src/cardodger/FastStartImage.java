@@ -0,0 +1,144 @@
+package cardodger;
+
+import java.awt.*;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.spi.ToolProvider;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * FastStartImage class:
+ * Builds a folder that starts the game as quickly as possible. It contains a minimal Java
+ * runtime made by jlink with only the modules the game uses, the game's jar, an AppCDS
+ * archive of every class loaded while starting the game, and a launcher script that runs
+ * the game with the fast start. Run from the game's jar with the folder to create:
+ *
+ *   java -cp CarDodger/target/car-dodger-1.0-SNAPSHOT.jar cardodger.FastStartImage DIR
+ *
+ * The archive is made by starting the game once with -XX:ArchiveClassesAtExit, in a window
+ * when there is a display or offscreen when there is not. The runtime from jlink has no
+ * default CDS archive of its own in this Java version, so one is made with -Xshare:dump
+ * first, as the AppCDS archive is layered on top of it. Both archives only work with the
+ * runtime they were made by, so the folder must be rebuilt when the game changes.
+ */
+public class FastStartImage {
+    /**
+     * Modules the game needs, as found by jdeps.
+     */
+    private static final String MODULES = "java.desktop,jdk.management";
+    /**
+     * Name of the folder holding the runtime.
+     */
+    public static final String RUNTIME = "runtime";
+    /**
+     * Name of the game's jar in the folder.
+     */
+    public static final String JAR = "car-dodger.jar";
+    /**
+     * Name of the AppCDS archive in the folder.
+     */
+    public static final String ARCHIVE = "car-dodger.jsa";
+    /**
+     * Name of the launcher script in the folder.
+     */
+    public static final String LAUNCHER = "car-dodger";
+
+    /**
+     * Entry point to build the folder.
+     *
+     * @param args The folder to create, which must not exist.
+     * @throws IOException If the folder could not be written.
+     * @throws InterruptedException If interrupted while waiting for the runtime to run.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if(args.length != 1) {
+            System.out.println("Usage: FastStartImage DIR");
+            return;
+        }
+        Path directory = Path.of(args[0]);
+        Path jar = findJar();
+        if(jar == null) {
+            System.out.println("FastStartImage must be run from the game's jar, as AppCDS can only archive classes from jars.");
+            System.exit(1);
+        }
+        ToolProvider jlink = ToolProvider.findFirst("jlink").orElse(null);
+        if(jlink == null) {
+            System.out.println("jlink is not available, run FastStartImage with a full JDK.");
+            System.exit(1);
+        }
+
+        Path runtime = directory.resolve(RUNTIME);
+        System.out.println("Linking " + MODULES + " into " + runtime);
+        int status = jlink.run(new PrintWriter(System.out, true), new PrintWriter(System.err, true),
+                "--add-modules", MODULES, "--strip-debug", "--no-header-files", "--no-man-pages",
+                "--output", runtime.toString());
+        if(status != 0) {
+            System.out.println("jlink failed with status " + status);
+            System.exit(1);
+        }
+        Files.copy(jar, directory.resolve(JAR), StandardCopyOption.REPLACE_EXISTING);
+
+        String java = runtime.resolve("bin").resolve("java").toString();
+        System.out.println("Creating the runtime's default CDS archive");
+        // The default class list names some classes from modules left out, which only gives warnings
+        run(java, "-Xshare:dump", "-Xlog:cds=error");
+        System.out.println("Creating the AppCDS archive from starting the game");
+        List<String> command = new ArrayList<>(List.of(java,
+                "-XX:ArchiveClassesAtExit=" + directory.resolve(ARCHIVE),
+                "-cp", directory.resolve(JAR).toString(), Game.class.getName(),
+                "--fast-start", "--exit-after-first-frame", "--no-journal"));
+        if(GraphicsEnvironment.isHeadless()) {
+            command.add("--offscreen");
+        }
+        run(command.toArray(new String[0]));
+
+        Path launcher = directory.resolve(LAUNCHER);
+        Files.writeString(launcher, String.join("\n",
+                "#!/bin/sh",
+                "# Starts Car Dodger with its own runtime, AppCDS archive, and the fast start.",
+                "DIR=\"$(cd \"$(dirname \"$0\")\" && pwd)\"",
+                "exec \"$DIR/" + RUNTIME + "/bin/java\" -XX:SharedArchiveFile=\"$DIR/" + ARCHIVE + "\" \\",
+                "    -cp \"$DIR/" + JAR + "\" " + Game.class.getName() + " --fast-start \"$@\"",
+                ""));
+        launcher.toFile().setExecutable(true);
+        System.out.println("Created " + launcher);
+    }
+
+    /**
+     * Finds the jar this class was loaded from.
+     *
+     * @return The jar, or null if the class was not loaded from a jar.
+     */
+    private static Path findJar() {
+        try {
+            Path path = Path.of(FastStartImage.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            return Files.isRegularFile(path) ? path : null;
+        } catch(URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Runs a command, passing its output through, and exits if it fails.
+     *
+     * @param command The command and its arguments.
+     * @throws IOException If the command could not be started.
+     * @throws InterruptedException If interrupted while waiting for the command.
+     */
+    private static void run(String... command) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        int status = process.waitFor();
+        if(status != 0) {
+            System.out.println(String.join(" ", command) + " failed with status " + status);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package cardodger;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.image.BufferedImage;
+import java.util.Locale;
+
+/**
+ * CarDodger
+ * Author: Peter Mitchell (2021)
+ *
+ * Game class:
+ * Defines the entry point for the game by creating the frame,
+ * and populating it with a GamePanel. See GameOptions for the command line options.
+ * The whole UI is built on the event dispatch thread, and the game only starts once its
+ * window is showing. The time from main() starting to the first frame being drawn is
+ * printed. With the fast start the status panel is built after the first frame in space
+ * kept for it, so the window does not change size, and its font loads on a background
+ * thread when there is a spare processor.
+ * StartupBenchmark uses this to measure starting the game.
+ */
+public class Game implements KeyListener {
+    /**
+     * System.nanoTime() when the Game class was loaded, just before main() started.
+     */
+    private static final long mainStartTime = System.nanoTime();
+
+    /**
+     * Entry point for the application to create an instance of the Game class.
+     *
+     * @param args Options described by GameOptions.
+     */
+    public static void main(String[] args) {
+        GameOptions options;
+        try {
+            options = GameOptions.parse(args);
+        } catch(IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("See GameOptions for the options.");
+            System.exit(2);
+            return;
+        }
+        if(options.isFastStart()) {
+            GameFonts.preload();
+        }
+        EventQueue.invokeLater(() -> new Game(options));
+    }
+
+    /**
+     * Reference to the GamePanel object to pass key events to.
+     */
+    private GamePanel gamePanel;
+    /**
+     * Reference to the StatusPanel to pass updates to, or null until it is built.
+     */
+    private volatile StatusPanel statusPanel;
+    /**
+     * Space kept beside the GamePanel that the StatusPanel is added to.
+     */
+    private JPanel statusHolder;
+    /**
+     * Options the game was started with.
+     */
+    private GameOptions options;
+    /**
+     * System.nanoTime() when the first frame was drawn.
+     */
+    private long firstFrameTime;
+
+    /**
+     * Creates the JFrame with a GamePanel inside it, attaches a key listener,
+     * makes everything visible, and starts the game. Must be called on the event dispatch thread.
+     */
+    public Game() {
+        this(new GameOptions());
+    }
+
+    /**
+     * Creates the JFrame with a GamePanel inside it, attaches a key listener,
+     * makes everything visible, and starts the game. Must be called on the event dispatch thread.
+     *
+     * @param options Options for recording, rendering, and repainting.
+     */
+    public Game(GameOptions options) {
+        this.options = options;
+        gamePanel = new GamePanel(this, options);
+        statusHolder = new JPanel(new BorderLayout());
+        statusHolder.setPreferredSize(new Dimension(StatusPanel.PANEL_WIDTH, gamePanel.getPreferredSize().height));
+        if(!options.isFastStart()) {
+            buildStatusPanel();
+        }
+        JPanel content = new JPanel(new BorderLayout());
+        content.add(gamePanel, BorderLayout.CENTER);
+        content.add(statusHolder, BorderLayout.EAST);
+        if(options.isOffscreen()) {
+            drawOffscreen(content);
+            gamePanel.start();
+            return;
+        }
+
+        JFrame frame = new JFrame("Car Dodger");
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setResizable(false);
+        frame.setContentPane(content);
+
+        frame.addKeyListener(this);
+        frame.pack();
+        frame.setVisible(true);
+        // Moves the focus back to the frame it will default to the quit button, this allows keyboard input
+        frame.requestFocus();
+        gamePanel.watchWindow(frame);
+        gamePanel.start();
+    }
+
+    /**
+     * Passes the current score, best score, and number of crashes to the status panel.
+     * Safe to call from any thread.
+     *
+     * @param score Current score to display.
+     * @param bestScore Best score during the session to display.
+     * @param crashes Number of crashes to display.
+     */
+    public void showStatus(int score, int bestScore, int crashes) {
+        StatusPanel panel = statusPanel;
+        if(panel != null) {
+            panel.showStatus(score, bestScore, crashes);
+        }
+    }
+
+    /**
+     * Builds anything left until after the first frame. When asked to exit after the first
+     * frame, then prints how long starting took for StartupBenchmark and exits.
+     * Called once by the GamePanel from the thread that drew the frame.
+     */
+    public void firstFrameDrawn() {
+        firstFrameTime = System.nanoTime();
+        EventQueue.invokeLater(() -> {
+            if(statusPanel == null) {
+                buildStatusPanel();
+            }
+            if(options.isExitAfterFirstFrame()) {
+                long readyTime = System.nanoTime();
+                // Always with a decimal point, as StartupBenchmark reads the numbers back
+                System.out.printf(Locale.ROOT, "Startup: first frame %.1f ms, ready %.1f ms after main() started%n",
+                        (firstFrameTime - mainStartTime) / 1e6, (readyTime - mainStartTime) / 1e6);
+                System.exit(0);
+            }
+        });
+    }
+
+    /**
+     * Creates the StatusPanel in the space kept for it.
+     */
+    private void buildStatusPanel() {
+        StatusPanel panel = new StatusPanel(gamePanel.getPreferredSize().height);
+        statusHolder.add(panel, BorderLayout.CENTER);
+        statusHolder.revalidate();
+        statusPanel = panel;
+    }
+
+    /**
+     * Lays out the content the way the frame would and draws it into an image instead of a window.
+     *
+     * @param content Everything that would be in the frame.
+     */
+    private void drawOffscreen(JPanel content) {
+        content.setSize(content.getPreferredSize());
+        layOut(content);
+        BufferedImage image = new BufferedImage(content.getWidth(), content.getHeight(), BufferedImage.TYPE_INT_RGB);
+        EventQueue.invokeLater(() -> {
+            Graphics g = image.createGraphics();
+            content.paint(g);
+            g.dispose();
+        });
+    }
+
+    /**
+     * Lays out a container and everything inside it. Needed without a window, as
+     * validate() only lays out containers that have been shown.
+     *
+     * @param container The container to lay out.
+     */
+    private static void layOut(Container container) {
+        container.doLayout();
+        for(Component child : container.getComponents()) {
+            if(child instanceof Container) {
+                layOut((Container) child);
+            }
+        }
+    }
+
+    /**
+     * Called when the key is pressed down. Passes the key press on to the GamePanel.
+     *
+     * @param e Information about what key was pressed.
+     */
+    @Override
+    public void keyPressed(KeyEvent e) {
+        gamePanel.handleInput(e.getKeyCode());
+    }
+
+    /**
+     * Not used.
+     *
+     * @param e Not used.
+     */
+    @Override
+    public void keyTyped(KeyEvent e) {}
+    /**
+     * Not used.
+     *
+     * @param e Not used.
+     */
+    @Override
+    public void keyReleased(KeyEvent e) {}
+}
@@ -0,0 +1,39 @@
+package cardodger;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * GameFonts class:
+ * The fonts used by the interface, created once and shared by every component that
+ * uses them. A Font never changes so one instance can be shared safely. Finding and
+ * loading the font file the first time a font is measured is one of the slowest parts
+ * of starting the game, so preload() can do it on a background thread while the rest
+ * of the game is built.
+ */
+public class GameFonts {
+    /**
+     * Font for every label and button on the status panel.
+     */
+    public static final Font STATUS = new Font("Arial", Font.BOLD, 40);
+
+    /**
+     * Every character the status panel shows, to load their glyphs.
+     */
+    private static final String PRELOAD_TEXT = "SCOREBESTCRASHQuit-0123456789";
+
+    /**
+     * Loads the fonts on a background thread so they are ready when the status panel is drawn.
+     * Does nothing with a single processor, where the thread would only slow down building the rest.
+     */
+    public static void preload() {
+        if(Runtime.getRuntime().availableProcessors() < 2) return;
+        Thread thread = new Thread(() -> STATUS.getStringBounds(PRELOAD_TEXT,
+                new FontRenderContext(null, false, false)), "Font preload");
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,264 @@
+package cardodger;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * GameLoop class:
+ * Runs a dedicated thread timed with System.nanoTime() that accumulates elapsed time
+ * and triggers fixed length updates, followed by one render per frame with an
+ * interpolation factor between the last two updates. The updates and the render call both
+ * run on the loop's own thread, so it acts as the simulation thread: game state is only
+ * ever changed from this one thread, and a slow paint on the Swing event dispatch thread
+ * never delays an update. The listener's render is expected to hand the state off to be
+ * drawn elsewhere rather than draw it. If the loop falls too far behind it drops the excess
+ * time instead of trying to catch up forever. Measures frame and tick jitter so frame
+ * pacing can be checked. The frame rate can be lowered while running to save power,
+ * and the loop can be paused, which parks its thread until it is resumed. Time spent
+ * paused is skipped rather than caught up on.
+ */
+public class GameLoop implements Runnable {
+    /**
+     * Number of frames to render per second.
+     */
+    public static final int TARGET_FRAME_RATE = 60;
+    /**
+     * Maximum number of updates to run in a single frame before dropping time, for each
+     * update due in a frame. At a frame rate lower than the update rate several updates
+     * are due every frame, so the limit grows with them to keep the same room to catch up.
+     */
+    public static final int MAX_UPDATES_PER_FRAME = 5;
+
+    /**
+     * The listener that is updated and rendered.
+     */
+    private final GameLoopListener listener;
+    /**
+     * Length of each fixed update in ms.
+     */
+    private final int stepMillis;
+    /**
+     * Length of each fixed update in ns.
+     */
+    private final long stepNanos;
+    /**
+     * Target time between frames in ns.
+     */
+    private volatile long frameNanos;
+    /**
+     * True while the loop should not update or render.
+     */
+    private volatile boolean paused;
+    /**
+     * Thread running the loop, or null when not started.
+     */
+    private Thread thread;
+    /**
+     * True while the loop should keep running.
+     */
+    private volatile boolean running;
+    /**
+     * Difference between the measured and target time between frames in ms.
+     */
+    private final RunningStatistics frameJitter;
+    /**
+     * How late each update ran compared to when it was due in ms.
+     */
+    private final RunningStatistics tickLateness;
+    /**
+     * Number of frames where time had to be dropped because the loop fell too far behind.
+     */
+    private long droppedFrames;
+    /**
+     * Total time that has been dropped in ns.
+     */
+    private long droppedNanos;
+
+    /**
+     * Prepares a loop that will update the listener with fixed steps once started.
+     *
+     * @param listener The listener to update and render.
+     * @param stepMillis Length of each fixed update in ms.
+     */
+    public GameLoop(GameLoopListener listener, int stepMillis) {
+        this.listener = listener;
+        this.stepMillis = stepMillis;
+        stepNanos = stepMillis * 1_000_000L;
+        frameNanos = 1_000_000_000L / TARGET_FRAME_RATE;
+        frameJitter = new RunningStatistics();
+        tickLateness = new RunningStatistics();
+    }
+
+    /**
+     * Starts the loop on its own thread.
+     */
+    public void start() {
+        running = true;
+        thread = new Thread(this, "GameLoop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the loop after the current frame. When called from another thread, waits for
+     * the current frame to finish so the listener's state is no longer being changed.
+     */
+    public void stop() {
+        running = false;
+        if(thread != null && thread != Thread.currentThread()) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(1000);
+            } catch(InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Pauses or resumes the loop. While paused the thread is parked and no updates or renders
+     * run. When resumed the time spent paused is skipped, so the game carries on from where
+     * it stopped instead of running the missed updates.
+     *
+     * @param paused True to pause, or false to resume.
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+        if(!paused && thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    /**
+     * Checks if the loop is paused.
+     *
+     * @return True if the loop is paused.
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Changes how many frames are rendered per second. Updates still run at the same rate,
+     * with more of them run before each render when the frame rate is lowered.
+     *
+     * @param frameRate Number of frames to render per second.
+     */
+    public void setFrameRate(int frameRate) {
+        frameNanos = 1_000_000_000L / frameRate;
+    }
+
+    /**
+     * Gets the most updates to run in one frame before dropping time.
+     *
+     * @param frameNanos Target time between frames in ns.
+     * @return MAX_UPDATES_PER_FRAME for each update due in a frame, rounded up to a whole update.
+     */
+    private int getMaxUpdates(long frameNanos) {
+        long updatesPerFrame = Math.max(1, (frameNanos + stepNanos - 1) / stepNanos);
+        return (int) Math.min(Integer.MAX_VALUE, MAX_UPDATES_PER_FRAME * updatesPerFrame);
+    }
+
+    /**
+     * Gets the length of each fixed update.
+     *
+     * @return Length of each update in ns.
+     */
+    public long getStepNanos() {
+        return stepNanos;
+    }
+
+    /**
+     * Accumulates elapsed time, runs the due updates and a render,
+     * and then waits until the next frame is due.
+     */
+    @Override
+    public void run() {
+        long accumulator = 0;
+        long previousTime = System.nanoTime();
+        long nextFrameTime = previousTime + frameNanos;
+        boolean firstFrame = true;
+        boolean wasPaused = false;
+        while(running) {
+            if(paused) {
+                LockSupport.park(this);
+                wasPaused = true;
+                continue;
+            }
+            if(wasPaused) {
+                // Start timing again from now so the paused time is not caught up on
+                wasPaused = false;
+                previousTime = System.nanoTime();
+                nextFrameTime = previousTime + frameNanos;
+                firstFrame = true;
+            }
+            long currentTime = System.nanoTime();
+            long elapsed = currentTime - previousTime;
+            previousTime = currentTime;
+            if(!firstFrame) {
+                frameJitter.add((elapsed - frameNanos) / 1e6);
+            }
+            firstFrame = false;
+
+            accumulator += elapsed;
+            int updates = 0;
+            int maxUpdates = getMaxUpdates(frameNanos);
+            while(accumulator >= stepNanos && updates < maxUpdates) {
+                accumulator -= stepNanos;
+                // The update was due this long before it is about to run
+                tickLateness.add(accumulator / 1e6);
+                listener.update(stepMillis);
+                updates++;
+            }
+            if(accumulator >= stepNanos) {
+                // Too far behind, drop whole steps rather than spiralling
+                droppedFrames++;
+                droppedNanos += accumulator - accumulator % stepNanos;
+                accumulator %= stepNanos;
+            }
+
+            listener.render(accumulator / (float) stepNanos);
+
+            long sleepTime = nextFrameTime - System.nanoTime();
+            if(sleepTime > 0) {
+                LockSupport.parkNanos(sleepTime);
+            }
+            nextFrameTime += frameNanos;
+            if(nextFrameTime < System.nanoTime()) {
+                // Missed the frame entirely, start pacing again from now
+                nextFrameTime = System.nanoTime() + frameNanos;
+            }
+        }
+    }
+
+    /**
+     * Gets the statistics for how far each frame was from the target frame time.
+     *
+     * @return Frame jitter in ms.
+     */
+    public RunningStatistics getFrameJitter() {
+        return frameJitter;
+    }
+
+    /**
+     * Gets the statistics for how late each update ran compared to when it was due.
+     *
+     * @return Tick lateness in ms.
+     */
+    public RunningStatistics getTickLateness() {
+        return tickLateness;
+    }
+
+    /**
+     * Gets a summary of the measured frame pacing.
+     *
+     * @return Multiple lines describing frame jitter, tick lateness, and dropped time.
+     */
+    public String getJitterReport() {
+        return "Frame jitter (ms): " + frameJitter + System.lineSeparator()
+                + "Tick lateness (ms): " + tickLateness + System.lineSeparator()
+                + "Dropped frames: " + droppedFrames + " (" + droppedNanos / 1_000_000 + " ms dropped)";
+    }
+}
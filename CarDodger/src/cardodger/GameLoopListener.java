@@ -0,0 +1,25 @@
+package cardodger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * GameLoopListener interface:
+ * Receives the fixed updates and the interpolated renders triggered by a GameLoop.
+ * Both are called on the loop's own thread.
+ */
+public interface GameLoopListener {
+    /**
+     * Called once for every fixed step of simulation time.
+     *
+     * @param deltaTime Length of the fixed step in ms.
+     */
+    void update(int deltaTime);
+
+    /**
+     * Called once per frame after any updates to publish the current state to be drawn.
+     *
+     * @param alpha How far between the previous and current update to draw, from 0 to 1.
+     */
+    void render(float alpha);
+}
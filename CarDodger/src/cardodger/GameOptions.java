@@ -0,0 +1,386 @@
+package cardodger;
+
+import java.nio.file.Path;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * GameOptions class:
+ * Options for running the game window, read from the command line. An unknown option,
+ * a missing or malformed value, or a size or count the game cannot use is reported
+ * instead of being ignored.
+ *
+ * Arguments (all optional):
+ *   --record FILE              Record the game's input to a file for ReplayRunner.
+ *   --active-rendering         Draw frames from the game loop into a BufferStrategy.
+ *   --dirty-threshold FRACTION Repaint the whole panel instead of only the parts that changed
+ *                              when more than this fraction of it changed (default 0.5).
+ *   --timing-dump BASE         Write the phase timings to BASE.csv and BASE.json on exit.
+ *   --no-power-save            Keep running at the full rate while minimised or unfocused.
+ *   --world WxH                Size of the world in world units (default 500x500).
+ *   --lanes N                  Number of lanes (default 14).
+ *   --active N                 Maximum lanes with a car in them at once (default 10, at most the lanes).
+ *   --view WxH                 Size to draw the world at in pixels. Defaults to the world size,
+ *                              shrunk to fit in MAX_DEFAULT_VIEW_SIZE keeping its shape.
+ *   --journal FILE             Score journal to keep scores in (default ~/.cardodger/scores.journal).
+ *   --no-journal               Do not keep scores after the game exits.
+ *   --profile N                Profile to record and show the best score of (default 0).
+ *   --telemetry FILE           Record the state after every update to a file for TelemetryReader.
+ *   --fast-start               Draw the first frame sooner by loading fonts in the background
+ *                              and building the status panel after the first frame.
+ *   --exit-after-first-frame   Print the startup times and exit once the game is ready, for StartupBenchmark.
+ *   --offscreen                Draw frames into an image instead of opening a window, so startup can be
+ *                              measured and an AppCDS archive trained without a display.
+ */
+public class GameOptions {
+    /**
+     * Largest width or height of the view when no view size is given.
+     */
+    public static final int MAX_DEFAULT_VIEW_SIZE = 800;
+
+    /**
+     * File to record the game's input to, or null to not record.
+     */
+    private Path recordFile;
+    /**
+     * True to draw frames from the game loop into a BufferStrategy.
+     */
+    private boolean activeRendering;
+    /**
+     * Fraction of the panel that can change before the whole panel is repainted.
+     */
+    private double fullRepaintThreshold = 0.5;
+    /**
+     * Path without an extension to write the phase timings to on exit, or null to not write them.
+     */
+    private String timingDumpBase;
+    /**
+     * True to slow down or pause the game while its window is unfocused or minimised.
+     */
+    private boolean powerSave = true;
+    /**
+     * Width of the world in world units.
+     */
+    private int worldWidth = Simulation.WORLD_WIDTH;
+    /**
+     * Height of the world in world units.
+     */
+    private int worldHeight = Simulation.WORLD_HEIGHT;
+    /**
+     * Number of lanes.
+     */
+    private int lanes = Simulation.NUMBER_OF_LANES;
+    /**
+     * Maximum lanes with a car in them at once, or 0 for the default.
+     */
+    private int maxActiveLanes;
+    /**
+     * Width of the view in pixels, or 0 to work it out from the world size.
+     */
+    private int viewWidth;
+    /**
+     * Height of the view in pixels, or 0 to work it out from the world size.
+     */
+    private int viewHeight;
+    /**
+     * Score journal to keep scores in, or null to not keep them.
+     */
+    private Path journalFile = Path.of(System.getProperty("user.home"), ".cardodger", "scores.journal");
+    /**
+     * Profile to record and show the best score of.
+     */
+    private int profile;
+    /**
+     * File to record the state after every update to, or null to not record.
+     */
+    private Path telemetryFile;
+    /**
+     * True to load fonts in the background and build the status panel after the first frame.
+     */
+    private boolean fastStart;
+    /**
+     * True to exit once the game is ready.
+     */
+    private boolean exitAfterFirstFrame;
+    /**
+     * True to draw frames into an image instead of opening a window.
+     */
+    private boolean offscreen;
+
+    /**
+     * Reads the options from the command line.
+     *
+     * @param args See the class description.
+     * @return The options.
+     * @throws IllegalArgumentException If an option is not known, is missing its value,
+     *                                  or has a value that is not valid.
+     */
+    public static GameOptions parse(String[] args) {
+        GameOptions options = new GameOptions();
+        for(int i = 0; i < args.length; i++) {
+            if(options.setFlag(args[i])) continue;
+            if(i + 1 >= args.length) {
+                throw new IllegalArgumentException("Unknown option or missing value: " + args[i]);
+            }
+            try {
+                options.setOption(args[i], args[++i]);
+            } catch(NumberFormatException e) {
+                throw new IllegalArgumentException("Bad value for " + args[i - 1] + ": " + args[i], e);
+            }
+        }
+        options.validate();
+        return options;
+    }
+
+    /**
+     * Turns on an option that does not take a value.
+     *
+     * @param name Name of the option including the leading "--".
+     * @return True if the option was one that does not take a value.
+     */
+    private boolean setFlag(String name) {
+        switch(name) {
+            case "--active-rendering":
+                activeRendering = true;
+                return true;
+            case "--no-power-save":
+                powerSave = false;
+                return true;
+            case "--no-journal":
+                journalFile = null;
+                return true;
+            case "--fast-start":
+                fastStart = true;
+                return true;
+            case "--exit-after-first-frame":
+                exitAfterFirstFrame = true;
+                return true;
+            case "--offscreen":
+                offscreen = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Changes one of the options that takes a value.
+     *
+     * @param name Name of the option including the leading "--".
+     * @param value Value for the option.
+     * @throws IllegalArgumentException If the option is not known.
+     * @throws NumberFormatException If the option needs a number or size and the value is not one.
+     */
+    private void setOption(String name, String value) {
+        switch(name) {
+            case "--record":
+                recordFile = Path.of(value);
+                break;
+            case "--dirty-threshold":
+                fullRepaintThreshold = Double.parseDouble(value);
+                break;
+            case "--timing-dump":
+                timingDumpBase = value;
+                break;
+            case "--world":
+                int[] worldSize = parseSize(value);
+                worldWidth = worldSize[0];
+                worldHeight = worldSize[1];
+                break;
+            case "--lanes":
+                lanes = Integer.parseInt(value);
+                break;
+            case "--active":
+                maxActiveLanes = Integer.parseInt(value);
+                if(maxActiveLanes < 1) {
+                    throw new IllegalArgumentException("Need at least 1 active lane, not " + maxActiveLanes);
+                }
+                break;
+            case "--journal":
+                journalFile = Path.of(value);
+                break;
+            case "--telemetry":
+                telemetryFile = Path.of(value);
+                break;
+            case "--profile":
+                profile = Integer.parseInt(value);
+                break;
+            case "--view":
+                int[] viewSize = parseSize(value);
+                viewWidth = viewSize[0];
+                viewHeight = viewSize[1];
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown option: " + name);
+        }
+    }
+
+    /**
+     * Checks the options chosen can make a game, so a mistake is reported before the window opens.
+     *
+     * @throws IllegalArgumentException If an option is out of range.
+     */
+    private void validate() {
+        if(worldWidth < Simulation.MIN_WORLD_WIDTH || worldHeight < Simulation.MIN_WORLD_HEIGHT) {
+            throw new IllegalArgumentException("World must be at least " + Simulation.MIN_WORLD_WIDTH + "x"
+                    + Simulation.MIN_WORLD_HEIGHT + ", not " + worldWidth + "x" + worldHeight);
+        }
+        if(viewWidth < 0 || viewHeight < 0 || (viewWidth == 0) != (viewHeight == 0)) {
+            throw new IllegalArgumentException("View must be at least 1x1, not " + viewWidth + "x" + viewHeight);
+        }
+        if(lanes < 1) {
+            throw new IllegalArgumentException("Need at least 1 lane, not " + lanes);
+        }
+        if(maxActiveLanes > lanes) {
+            throw new IllegalArgumentException("Need 1 to " + lanes + " active lanes, not " + maxActiveLanes);
+        }
+        if(!(fullRepaintThreshold >= 0 && fullRepaintThreshold <= 1)) {
+            throw new IllegalArgumentException("Dirty threshold must be from 0 to 1, not " + fullRepaintThreshold);
+        }
+        if(profile < 0) {
+            throw new IllegalArgumentException("Profile must not be negative, not " + profile);
+        }
+    }
+
+    /**
+     * Gets the file to record the game's input to.
+     *
+     * @return The file, or null to not record.
+     */
+    public Path getRecordFile() {
+        return recordFile;
+    }
+
+    /**
+     * Gets the score journal to keep scores in.
+     *
+     * @return The journal file, or null to not keep scores.
+     */
+    public Path getJournalFile() {
+        return journalFile;
+    }
+
+    /**
+     * Gets the file to record the state after every update to.
+     *
+     * @return The file, or null to not record.
+     */
+    public Path getTelemetryFile() {
+        return telemetryFile;
+    }
+
+    /**
+     * Checks if fonts should be loaded in the background and the status panel built after the first frame.
+     *
+     * @return True for the fast start.
+     */
+    public boolean isFastStart() {
+        return fastStart;
+    }
+
+    /**
+     * Checks if the game should exit once it is ready.
+     *
+     * @return True to exit after starting.
+     */
+    public boolean isExitAfterFirstFrame() {
+        return exitAfterFirstFrame;
+    }
+
+    /**
+     * Checks if frames should be drawn into an image instead of opening a window.
+     *
+     * @return True to not open a window.
+     */
+    public boolean isOffscreen() {
+        return offscreen;
+    }
+
+    /**
+     * Gets the profile to record and show the best score of.
+     *
+     * @return The profile.
+     */
+    public int getProfile() {
+        return profile;
+    }
+
+    /**
+     * Checks if frames should be drawn from the game loop into a BufferStrategy.
+     *
+     * @return True for active rendering, or false to let Swing paint.
+     */
+    public boolean isActiveRendering() {
+        return activeRendering;
+    }
+
+    /**
+     * Gets the path without an extension to write the phase timings to on exit.
+     *
+     * @return The path to add ".csv" and ".json" to, or null to not write the timings.
+     */
+    public String getTimingDumpBase() {
+        return timingDumpBase;
+    }
+
+    /**
+     * Checks if the game should slow down or pause while its window is unfocused or minimised.
+     *
+     * @return True to save power in the background.
+     */
+    public boolean isPowerSave() {
+        return powerSave;
+    }
+
+    /**
+     * Gets the fraction of the panel that can change before the whole panel is repainted.
+     *
+     * @return The fraction from 0 to 1.
+     */
+    public double getFullRepaintThreshold() {
+        return fullRepaintThreshold;
+    }
+
+    /**
+     * Creates a simulation with the world size and lanes chosen.
+     *
+     * @return A new simulation with a random seed.
+     */
+    public Simulation createSimulation() {
+        int active = maxActiveLanes > 0 ? maxActiveLanes : Math.min(Simulation.MAX_ACTIVE_LANES, lanes);
+        return new Simulation(worldWidth, worldHeight, lanes, active, System.nanoTime());
+    }
+
+    /**
+     * Creates the transform from the world to the view it is drawn in.
+     * Without a view size the world is drawn at one pixel per world unit, or shrunk
+     * evenly in both directions until it fits in MAX_DEFAULT_VIEW_SIZE.
+     *
+     * @return The transform for the world size and view size chosen.
+     */
+    public ViewTransform createViewTransform() {
+        if(viewWidth > 0 && viewHeight > 0) {
+            return new ViewTransform(worldWidth, worldHeight, viewWidth, viewHeight);
+        }
+        double scale = Math.min(1, MAX_DEFAULT_VIEW_SIZE / (double) Math.max(worldWidth, worldHeight));
+        return new ViewTransform(worldWidth, worldHeight,
+                Math.max(1, (int) (worldWidth * scale)), Math.max(1, (int) (worldHeight * scale)));
+    }
+
+    /**
+     * Reads a size written as a width and height separated by an x, such as "500x500".
+     *
+     * @param value The size to read.
+     * @return The width followed by the height.
+     * @throws NumberFormatException If the value is not a size.
+     */
+    public static int[] parseSize(String value) {
+        int separator = value.toLowerCase().indexOf('x');
+        if(separator < 0) {
+            throw new NumberFormatException("Expected WIDTHxHEIGHT but got " + value);
+        }
+        return new int[] {Integer.parseInt(value.substring(0, separator)),
+                Integer.parseInt(value.substring(separator + 1))};
+    }
+}
@@ -0,0 +1,780 @@
+package cardodger;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferStrategy;
+import java.awt.image.VolatileImage;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * GamePanel class:
+ * Drives the Simulation from a fixed timestep GameLoop running on its own thread, passes
+ * mouse input to it, and draws the road, the player, and the enemy cars. After each frame's
+ * updates the loop copies the game into a GameSnapshot and publishes it through a lock-free
+ * SnapshotBuffer, and drawing only ever reads the latest snapshot, so a slow paint never
+ * delays the simulation. Mouse input goes the other way through a lock-free InputQueue
+ * that the simulation thread applies before each update. Cars are drawn from a
+ * CarSpriteCache so each one is a single image copy. The input can optionally be
+ * recorded to a file so the game can be replayed without a window. Unless disabled, every
+ * game's score is kept in a ScoreJournal, and the best score shown starts from the best
+ * score the profile has ever had. The state after every update can optionally be recorded
+ * with a TelemetryRecorder for studying the game offline.
+ * The simulation works in world units of any size, and a ViewTransform scales the world
+ * to the panel when drawing and scales mouse positions back to world units.
+ * Each frame is drawn into a back buffer, with the road only drawn again in the regions
+ * where something moved or changed, and Swing only copies those regions to the panel,
+ * unless so much changed that repainting the whole panel is cheaper.
+ * Unless disabled, a PowerSaveScheduler pauses the game while its window is minimised
+ * and lowers the frame rate while the window does not have focus.
+ * How long each phase of updating and drawing takes is always recorded, and can be shown
+ * over the game by pressing F3. The timings are printed when the game exits, and can also
+ * be written to CSV and JSON files.
+ * In active rendering mode the frames are drawn by a dedicated render thread into a
+ * BufferStrategy on a Canvas covering the panel, and presented straight away instead of
+ * waiting for Swing to paint, with the time taken to present each frame measured.
+ */
+public class GamePanel extends JPanel implements GameLoopListener, MouseListener, MouseMotionListener, SimulationListener {
+    /**
+     * Width of the panel for a world of the default size.
+     */
+    public static final int PANEL_WIDTH = Simulation.WORLD_WIDTH;
+    /**
+     * Height of the panel for a world of the default size.
+     */
+    public static final int PANEL_HEIGHT = Simulation.WORLD_HEIGHT;
+    /**
+     * Time between updates in ms.
+     */
+    public static final int TIME_INTERVAL = Simulation.TIME_INTERVAL;
+    /**
+     * Dirty region slot owned by the road.
+     */
+    private static final int ROAD_SLOT = 0;
+    /**
+     * Dirty region slot owned by the player car.
+     */
+    private static final int PLAYER_SLOT = 1;
+    /**
+     * Dirty region slot owned by the enemy car in lane 0, followed by the other lanes.
+     */
+    private static final int FIRST_ENEMY_SLOT = 2;
+    /**
+     * Left side of the timing overlay.
+     */
+    private static final int OVERLAY_X = 5;
+    /**
+     * Top of the timing overlay.
+     */
+    private static final int OVERLAY_Y = 5;
+    /**
+     * Width of the timing overlay.
+     */
+    private static final int OVERLAY_WIDTH = 250;
+    /**
+     * Height of each line of the timing overlay.
+     */
+    private static final int OVERLAY_LINE_HEIGHT = 14;
+    /**
+     * Height of the timing overlay with a heading and a line for each phase.
+     */
+    private static final int OVERLAY_HEIGHT = (PhaseProfiler.PHASE_COUNT + 1) * OVERLAY_LINE_HEIGHT + 6;
+    /**
+     * Maximum number of mouse events waiting for the simulation thread.
+     */
+    private static final int INPUT_QUEUE_CAPACITY = 1024;
+
+    /**
+     * Reference to the game for passing information about status changes.
+     */
+    private Game game;
+    /**
+     * The headless simulation containing the player, enemy cars, and road.
+     */
+    private Simulation simulation;
+    /**
+     * Loop for triggering fixed updates and interpolated renders.
+     */
+    private GameLoop gameLoop;
+    /**
+     * Snapshots passed from the simulation thread to the thread drawing frames.
+     */
+    private SnapshotBuffer snapshots;
+    /**
+     * The latest snapshot acquired by the drawing thread, or null before the first frame.
+     */
+    private GameSnapshot renderSnapshot;
+    /**
+     * Mouse input passed from the event dispatch thread to the simulation thread.
+     */
+    private InputQueue inputQueue;
+    /**
+     * True while a frame is waiting to be drawn on the event dispatch thread, so frames
+     * the event dispatch thread is too busy to draw are skipped rather than queued up.
+     */
+    private AtomicBoolean framePending;
+    /**
+     * Task run on the event dispatch thread to draw the latest snapshot when passive rendering.
+     */
+    private Runnable frameTask;
+    /**
+     * Thread drawing frames when active rendering, or null for passive rendering.
+     */
+    private Thread renderThread;
+    /**
+     * How far between the previous and current update the next paint should draw.
+     */
+    private float renderAlpha;
+    /**
+     * Drawn road shared by every snapshot.
+     */
+    private RoadTexture roadTexture;
+    /**
+     * Transform from the world to the panel.
+     */
+    private ViewTransform view;
+    /**
+     * Pre-drawn images of every car.
+     */
+    private CarSpriteCache spriteCache;
+    /**
+     * Records the simulation's input, or null if not recording.
+     */
+    private InputRecorder inputRecorder;
+    /**
+     * Keeps every game's score after the game exits, or null if not keeping them.
+     */
+    private ScoreJournal scoreJournal;
+    /**
+     * Records the state after every update, or null if not recording.
+     */
+    private TelemetryRecorder telemetryRecorder;
+    /**
+     * Regions of the panel that need to be repainted for the next frame.
+     */
+    private DirtyRegions dirtyRegions;
+    /**
+     * Back buffer holding the last frame drawn when passive rendering, which only has its
+     * dirty regions drawn again each frame, or null until the first frame is drawn into it.
+     */
+    private VolatileImage frameBuffer;
+    /**
+     * Fraction of the panel repainted each frame.
+     */
+    private RunningStatistics repaintCoverage;
+    /**
+     * Most recent score from the simulation. Only used by the simulation thread.
+     */
+    private int lastScore;
+    /**
+     * Best score before any crash, starting from the best score in the journal.
+     * Only used by the simulation thread.
+     */
+    private int bestScore;
+    /**
+     * True to slow down or pause the game while its window is unfocused or minimised.
+     */
+    private boolean powerSave;
+    /**
+     * Slows down or pauses the gameLoop depending on the window, or null until a window is watched.
+     */
+    private volatile PowerSaveScheduler powerSaveScheduler;
+    /**
+     * Records how long each phase of updating and drawing takes.
+     */
+    private PhaseProfiler profiler;
+    /**
+     * True while the timing overlay is shown.
+     */
+    private volatile boolean showTimingOverlay;
+    /**
+     * Canvas covering the panel to draw to when active rendering, or null for passive rendering.
+     */
+    private Canvas canvas;
+    /**
+     * Buffers of the canvas, or null until the canvas can be drawn to.
+     */
+    private BufferStrategy bufferStrategy;
+    /**
+     * Time taken to present each frame when active rendering in ms.
+     */
+    private RunningStatistics presentTime;
+    /**
+     * Time between each frame being presented when active rendering in ms.
+     */
+    private RunningStatistics presentInterval;
+    /**
+     * Percentiles of the time between each frame being presented in microseconds.
+     */
+    private LogHistogram presentIntervalHistogram;
+    /**
+     * Time the previous frame was presented in ns, or 0 if no frame has been presented.
+     */
+    private long lastPresentTime;
+    /**
+     * True once a frame has been drawn and the Game has been told.
+     */
+    private boolean firstFrameDrawn;
+    /**
+     * Time spent in each paint phase since the current frame started, in ns, indexed by phase.
+     * Only used by the thread that draws frames.
+     */
+    private final long[] framePaintTimes = new long[PhaseProfiler.PHASE_COUNT];
+    /**
+     * True if the game has been painted since the current frame started.
+     */
+    private boolean framePainted;
+
+    /**
+     * Configures the game state ready to play. Nothing runs until start() is called.
+     *
+     * @param game Reference to the Game object for passing score updates.
+     * @param options Options for recording, rendering, and repainting.
+     */
+    public GamePanel(Game game, GameOptions options) {
+        this.game = game;
+        view = options.createViewTransform();
+        setPreferredSize(new Dimension(view.getScreenWidth(), view.getScreenHeight()));
+        setBackground(RoadTexture.ROAD_COLOUR);
+
+        simulation = options.createSimulation();
+        simulation.setListener(this);
+        profiler = new PhaseProfiler();
+        simulation.setProfiler(profiler);
+        Path recordFile = options.getRecordFile();
+        if(recordFile != null) {
+            try {
+                inputRecorder = InputRecorder.record(recordFile, simulation, TIME_INTERVAL);
+            } catch(IOException e) {
+                System.err.println("Unable to record to " + recordFile + ": " + e.getMessage());
+            }
+        }
+
+        Path telemetryFile = options.getTelemetryFile();
+        if(telemetryFile != null) {
+            try {
+                telemetryRecorder = new TelemetryRecorder(telemetryFile, simulation, TelemetryRecorder.DEFAULT_RING_CAPACITY);
+                simulation.setTelemetryRecorder(telemetryRecorder);
+            } catch(IOException e) {
+                System.err.println("Unable to record telemetry to " + telemetryFile + ": " + e.getMessage());
+            }
+        }
+
+        Path journalFile = options.getJournalFile();
+        if(journalFile != null) {
+            try {
+                scoreJournal = ScoreJournal.open(journalFile, options.getProfile());
+                bestScore = scoreJournal.getBestScore(options.getProfile());
+            } catch(IOException e) {
+                System.err.println("Unable to keep scores in " + journalFile + ": " + e.getMessage());
+            }
+        }
+
+        renderAlpha = 1;
+        powerSave = options.isPowerSave();
+        roadTexture = new RoadTexture();
+        spriteCache = new CarSpriteCache();
+        inputQueue = new InputQueue(INPUT_QUEUE_CAPACITY);
+        snapshots = new SnapshotBuffer(simulation.getEnemyCarManager().getLanes());
+        // Publish the starting state so there is always a snapshot to draw
+        snapshots.getBack().capture(simulation, bestScore, 1);
+        snapshots.publish();
+        dirtyRegions = new DirtyRegions(FIRST_ENEMY_SLOT + simulation.getEnemyCarManager().getLanes(),
+                view.getScreenWidth(), view.getScreenHeight(), options.getFullRepaintThreshold());
+        repaintCoverage = new RunningStatistics();
+        boolean activeRendering = options.isActiveRendering();
+        gameLoop = new GameLoop(this, TIME_INTERVAL);
+        Component inputSource = this;
+        if(activeRendering) {
+            canvas = new Canvas();
+            canvas.setIgnoreRepaint(true);
+            // Leave keyboard focus with the frame so keys still reach the Game
+            canvas.setFocusable(false);
+            setLayout(new BorderLayout());
+            add(canvas, BorderLayout.CENTER);
+            inputSource = canvas;
+            presentTime = new RunningStatistics();
+            presentInterval = new RunningStatistics();
+            presentIntervalHistogram = new LogHistogram();
+            renderThread = new Thread(this::runRenderThread, "Render");
+            renderThread.setDaemon(true);
+        } else {
+            framePending = new AtomicBoolean();
+            frameTask = this::drawFrame;
+        }
+        inputSource.addMouseListener(this);
+        inputSource.addMouseMotionListener(this);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            // Wait for the simulation thread to finish its frame so the recording ends on a whole update
+            gameLoop.stop();
+            System.out.println(gameLoop.getJitterReport());
+            if(canvas != null) {
+                System.out.println(getPresentationReport());
+            } else {
+                System.out.println("Fraction of panel repainted per frame: " + repaintCoverage);
+            }
+            System.out.println(profiler.getReport());
+            if(powerSaveScheduler != null) {
+                System.out.println(powerSaveScheduler.getReport());
+            }
+            if(inputQueue.getDroppedCount() > 0) {
+                System.out.println("Mouse events dropped: " + inputQueue.getDroppedCount());
+            }
+            String timingDumpBase = options.getTimingDumpBase();
+            if(timingDumpBase != null) {
+                try {
+                    profiler.writeCsv(Path.of(timingDumpBase + ".csv"));
+                    profiler.writeJson(Path.of(timingDumpBase + ".json"));
+                } catch(IOException e) {
+                    System.err.println("Unable to write phase timings: " + e.getMessage());
+                }
+            }
+            if(inputRecorder != null) {
+                inputRecorder.finish(simulation);
+            }
+            if(telemetryRecorder != null) {
+                telemetryRecorder.close();
+                System.out.println(telemetryRecorder.getReport());
+            }
+            if(scoreJournal != null) {
+                if(scoreJournal.getDroppedCount() > 0) {
+                    System.out.println("Scores dropped from the journal: " + scoreJournal.getDroppedCount());
+                }
+                scoreJournal.close();
+            }
+        }));
+    }
+
+    /**
+     * Starts the simulation thread, and the render thread when active rendering.
+     * Called once by the Game on the event dispatch thread after the panel has been
+     * added to its window and shown, so the game never runs against a half built UI.
+     */
+    public void start() {
+        gameLoop.start();
+        if(renderThread != null) {
+            renderThread.start();
+        }
+    }
+
+    /**
+     * Watches the window the panel is in, to pause the game while it is minimised and
+     * lower the frame rate while it does not have focus. Does nothing if power saving is disabled.
+     *
+     * @param window The window containing the panel.
+     */
+    public void watchWindow(Window window) {
+        if(!powerSave) return;
+        powerSaveScheduler = new PowerSaveScheduler(gameLoop);
+        powerSaveScheduler.attach(window);
+    }
+
+    /**
+     * Applies any waiting mouse input and then updates the simulation by one fixed step.
+     * Called by the gameLoop on the simulation thread.
+     *
+     * @param deltaTime Length of the fixed step in ms.
+     */
+    @Override
+    public void update(int deltaTime) {
+        inputQueue.applyTo(simulation);
+        simulation.update(deltaTime);
+    }
+
+    /**
+     * Publishes a snapshot of the simulation and asks for it to be drawn, without waiting
+     * for it to be drawn. Called by the gameLoop on the simulation thread.
+     *
+     * @param alpha How far between the previous and current update to draw, from 0 to 1.
+     */
+    @Override
+    public void render(float alpha) {
+        snapshots.getBack().capture(simulation, bestScore, alpha);
+        snapshots.publish();
+        if(renderThread != null) {
+            LockSupport.unpark(renderThread);
+        } else if(framePending.compareAndSet(false, true)) {
+            EventQueue.invokeLater(frameTask);
+        }
+    }
+
+    /**
+     * Draws the latest snapshot, interpolating between its previous and current update
+     * depending on how long ago it was taken, and then passes its counters to the status panel.
+     * Only called by one thread: the event dispatch thread when passive rendering, or the
+     * render thread when active rendering.
+     */
+    private void drawFrame() {
+        long startTime = System.nanoTime();
+        if(framePending != null) {
+            framePending.set(false);
+        }
+        renderSnapshot = snapshots.acquire();
+        renderAlpha = renderSnapshot.getAlphaAt(startTime, gameLoop.getStepNanos());
+        framePaintTimes[PhaseProfiler.ROAD_PAINT] = 0;
+        framePaintTimes[PhaseProfiler.PLAYER_PAINT] = 0;
+        framePaintTimes[PhaseProfiler.ENEMY_PAINT] = 0;
+        framePainted = false;
+        if(canvas == null) {
+            renderDirtyRegions();
+        } else {
+            renderActive();
+        }
+        if(framePainted) {
+            // Once per frame, however many times the game was painted to draw it
+            profiler.recordDuration(PhaseProfiler.ROAD_PAINT, framePaintTimes[PhaseProfiler.ROAD_PAINT]);
+            profiler.recordDuration(PhaseProfiler.PLAYER_PAINT, framePaintTimes[PhaseProfiler.PLAYER_PAINT]);
+            profiler.recordDuration(PhaseProfiler.ENEMY_PAINT, framePaintTimes[PhaseProfiler.ENEMY_PAINT]);
+        }
+        profiler.record(PhaseProfiler.RENDER, startTime);
+        game.showStatus(renderSnapshot.getScore(), renderSnapshot.getBestScore(), renderSnapshot.getCrashCount());
+    }
+
+    /**
+     * Draws each new snapshot as soon as it is published, until the game exits.
+     * Run by the render thread when active rendering.
+     */
+    private void runRenderThread() {
+        while(true) {
+            LockSupport.park(this);
+            if(snapshots.hasNewSnapshot()) {
+                drawFrame();
+            }
+        }
+    }
+
+    /**
+     * Copies the last frame drawn from the back buffer to the panel, limited by Swing to the
+     * area being repainted. Until the first frame has been drawn into the back buffer, such
+     * as when drawing offscreen, draws the road, car and enemy cars straight to the panel.
+     * When active rendering the canvas covers the panel, and the snapshots belong to the
+     * render thread, so this only fills the background before the canvas is shown.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     */
+    public void paint(Graphics g) {
+        if(canvas != null) {
+            super.paint(g);
+            return;
+        }
+        if(frameBuffer == null) {
+            if(renderSnapshot == null) {
+                renderSnapshot = snapshots.acquire();
+            }
+            paintGame(g);
+            return;
+        }
+        g.drawImage(frameBuffer, 0, 0, null);
+        if(frameBuffer.contentsLost()) {
+            // The frame was copied blank, so draw all of it again next frame
+            dirtyRegions.addEverything();
+        }
+    }
+
+    /**
+     * Gets a summary of how long frames took to present when active rendering.
+     *
+     * @return Multiple lines describing the present times and the time between presents.
+     */
+    public String getPresentationReport() {
+        return "Buffer strategy: " + (bufferStrategy == null ? "not created"
+                        : bufferStrategy.getCapabilities().isPageFlipping() ? "page flipping" : "blit")
+                + System.lineSeparator() + "Present time (ms): " + presentTime
+                + System.lineSeparator() + "Present interval (ms): " + presentInterval
+                + System.lineSeparator() + "Present interval (us): " + presentIntervalHistogram;
+    }
+
+    /**
+     * Draws the road, car and enemy cars from the latest snapshot drawn, with the cars
+     * scaled from the world to the panel. Adds the time taken by each part to the current
+     * frame's paint times, which drawFrame records once the frame is done.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     */
+    private void paintGame(Graphics g) {
+        paintGame(g, null);
+    }
+
+    /**
+     * Draws the road, car and enemy cars from the latest snapshot drawn, with the cars
+     * scaled from the world to the panel. Adds the time taken by each part to the current
+     * frame's paint times, which drawFrame records once the frame is done.
+     * When drawing into a back buffer that still holds the last frame, the road can be
+     * drawn only in the regions that changed. The cars are still all drawn, unclipped,
+     * as the sprites are opaque and drawing one again where it has not moved changes nothing.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     * @param roadRegions Regions to draw the road in, or null to draw it in the whole clip.
+     */
+    private void paintGame(Graphics g, DirtyRegions roadRegions) {
+        long time = System.nanoTime();
+        // The road covers the whole area so the background does not need to be filled first
+        if(roadRegions == null) {
+            renderSnapshot.paintRoad(g, roadTexture, view);
+        } else {
+            // Each region is a plain rectangle clip, which Java2D draws far faster than one clip shaped like all of them
+            for(int i = 0; i < roadRegions.getCount(); i++) {
+                g.setClip(roadRegions.getX(i), roadRegions.getY(i),
+                        roadRegions.getWidth(i), roadRegions.getHeight(i));
+                renderSnapshot.paintRoad(g, roadTexture, view);
+            }
+            g.setClip(null);
+        }
+        time = addPaintTime(PhaseProfiler.ROAD_PAINT, time);
+        spriteCache.validate(g);
+        Graphics2D g2 = (Graphics2D) g;
+        AffineTransform screenTransform = null;
+        if(!view.isIdentity()) {
+            screenTransform = g2.getTransform();
+            g2.scale(view.getScaleX(), view.getScaleY());
+        }
+        renderSnapshot.paintPlayer(g, renderAlpha, spriteCache);
+        time = addPaintTime(PhaseProfiler.PLAYER_PAINT, time);
+        renderSnapshot.paintEnemies(g, renderAlpha, spriteCache);
+        addPaintTime(PhaseProfiler.ENEMY_PAINT, time);
+        framePainted = true;
+        if(screenTransform != null) {
+            g2.setTransform(screenTransform);
+        }
+        if(showTimingOverlay) {
+            paintTimingOverlay(g);
+        }
+        if(!firstFrameDrawn) {
+            firstFrameDrawn = true;
+            game.firstFrameDrawn();
+        }
+    }
+
+    /**
+     * Adds the time since a paint phase started to the current frame's paint times.
+     *
+     * @param phase The paint phase that finished.
+     * @param startTime System.nanoTime() when the phase started.
+     * @return System.nanoTime() now, so the next phase can start from it.
+     */
+    private long addPaintTime(int phase, long startTime) {
+        long endTime = System.nanoTime();
+        framePaintTimes[phase] += endTime - startTime;
+        return endTime;
+    }
+
+    /**
+     * Draws the p50, p99, and max time of every phase in microseconds over the game.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     */
+    private void paintTimingOverlay(Graphics g) {
+        g.setColor(Color.BLACK);
+        g.fillRect(OVERLAY_X, OVERLAY_Y, OVERLAY_WIDTH, OVERLAY_HEIGHT);
+        g.setColor(Color.WHITE);
+        int y = OVERLAY_Y + OVERLAY_LINE_HEIGHT;
+        g.drawString("phase (us)          p50      p99      max", OVERLAY_X + 4, y);
+        for(int phase = 0; phase < PhaseProfiler.PHASE_COUNT; phase++) {
+            LogHistogram histogram = profiler.getHistogram(phase);
+            y += OVERLAY_LINE_HEIGHT;
+            g.drawString(String.format("%-14s %8.1f %8.1f %8.1f", PhaseProfiler.getPhaseName(phase),
+                    histogram.getValueAtPercentile(50) / 1e3, histogram.getValueAtPercentile(99) / 1e3,
+                    histogram.getMax() / 1e3), OVERLAY_X + 4, y);
+        }
+    }
+
+    /**
+     * Finds the regions where anything moved or changed since the last frame, draws the frame
+     * into the back buffer with the road only drawn again in those regions, and then has Swing
+     * copy each region to the panel immediately. Draws and copies the whole panel instead if the regions cover
+     * more than the threshold, or the back buffer was just created or lost its contents.
+     * Does nothing until the panel is displayable, as the back buffer needs its screen.
+     */
+    private void renderDirtyRegions() {
+        GraphicsConfiguration configuration = getGraphicsConfiguration();
+        if(configuration == null) return;
+        int width = view.getScreenWidth();
+        int height = view.getScreenHeight();
+        renderSnapshot.addDirtyRegions(dirtyRegions, ROAD_SLOT, PLAYER_SLOT, FIRST_ENEMY_SLOT,
+                renderAlpha, view);
+        if(showTimingOverlay) {
+            dirtyRegions.add(OVERLAY_X, OVERLAY_Y, OVERLAY_WIDTH, OVERLAY_HEIGHT);
+        }
+        int status = frameBuffer == null ? VolatileImage.IMAGE_INCOMPATIBLE : frameBuffer.validate(configuration);
+        if(status == VolatileImage.IMAGE_INCOMPATIBLE) {
+            if(frameBuffer != null) {
+                frameBuffer.flush();
+            }
+            frameBuffer = configuration.createCompatibleVolatileImage(width, height, Transparency.OPAQUE);
+            dirtyRegions.addEverything();
+        } else if(status == VolatileImage.IMAGE_RESTORED) {
+            dirtyRegions.addEverything();
+        }
+
+        boolean fullRepaint = dirtyRegions.isFullRepaint();
+        if(fullRepaint || dirtyRegions.getCount() > 0) {
+            Graphics2D g = frameBuffer.createGraphics();
+            paintGame(g, fullRepaint ? null : dirtyRegions);
+            g.dispose();
+        }
+        // Copying a region only copies pixels, the game is not drawn again for each one
+        if(fullRepaint) {
+            paintImmediately(0, 0, width, height);
+        } else {
+            for(int i = 0; i < dirtyRegions.getCount(); i++) {
+                paintImmediately(dirtyRegions.getX(i), dirtyRegions.getY(i),
+                        dirtyRegions.getWidth(i), dirtyRegions.getHeight(i));
+            }
+        }
+        repaintCoverage.add(dirtyRegions.getRepaintArea() / (double) (width * height));
+        dirtyRegions.clear();
+        if(spriteCache.contentsLost() || frameBuffer.contentsLost()) {
+            // Some cars or the whole frame may have been drawn blank, so draw everything next frame
+            dirtyRegions.addEverything();
+        }
+    }
+
+    /**
+     * Draws a frame into the canvas's back buffer and presents it, drawing again if the
+     * buffers or sprites were lost while drawing. Measures how long presenting took and
+     * the time since the previous frame was presented.
+     */
+    private void renderActive() {
+        if(bufferStrategy == null) {
+            if(!canvas.isDisplayable()) return;
+            // Uses page flipping if it is available, otherwise copies the back buffer
+            canvas.createBufferStrategy(2);
+            bufferStrategy = canvas.getBufferStrategy();
+        }
+        do {
+            do {
+                Graphics g = bufferStrategy.getDrawGraphics();
+                try {
+                    paintGame(g);
+                } finally {
+                    g.dispose();
+                }
+            } while(bufferStrategy.contentsRestored() || spriteCache.contentsLost());
+            long startTime = System.nanoTime();
+            bufferStrategy.show();
+            Toolkit.getDefaultToolkit().sync();
+            long presentedTime = System.nanoTime();
+            presentTime.add((presentedTime - startTime) / 1e6);
+            if(lastPresentTime != 0) {
+                long interval = presentedTime - lastPresentTime;
+                presentInterval.add(interval / 1e6);
+                presentIntervalHistogram.record(interval / 1000);
+            }
+            lastPresentTime = presentedTime;
+        } while(bufferStrategy.contentsLost());
+    }
+
+    /**
+     * Handles the key input to exit the game when escape is pressed,
+     * and to show or hide the timing overlay when F3 is pressed.
+     *
+     * @param keyCode The key that was pressed.
+     */
+    public void handleInput(int keyCode) {
+        if(keyCode == KeyEvent.VK_ESCAPE) {
+            System.exit(0);
+        } else if(keyCode == KeyEvent.VK_F3) {
+            showTimingOverlay = !showTimingOverlay;
+            // Clear away the overlay or draw it for the first time
+            dirtyRegions.addEverything();
+        }
+    }
+
+    /**
+     * Keeps the new score from the simulation so it can become the best score at the next crash.
+     * Called on the simulation thread.
+     *
+     * @param newScore The new score.
+     */
+    @Override
+    public void scoreChanged(int newScore) {
+        lastScore = newScore;
+    }
+
+    /**
+     * Makes the score before the crash the best score if it is better, as the score is
+     * reset straight after the crash, and hands the game to the score journal without waiting.
+     * The counters reach the Game object with the next snapshot.
+     * Called on the simulation thread.
+     *
+     * @param newCrashes The new number of crashes.
+     */
+    @Override
+    public void crashCountChanged(int newCrashes) {
+        if(lastScore > bestScore) {
+            bestScore = lastScore;
+        }
+        if(scoreJournal != null) {
+            scoreJournal.recordGame(lastScore, newCrashes);
+        }
+    }
+
+    /**
+     * Queues the press for the simulation thread. If the mouse is inside the player car
+     * this will start the player's car being tied to the mouse's X position.
+     *
+     * @param e Information about the mouse event that occurred.
+     */
+    @Override
+    public void mousePressed(MouseEvent e) {
+        inputQueue.offer(InputQueue.PRESS, view.toWorldX(e.getX()), view.toWorldY(e.getY()));
+    }
+
+    /**
+     * Queues the release for the simulation thread, which releases the player car
+     * from any movement it may be engaged in.
+     *
+     * @param e Information about the mouse event that occurred.
+     */
+    @Override
+    public void mouseReleased(MouseEvent e) {
+        inputQueue.offer(InputQueue.RELEASE, view.toWorldX(e.getX()), view.toWorldY(e.getY()));
+    }
+
+    /**
+     * Queues the drag for the simulation thread. If the player's car is currently considered
+     * to be moving, it will update the player's X position based on that of the mouse.
+     *
+     * @param e Information about the mouse event that occurred.
+     */
+    @Override
+    public void mouseDragged(MouseEvent e) {
+        inputQueue.offer(InputQueue.DRAG, view.toWorldX(e.getX()), view.toWorldY(e.getY()));
+    }
+
+    /**
+     * Not used.
+     *
+     * @param e Not used.
+     */
+    @Override
+    public void mouseClicked(MouseEvent e) {}
+    /**
+     * Not used.
+     *
+     * @param e Not used.
+     */
+    @Override
+    public void mouseEntered(MouseEvent e) {}
+    /**
+     * Not used.
+     *
+     * @param e Not used.
+     */
+    @Override
+    public void mouseExited(MouseEvent e) {}
+    /**
+     * Not used.
+     *
+     * @param e Not used.
+     */
+    @Override
+    public void mouseMoved(MouseEvent e) {}
+}
@@ -0,0 +1,334 @@
+package cardodger;
+
+import java.awt.*;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * GameSnapshot class:
+ * Copy of everything needed to draw one frame of a Simulation: the road, the player,
+ * every enemy car, and the score/crash counters. The simulation thread fills a snapshot
+ * and publishes it through a SnapshotBuffer, after which it is never changed while the
+ * drawing thread is using it, so the frame can be drawn while the simulation keeps running.
+ * Snapshots are reused rather than created for every frame, so capturing does not allocate.
+ * Everything is stored in world units and only scaled to the screen by a ViewTransform.
+ */
+public class GameSnapshot {
+    /**
+     * Number of lanes, with one car for each lane.
+     */
+    private final int lanes;
+    /**
+     * X coordinate of the car in each lane.
+     */
+    private final int[] carX;
+    /**
+     * Y coordinate of the car in each lane.
+     */
+    private final int[] carY;
+    /**
+     * Y coordinate of the car in each lane at the start of the update.
+     */
+    private final int[] previousCarY;
+    /**
+     * Type of the car in each lane.
+     */
+    private final int[] carType;
+    /**
+     * Bit set where set bits are lanes with a car that is moving.
+     */
+    private final long[] activeCars;
+    /**
+     * Top left corner of the player.
+     */
+    private int playerX, playerY;
+    /**
+     * Top left corner of the player at the start of the update.
+     */
+    private int previousPlayerX, previousPlayerY;
+    /**
+     * Sprite matching the state of the player's lights.
+     */
+    private int playerSprite;
+    /**
+     * Animation offset of the road markings.
+     */
+    private int roadOffset;
+    /**
+     * Length of each road marking segment.
+     */
+    private int roadSegmentLength;
+    /**
+     * The score at the time of the snapshot.
+     */
+    private int score;
+    /**
+     * The best score before any crash at the time of the snapshot.
+     */
+    private int bestScore;
+    /**
+     * The number of crashes at the time of the snapshot.
+     */
+    private int crashCount;
+    /**
+     * Number of updates the simulation had run.
+     */
+    private long tick;
+    /**
+     * How far towards the next update the frame was due to be drawn when the snapshot was taken.
+     */
+    private float alpha;
+    /**
+     * System.nanoTime() when the snapshot was taken.
+     */
+    private long captureTime;
+
+    /**
+     * Creates an empty snapshot with room for a number of lanes.
+     *
+     * @param lanes The total number of lanes.
+     */
+    public GameSnapshot(int lanes) {
+        this.lanes = lanes;
+        carX = new int[lanes];
+        carY = new int[lanes];
+        previousCarY = new int[lanes];
+        carType = new int[lanes];
+        activeCars = new long[(lanes + 63) / 64];
+    }
+
+    /**
+     * Copies the current state of a simulation into this snapshot.
+     *
+     * @param simulation The simulation to copy, with the same number of lanes as the snapshot.
+     * @param bestScore The best score before any crash.
+     * @param alpha How far between the previous and current update the frame is due to be drawn.
+     */
+    public void capture(Simulation simulation, int bestScore, float alpha) {
+        simulation.getEnemyCarManager().copyState(carX, carY, previousCarY, carType, activeCars);
+        PlayerCar playerCar = simulation.getPlayerCar();
+        playerX = playerCar.getPosition().x;
+        playerY = playerCar.getPosition().y;
+        previousPlayerX = playerCar.getPreviousPosition().x;
+        previousPlayerY = playerCar.getPreviousPosition().y;
+        playerSprite = playerCar.getSprite();
+        AnimatedRoad road = simulation.getAnimatedRoad();
+        roadOffset = road.getOffset();
+        roadSegmentLength = road.getSegmentLength();
+        score = simulation.getScore();
+        this.bestScore = bestScore;
+        crashCount = simulation.getCrashCount();
+        tick = simulation.getTick();
+        this.alpha = alpha;
+        captureTime = System.nanoTime();
+    }
+
+    /**
+     * Draws the road covering the whole view, in screen pixels rather than through the
+     * scale used for the cars, so the pre-drawn road is only ever as big as the view.
+     *
+     * @param g Reference to the Graphics object for rendering, not scaled.
+     * @param texture Texture to draw the road from.
+     * @param view Transform from the world to the view.
+     */
+    public void paintRoad(Graphics g, RoadTexture texture, ViewTransform view) {
+        int segmentLength = view.toScreenLength(roadSegmentLength);
+        texture.paint(g, lanes, view.getScreenWidth(), view.getScreenHeight(),
+                segmentLength, getScreenRoadOffset(view, segmentLength));
+    }
+
+    /**
+     * Draws the player interpolated between its previous and current position.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     * @param alpha How far between the previous and current position to draw, from 0 to 1.
+     * @param sprites Sprite cache that has been validated for this frame.
+     */
+    public void paintPlayer(Graphics g, float alpha, CarSpriteCache sprites) {
+        sprites.drawSprite(g, playerSprite, getPlayerPaintX(alpha), getPlayerPaintY(alpha));
+    }
+
+    /**
+     * Draws all the active cars interpolated between their previous and current positions.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     * @param alpha How far between the previous and current positions to draw, from 0 to 1.
+     * @param sprites Sprite cache that has been validated for this frame.
+     */
+    public void paintEnemies(Graphics g, float alpha, CarSpriteCache sprites) {
+        for(int lane = 0; lane < lanes; lane++) {
+            if(!isActive(lane)) continue;
+            sprites.drawSprite(g, carType[lane], carX[lane], getPaintY(lane, alpha));
+        }
+    }
+
+    /**
+     * Reports where and how the road, the player, and every car will be drawn so the areas
+     * that moved or changed are drawn again. Each enemy lane owns a slot starting from firstEnemySlot.
+     *
+     * @param regions Regions to make dirty.
+     * @param roadSlot The slot of the regions owned by the road.
+     * @param playerSlot The slot of the regions owned by the player.
+     * @param firstEnemySlot The slot of the regions owned by lane 0.
+     * @param alpha How far between the previous and current positions they will be drawn, from 0 to 1.
+     * @param view Transform from the world to the view, as the regions are in screen pixels.
+     */
+    public void addDirtyRegions(DirtyRegions regions, int roadSlot, int playerSlot, int firstEnemySlot,
+                                float alpha, ViewTransform view) {
+        int segmentLength = view.toScreenLength(roadSegmentLength);
+        AnimatedRoad.addDirtyRegions(regions, roadSlot, lanes, getScreenRoadOffset(view, segmentLength),
+                view.getScreenWidth(), view.getScreenHeight());
+        updateCarRegion(regions, playerSlot, getPlayerPaintX(alpha), getPlayerPaintY(alpha), playerSprite, view);
+        for(int lane = 0; lane < lanes; lane++) {
+            if(isActive(lane)) {
+                updateCarRegion(regions, firstEnemySlot + lane, carX[lane], getPaintY(lane, alpha), carType[lane], view);
+            } else {
+                regions.hide(firstEnemySlot + lane);
+            }
+        }
+    }
+
+    /**
+     * Reports the pixels a car covers on the screen to a dirty region slot.
+     *
+     * @param regions Regions to make dirty.
+     * @param slot The slot of the regions owned by the car.
+     * @param x X coordinate of the car in world units.
+     * @param y Y coordinate of the car in world units.
+     * @param sprite Sprite the car is drawn with.
+     * @param view Transform from the world to the view.
+     */
+    private static void updateCarRegion(DirtyRegions regions, int slot, int x, int y, int sprite, ViewTransform view) {
+        regions.update(slot, view.toScreenX(x), view.toScreenY(y),
+                view.toScreenWidth(x, Car.CAR_WIDTH), view.toScreenHeight(y, Car.CAR_HEIGHT), sprite);
+    }
+
+    /**
+     * Scales the animation offset of the road markings to the screen.
+     *
+     * @param view Transform from the world to the view.
+     * @param segmentLength Length of each marking on the screen.
+     * @return The offset in pixels, from 0 to 2*segmentLength-1.
+     */
+    private int getScreenRoadOffset(ViewTransform view, int segmentLength) {
+        return Math.min((int) Math.round(roadOffset * view.getScaleY()), segmentLength*2 - 1);
+    }
+
+    /**
+     * Gets how far between the previous and current update to draw at a time after the
+     * snapshot was taken, continuing on from when the frame was due.
+     *
+     * @param time System.nanoTime() when the frame is being drawn.
+     * @param stepNanos Length of each update in ns.
+     * @return How far between the previous and current update to draw, from 0 to 1.
+     */
+    public float getAlphaAt(long time, long stepNanos) {
+        return Math.min(1, alpha + (time - captureTime) / (float) stepNanos);
+    }
+
+    /**
+     * Gets the number of updates the simulation had run.
+     *
+     * @return The tick the snapshot was taken at.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the score at the time of the snapshot.
+     *
+     * @return The score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the best score before any crash at the time of the snapshot.
+     *
+     * @return The best score.
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * Gets the number of crashes at the time of the snapshot.
+     *
+     * @return The crash count.
+     */
+    public int getCrashCount() {
+        return crashCount;
+    }
+
+    /**
+     * Gets the number of lanes the snapshot has room for.
+     *
+     * @return The number of lanes.
+     */
+    public int getLanes() {
+        return lanes;
+    }
+
+    /**
+     * Gets the player's x coordinate after the update the snapshot was taken at.
+     *
+     * @return X coordinate of the top left corner.
+     */
+    public int getPlayerX() {
+        return playerX;
+    }
+
+    /**
+     * Gets the y coordinate of the car in a lane after the update the snapshot was taken at.
+     *
+     * @param lane The lane of the car.
+     * @return Y coordinate of the top left corner.
+     */
+    public int getCarY(int lane) {
+        return carY[lane];
+    }
+
+    /**
+     * Checks if the car in a lane was moving.
+     *
+     * @param lane The lane to check.
+     * @return True if the car in the lane was active.
+     */
+    public boolean isActive(int lane) {
+        return (activeCars[lane >>> 6] & (1L << lane)) != 0;
+    }
+
+    /**
+     * Gets the x coordinate the player is drawn at between its previous and current position.
+     *
+     * @param alpha How far between the previous and current position, from 0 to 1.
+     * @return X coordinate of the top left corner.
+     */
+    private int getPlayerPaintX(float alpha) {
+        return previousPlayerX + Math.round((playerX - previousPlayerX) * alpha);
+    }
+
+    /**
+     * Gets the y coordinate the player is drawn at between its previous and current position.
+     *
+     * @param alpha How far between the previous and current position, from 0 to 1.
+     * @return Y coordinate of the top left corner.
+     */
+    private int getPlayerPaintY(float alpha) {
+        return previousPlayerY + Math.round((playerY - previousPlayerY) * alpha);
+    }
+
+    /**
+     * Gets the y coordinate the car in a lane is drawn at between its previous and current position.
+     *
+     * @param lane The lane of the car.
+     * @param alpha How far between the previous and current position, from 0 to 1.
+     * @return Y coordinate of the top left corner.
+     */
+    private int getPaintY(int lane, float alpha) {
+        return previousCarY[lane] + Math.round((carY[lane] - previousCarY[lane]) * alpha);
+    }
+}
@@ -0,0 +1,52 @@
+package cardodger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * HeadlessRunner class:
+ * Steps a Simulation as fast as possible without creating any windows and reports
+ * the tick rate along with the final score and crash counts. Useful for soak tests
+ * and balancing runs. Does not touch Swing or AWT, so it can be run with
+ * "java --limit-modules java.base HeadlessRunner".
+ *
+ * Arguments (all optional, in order):
+ *   ticks              Number of updates to run (default 10000000).
+ *   tick length        Length of each update in ms (default Simulation.TIME_INTERVAL).
+ *   WxH                Size of the world (default Simulation.WORLD_WIDTH x WORLD_HEIGHT).
+ *   lanes              Number of lanes (default Simulation.NUMBER_OF_LANES).
+ *   active             Maximum active lanes (default Simulation.MAX_ACTIVE_LANES, at most the lanes).
+ */
+public class HeadlessRunner {
+    /**
+     * Default number of ticks to run when none is specified.
+     */
+    private static final long DEFAULT_TICKS = 10_000_000L;
+
+    /**
+     * Entry point to run the headless simulation.
+     *
+     * @param args See the class description.
+     */
+    public static void main(String[] args) {
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_TICKS;
+        int deltaTime = args.length > 1 ? Integer.parseInt(args[1]) : Simulation.TIME_INTERVAL;
+
+        int[] worldSize = args.length > 2 ? GameOptions.parseSize(args[2])
+                : new int[] {Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT};
+        int lanes = args.length > 3 ? Integer.parseInt(args[3]) : Simulation.NUMBER_OF_LANES;
+        int maxActiveLanes = args.length > 4 ? Integer.parseInt(args[4]) : Math.min(Simulation.MAX_ACTIVE_LANES, lanes);
+
+        Simulation simulation = new Simulation(worldSize[0], worldSize[1], lanes, maxActiveLanes, System.nanoTime());
+        long startTime = System.nanoTime();
+        for(long tick = 0; tick < ticks; tick++) {
+            simulation.update(deltaTime);
+        }
+        long elapsed = System.nanoTime() - startTime;
+
+        System.out.printf("World: %dx%d, %d lanes, %d active%n", worldSize[0], worldSize[1], lanes, maxActiveLanes);
+        System.out.printf("Ticks: %d in %.3f s (%.0f ticks/s)%n",
+                ticks, elapsed / 1e9, ticks / (elapsed / 1e9));
+        System.out.println("Score: " + simulation.getScore() + " Crashes: " + simulation.getCrashCount());
+    }
+}
@@ -0,0 +1,135 @@
+package cardodger;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * InputQueue class:
+ * Lock-free single producer, single consumer queue of mouse presses, drags, and releases,
+ * used to pass input from the event dispatch thread to the simulation thread. Events are
+ * stored in fixed size arrays used as a ring, so adding and applying events never allocates,
+ * and neither side waits on a lock. If the queue is full new events are dropped and counted.
+ * Only one thread may offer events and only one thread may apply them.
+ */
+public class InputQueue {
+    /**
+     * Event for pressing at a position.
+     */
+    public static final int PRESS = 0;
+    /**
+     * Event for dragging to a position.
+     */
+    public static final int DRAG = 1;
+    /**
+     * Event for releasing.
+     */
+    public static final int RELEASE = 2;
+
+    /**
+     * Type of each event in the ring.
+     */
+    private final int[] types;
+    /**
+     * X coordinate of each event in the ring.
+     */
+    private final int[] xs;
+    /**
+     * Y coordinate of each event in the ring.
+     */
+    private final int[] ys;
+    /**
+     * Mask to turn a sequence number into an index in the ring.
+     */
+    private final int mask;
+    /**
+     * Sequence number of the next event to apply. Only changed by the consumer.
+     */
+    private final AtomicLong head;
+    /**
+     * Sequence number of the next event to offer. Only changed by the producer.
+     */
+    private final AtomicLong tail;
+    /**
+     * Number of events dropped because the queue was full. Only changed by the producer.
+     */
+    private long droppedCount;
+
+    /**
+     * Creates an empty queue.
+     *
+     * @param capacity Maximum number of events waiting to be applied, rounded up to a power of two.
+     */
+    public InputQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        types = new int[size];
+        xs = new int[size];
+        ys = new int[size];
+        mask = size - 1;
+        head = new AtomicLong();
+        tail = new AtomicLong();
+    }
+
+    /**
+     * Adds an event to the end of the queue. Only called by the producer.
+     *
+     * @param type PRESS, DRAG, or RELEASE.
+     * @param x X coordinate of the event.
+     * @param y Y coordinate of the event.
+     * @return True if the event was added, or false if the queue was full and it was dropped.
+     */
+    public boolean offer(int type, int x, int y) {
+        long sequence = tail.get();
+        if(sequence - head.get() > mask) {
+            droppedCount++;
+            return false;
+        }
+        int index = (int) sequence & mask;
+        types[index] = type;
+        xs[index] = x;
+        ys[index] = y;
+        // Ordered write so the event is visible before the consumer can see the new tail
+        tail.lazySet(sequence + 1);
+        return true;
+    }
+
+    /**
+     * Applies every waiting event to a simulation in the order they were offered.
+     * Only called by the consumer.
+     *
+     * @param simulation The simulation to pass the events to.
+     * @return The number of events applied.
+     */
+    public int applyTo(Simulation simulation) {
+        long sequence = head.get();
+        long end = tail.get();
+        for(long next = sequence; next < end; next++) {
+            int index = (int) next & mask;
+            switch(types[index]) {
+                case PRESS:
+                    simulation.pressAt(xs[index], ys[index]);
+                    break;
+                case DRAG:
+                    simulation.dragTo(xs[index], ys[index]);
+                    break;
+                default:
+                    simulation.release();
+                    break;
+            }
+        }
+        // Ordered write so the slots are only reused after they have been read
+        head.lazySet(end);
+        return (int) (end - sequence);
+    }
+
+    /**
+     * Gets the number of events dropped because the queue was full.
+     * Only accurate when called by the producer.
+     *
+     * @return The number of dropped events.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+}
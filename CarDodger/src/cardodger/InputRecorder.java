@@ -0,0 +1,257 @@
+package cardodger;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * InputRecorder class:
+ * Records a game as the seed and settings of its Simulation followed by every press,
+ * drag, and release given to it, so the game can be played again exactly by an InputReplay.
+ * Each event stores how many updates have passed since the previous event and how far the
+ * position moved from the previous event as variable length integers, so most events
+ * take 2 to 4 bytes.
+ *
+ * File format:
+ *   magic "CDIR", version byte, seed as 8 bytes, then lanes, max active lanes,
+ *   update length in ms, world width, and world height as varints.
+ *   Version 1 files have no world size and were played in a world of the default size.
+ *   Each event is a varint of (updates since previous event << 2 | event type),
+ *   followed for presses and drags by the zigzag varint change in x and in y.
+ *   The end event is followed by the 8 byte state hash of the simulation when recording
+ *   stopped. A file without an end event was cut short and is replayed up to its last event.
+ */
+public class InputRecorder {
+    /**
+     * First bytes of every recording.
+     */
+    public static final int MAGIC = 0x43444952;
+    /**
+     * Version of the file format.
+     */
+    public static final int VERSION = 2;
+    /**
+     * Event type for pressing at a position.
+     */
+    public static final int PRESS = 0;
+    /**
+     * Event type for dragging to a position.
+     */
+    public static final int DRAG = 1;
+    /**
+     * Event type for releasing.
+     */
+    public static final int RELEASE = 2;
+    /**
+     * Event type for the end of the recording.
+     */
+    public static final int END = 3;
+    /**
+     * Number of bits used by the event type at the bottom of each event's first varint.
+     */
+    public static final int TYPE_BITS = 2;
+
+    /**
+     * Where the recording is written.
+     */
+    private OutputStream out;
+    /**
+     * Tick of the previous event.
+     */
+    private long lastTick;
+    /**
+     * X coordinate of the previous press or drag.
+     */
+    private int lastX;
+    /**
+     * Y coordinate of the previous press or drag.
+     */
+    private int lastY;
+    /**
+     * True once recording has stopped, either by finishing or by failing to write.
+     */
+    private boolean stopped;
+
+    /**
+     * Creates a file and starts recording a simulation to it.
+     *
+     * @param file File to create or replace.
+     * @param simulation The simulation to record. Should not have been updated yet.
+     * @param deltaTime Length of every update in ms.
+     * @return A recorder that is already receiving the simulation's input.
+     * @throws IOException If the file could not be created.
+     */
+    public static InputRecorder record(Path file, Simulation simulation, int deltaTime) throws IOException {
+        InputRecorder recorder = new InputRecorder(Files.newOutputStream(file), simulation, deltaTime);
+        simulation.setInputRecorder(recorder);
+        return recorder;
+    }
+
+    /**
+     * Writes the header for a simulation. The recorder must then be given to the simulation
+     * with Simulation.setInputRecorder() to record its input.
+     *
+     * @param out Where to write the recording. Closed when the recording finishes.
+     * @param simulation The simulation to record. Should not have been updated yet.
+     * @param deltaTime Length of every update in ms.
+     * @throws IOException If the header could not be written.
+     */
+    public InputRecorder(OutputStream out, Simulation simulation, int deltaTime) throws IOException {
+        this.out = new BufferedOutputStream(out);
+        writeFixed(MAGIC, 4);
+        this.out.write(VERSION);
+        writeFixed(simulation.getSeed(), 8);
+        writeVarLong(simulation.getEnemyCarManager().getLanes());
+        writeVarLong(simulation.getEnemyCarManager().getMaxActiveLanes());
+        writeVarLong(deltaTime);
+        writeVarLong(simulation.getWorldWidth());
+        writeVarLong(simulation.getWorldHeight());
+        lastTick = simulation.getTick();
+    }
+
+    /**
+     * Records a press.
+     *
+     * @param tick Updates since the simulation was created.
+     * @param x X coordinate that was pressed.
+     * @param y Y coordinate that was pressed.
+     */
+    public synchronized void recordPress(long tick, int x, int y) {
+        recordPosition(PRESS, tick, x, y);
+    }
+
+    /**
+     * Records a drag.
+     *
+     * @param tick Updates since the simulation was created.
+     * @param x X coordinate dragged to.
+     * @param y Y coordinate dragged to.
+     */
+    public synchronized void recordDrag(long tick, int x, int y) {
+        recordPosition(DRAG, tick, x, y);
+    }
+
+    /**
+     * Records a release.
+     *
+     * @param tick Updates since the simulation was created.
+     */
+    public synchronized void recordRelease(long tick) {
+        if(stopped) return;
+        try {
+            writeEvent(RELEASE, tick);
+        } catch(IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Writes the end of the recording with the state of the simulation so a replay can
+     * check it finished the same way, and closes the output. Does nothing if already stopped.
+     *
+     * @param simulation The simulation that was recorded.
+     */
+    public synchronized void finish(Simulation simulation) {
+        if(stopped) return;
+        simulation.setInputRecorder(null);
+        try {
+            writeEvent(END, simulation.getTick());
+            writeFixed(simulation.getStateHash(), 8);
+            out.close();
+            stopped = true;
+        } catch(IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Records a press or drag.
+     *
+     * @param type PRESS or DRAG.
+     * @param tick Updates since the simulation was created.
+     * @param x X coordinate of the event.
+     * @param y Y coordinate of the event.
+     */
+    private void recordPosition(int type, long tick, int x, int y) {
+        if(stopped) return;
+        try {
+            writeEvent(type, tick);
+            writeVarLong(zigzag(x - lastX));
+            writeVarLong(zigzag(y - lastY));
+            lastX = x;
+            lastY = y;
+        } catch(IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Writes the first varint of an event.
+     *
+     * @param type Type of the event.
+     * @param tick Updates since the simulation was created.
+     * @throws IOException If writing failed.
+     */
+    private void writeEvent(int type, long tick) throws IOException {
+        writeVarLong((tick - lastTick) << TYPE_BITS | type);
+        lastTick = tick;
+    }
+
+    /**
+     * Writes a value 7 bits at a time from the lowest bits up, with the top bit
+     * of each byte set if more bytes follow.
+     *
+     * @param value Value to write, treated as unsigned.
+     * @throws IOException If writing failed.
+     */
+    private void writeVarLong(long value) throws IOException {
+        while((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Writes the lowest bytes of a value, highest byte first.
+     *
+     * @param value Value to write.
+     * @param bytes Number of bytes to write.
+     * @throws IOException If writing failed.
+     */
+    private void writeFixed(long value, int bytes) throws IOException {
+        for(int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    /**
+     * Stops recording after a write fails so the game can keep playing.
+     *
+     * @param e The reason writing failed.
+     */
+    private void fail(IOException e) {
+        stopped = true;
+        System.err.println("Input recording stopped: " + e.getMessage());
+        try {
+            out.close();
+        } catch(IOException ignored) {
+            // Already reported the first failure
+        }
+    }
+
+    /**
+     * Maps signed values to unsigned values so small negative numbers are also small.
+     *
+     * @param value Value to map.
+     * @return 0, -1, 1, -2, 2... become 0, 1, 2, 3, 4...
+     */
+    private static long zigzag(int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+}
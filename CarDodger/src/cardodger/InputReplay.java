@@ -0,0 +1,222 @@
+package cardodger;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * InputReplay class:
+ * Plays a game recorded by an InputRecorder again, as fast as possible without a window.
+ * The file is memory mapped and decoded in place, so replaying does not copy the file
+ * or create any objects per event. See InputRecorder for the file format.
+ */
+public class InputReplay {
+    /**
+     * The recording, positioned anywhere. Only accessed through absolute reads of the header
+     * and by rewinding to eventsStart.
+     */
+    private ByteBuffer buffer;
+    /**
+     * Seed of the recorded simulation.
+     */
+    private long seed;
+    /**
+     * Number of lanes in the recorded simulation.
+     */
+    private int lanes;
+    /**
+     * Maximum active lanes in the recorded simulation.
+     */
+    private int maxActiveLanes;
+    /**
+     * Length of every update in ms.
+     */
+    private int deltaTime;
+    /**
+     * Width of the recorded simulation's world.
+     */
+    private int worldWidth = Simulation.WORLD_WIDTH;
+    /**
+     * Height of the recorded simulation's world.
+     */
+    private int worldHeight = Simulation.WORLD_HEIGHT;
+    /**
+     * Position of the first event in the buffer.
+     */
+    private int eventsStart;
+    /**
+     * True if the last play() reached an end event.
+     */
+    private boolean finished;
+    /**
+     * State hash stored with the end event, valid if finished.
+     */
+    private long recordedStateHash;
+
+    /**
+     * Memory maps a recording and reads its header.
+     *
+     * @param file The recording to open.
+     * @return The replay ready to play.
+     * @throws IOException If the file could not be read or is not a recording.
+     */
+    public static InputReplay open(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new InputReplay(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads the header of a recording.
+     *
+     * @param buffer The whole recording.
+     * @throws IOException If the buffer is not a recording.
+     */
+    public InputReplay(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        try {
+            if(buffer.getInt() != InputRecorder.MAGIC) {
+                throw new IOException("Not an input recording");
+            }
+            int version = buffer.get();
+            if(version < 1 || version > InputRecorder.VERSION) {
+                throw new IOException("Unsupported input recording version " + version);
+            }
+            seed = buffer.getLong();
+            lanes = (int) readVarLong();
+            maxActiveLanes = (int) readVarLong();
+            deltaTime = (int) readVarLong();
+            if(version >= 2) {
+                worldWidth = (int) readVarLong();
+                worldHeight = (int) readVarLong();
+            }
+        } catch(BufferUnderflowException e) {
+            throw new IOException("Input recording header is cut short");
+        }
+        eventsStart = buffer.position();
+    }
+
+    /**
+     * Creates a simulation with the same seed and settings as the recorded one.
+     *
+     * @return A new simulation ready to play().
+     */
+    public Simulation createSimulation() {
+        return new Simulation(worldWidth, worldHeight, lanes, maxActiveLanes, seed);
+    }
+
+    /**
+     * Gives every recorded event to the simulation on the same update it was recorded,
+     * updating the simulation in between, until the end of the recording.
+     *
+     * @param simulation A simulation from createSimulation() that has not been updated.
+     */
+    public void play(Simulation simulation) {
+        buffer.position(eventsStart);
+        finished = false;
+        long eventTick = 0;
+        int x = 0;
+        int y = 0;
+        try {
+            while(buffer.hasRemaining()) {
+                long event = readVarLong();
+                eventTick += event >>> InputRecorder.TYPE_BITS;
+                while(simulation.getTick() < eventTick) {
+                    simulation.update(deltaTime);
+                }
+                switch((int) (event & ((1 << InputRecorder.TYPE_BITS) - 1))) {
+                    case InputRecorder.PRESS:
+                        x += unzigzag(readVarLong());
+                        y += unzigzag(readVarLong());
+                        simulation.pressAt(x, y);
+                        break;
+                    case InputRecorder.DRAG:
+                        x += unzigzag(readVarLong());
+                        y += unzigzag(readVarLong());
+                        simulation.dragTo(x, y);
+                        break;
+                    case InputRecorder.RELEASE:
+                        simulation.release();
+                        break;
+                    default:
+                        recordedStateHash = buffer.getLong();
+                        finished = true;
+                        return;
+                }
+            }
+        } catch(BufferUnderflowException e) {
+            // The recording was cut short, so stop at the last complete event
+        }
+    }
+
+    /**
+     * Checks if the last play() reached the end of the recording, which is not
+     * the case for a recording that was cut short by the game stopping unexpectedly.
+     *
+     * @return True if the recording was complete.
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Gets the state hash of the simulation when the recording finished.
+     *
+     * @return The recorded state hash. Only valid if isFinished().
+     */
+    public long getRecordedStateHash() {
+        return recordedStateHash;
+    }
+
+    /**
+     * Gets the seed of the recorded simulation.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the size of the recording.
+     *
+     * @return Size in bytes.
+     */
+    public int getSize() {
+        return buffer.limit();
+    }
+
+    /**
+     * Reads a value written 7 bits at a time by InputRecorder.
+     *
+     * @return The value.
+     */
+    private long readVarLong() {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while(b < 0);
+        return value;
+    }
+
+    /**
+     * Reverses the zigzag mapping used by InputRecorder.
+     *
+     * @param value Value to map.
+     * @return 0, 1, 2, 3, 4... become 0, -1, 1, -2, 2...
+     */
+    private static int unzigzag(long value) {
+        return (int) (value >>> 1) ^ -(int) (value & 1);
+    }
+}
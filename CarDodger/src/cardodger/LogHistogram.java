@@ -0,0 +1,170 @@
+package cardodger;
+
+import java.util.Arrays;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * LogHistogram class:
+ * Counts non-negative values in buckets that get wider as the values get larger,
+ * so percentiles can be estimated to within about 3% of the value using a fixed
+ * amount of memory no matter how many values are recorded. Values below 64 are
+ * counted exactly. Histograms can be merged without losing any accuracy.
+ */
+public class LogHistogram {
+    /**
+     * Each power of two range is split into 2^SUB_BUCKET_BITS buckets.
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+    /**
+     * Number of buckets in each power of two range.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Number of values recorded in each bucket.
+     */
+    private final long[] counts;
+    /**
+     * Total number of values recorded.
+     */
+    private long totalCount;
+    /**
+     * Smallest value recorded.
+     */
+    private long min;
+    /**
+     * Largest value recorded.
+     */
+    private long max;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LogHistogram() {
+        counts = new long[(64 - SUB_BUCKET_BITS) * SUB_BUCKETS];
+        reset();
+    }
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value The value to record.
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        counts[getBucket(value)]++;
+        totalCount++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all the values from another histogram into this histogram.
+     *
+     * @param other Histogram to merge in. Not changed.
+     */
+    public void merge(LogHistogram other) {
+        for(int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Clears all recorded values.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * Gets an estimate of the value that the given percentage of values are less than or equal to.
+     *
+     * @param percentile Percentile from 0 to 100.
+     * @return The largest value that could be in the bucket containing the percentile, or 0 if empty.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if(totalCount == 0) return 0;
+        long targetCount = Math.max(1, (long) Math.ceil(percentile / 100.0 * totalCount));
+        long countSoFar = 0;
+        for(int i = 0; i < counts.length; i++) {
+            countSoFar += counts[i];
+            if(countSoFar >= targetCount) {
+                return Math.max(min, Math.min(max, getBucketHighestValue(i)));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return Total number of values recorded.
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Gets the smallest value recorded.
+     *
+     * @return The smallest value, or 0 if empty.
+     */
+    public long getMin() {
+        return totalCount > 0 ? min : 0;
+    }
+
+    /**
+     * Gets the largest value recorded.
+     *
+     * @return The largest value, or 0 if empty.
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Gets a summary of the common percentiles.
+     *
+     * @return A string in the form "p50=.. p90=.. p99=.. max=.. (n=..)".
+     */
+    @Override
+    public String toString() {
+        return "p50=" + getValueAtPercentile(50) + " p90=" + getValueAtPercentile(90)
+                + " p99=" + getValueAtPercentile(99) + " max=" + getMax() + " (n=" + totalCount + ")";
+    }
+
+    /**
+     * Finds the bucket a value is counted in.
+     *
+     * @param value A non-negative value.
+     * @return Index into counts.
+     */
+    private static int getBucket(long value) {
+        if(value < SUB_BUCKETS) return (int) value;
+        int highestBit = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (highestBit - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (highestBit - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Finds the largest value that would be counted in a bucket.
+     *
+     * @param bucket Index into counts.
+     * @return The largest value in the bucket.
+     */
+    private static long getBucketHighestValue(int bucket) {
+        if(bucket < SUB_BUCKETS) return bucket;
+        int highestBit = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long lowestValue = (1L << highestBit) + (subBucket << (highestBit - SUB_BUCKET_BITS));
+        return lowestValue + (1L << (highestBit - SUB_BUCKET_BITS)) - 1;
+    }
+}
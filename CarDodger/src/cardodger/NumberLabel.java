@@ -0,0 +1,105 @@
+package cardodger;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * NumberLabel class:
+ * Shows a single whole number centred in a fixed size area. Unlike a JLabel changing the
+ * number never revalidates or lays out the container, it only repaints this component,
+ * and setting the same number again does nothing. The digits are written into a reused
+ * char array so showing a number does not create a String.
+ */
+public class NumberLabel extends JComponent {
+    /**
+     * Version of the serialized form, as every Swing component is Serializable.
+     */
+    private static final long serialVersionUID = 1L;
+    /**
+     * Enough characters for any int including the sign.
+     */
+    private static final int MAX_DIGITS = 11;
+
+    /**
+     * The number being shown. Can be set from any thread.
+     */
+    private volatile int value;
+    /**
+     * Characters of the number being drawn, filled from the end.
+     */
+    private final char[] digits;
+
+    /**
+     * Creates the label showing 0.
+     *
+     * @param font Font to draw the number with.
+     * @param width Width of the area to centre the number in.
+     * @param height Height of the area to centre the number in.
+     */
+    public NumberLabel(Font font, int width, int height) {
+        setFont(font);
+        setPreferredSize(new Dimension(width, height));
+        digits = new char[MAX_DIGITS];
+    }
+
+    /**
+     * Changes the number shown, and repaints the label if it is different.
+     * Safe to call from any thread.
+     *
+     * @param newValue The number to show.
+     */
+    public void setValue(int newValue) {
+        if(newValue == value) return;
+        value = newValue;
+        repaint();
+    }
+
+    /**
+     * Gets the number being shown.
+     *
+     * @return The number being shown.
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Draws the number centred in the label.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        int start = fillDigits(value);
+        int length = MAX_DIGITS - start;
+        g.setFont(getFont());
+        g.setColor(getForeground());
+        FontMetrics metrics = g.getFontMetrics();
+        int x = (getWidth() - metrics.charsWidth(digits, start, length)) / 2;
+        int y = (getHeight() - metrics.getHeight()) / 2 + metrics.getAscent();
+        g.drawChars(digits, start, length, x, y);
+    }
+
+    /**
+     * Writes the characters of a number into the end of the digits array.
+     *
+     * @param number The number to write.
+     * @return The index of the first character written.
+     */
+    private int fillDigits(int number) {
+        int index = MAX_DIGITS;
+        // Work with the negative value so the most negative int does not overflow
+        int remaining = number < 0 ? number : -number;
+        do {
+            digits[--index] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        } while(remaining != 0);
+        if(number < 0) {
+            digits[--index] = '-';
+        }
+        return index;
+    }
+}
@@ -0,0 +1,187 @@
+package cardodger;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * PhaseProfiler class:
+ * Records how long each phase of updating and drawing a frame takes into a LogHistogram
+ * per phase, so the typical and worst cases can be checked against the frame budget.
+ * Each probe is a System.nanoTime() call before and after the phase, and recording does
+ * not create any objects, so it can be left enabled while playing. The results can be
+ * written as CSV or JSON with the times in ns.
+ */
+public class PhaseProfiler {
+    /**
+     * Phase for updating the enemy cars.
+     */
+    public static final int ENEMY_UPDATE = 0;
+    /**
+     * Phase for updating the player car.
+     */
+    public static final int PLAYER_UPDATE = 1;
+    /**
+     * Phase for updating the road animation.
+     */
+    public static final int ROAD_UPDATE = 2;
+    /**
+     * Phase for drawing the road.
+     */
+    public static final int ROAD_PAINT = 3;
+    /**
+     * Phase for drawing the player car.
+     */
+    public static final int PLAYER_PAINT = 4;
+    /**
+     * Phase for drawing the enemy cars.
+     */
+    public static final int ENEMY_PAINT = 5;
+    /**
+     * Phase for a whole render, including any waiting for Swing and presenting the frame.
+     */
+    public static final int RENDER = 6;
+    /**
+     * Number of phases.
+     */
+    public static final int PHASE_COUNT = 7;
+    /**
+     * Name of each phase for reports.
+     */
+    private static final String[] PHASE_NAMES = {
+            "enemy update", "player update", "road update",
+            "road paint", "player paint", "enemy paint", "render"
+    };
+
+    /**
+     * Time taken by each phase in ns.
+     */
+    private final LogHistogram[] histograms;
+
+    /**
+     * Creates a profiler with nothing recorded.
+     */
+    public PhaseProfiler() {
+        histograms = new LogHistogram[PHASE_COUNT];
+        for(int phase = 0; phase < PHASE_COUNT; phase++) {
+            histograms[phase] = new LogHistogram();
+        }
+    }
+
+    /**
+     * Records the time since a phase started.
+     *
+     * @param phase The phase that finished.
+     * @param startTime System.nanoTime() when the phase started.
+     * @return System.nanoTime() now, so the next phase can start from it.
+     */
+    public long record(int phase, long startTime) {
+        long endTime = System.nanoTime();
+        histograms[phase].record(endTime - startTime);
+        return endTime;
+    }
+
+    /**
+     * Records a time already measured for a phase, such as the total of several parts of one frame.
+     *
+     * @param phase The phase that finished.
+     * @param duration Time taken by the phase in ns.
+     */
+    public void recordDuration(int phase, long duration) {
+        histograms[phase].record(duration);
+    }
+
+    /**
+     * Gets the times recorded for a phase.
+     *
+     * @param phase The phase.
+     * @return Time taken by the phase in ns.
+     */
+    public LogHistogram getHistogram(int phase) {
+        return histograms[phase];
+    }
+
+    /**
+     * Gets the name of a phase.
+     *
+     * @param phase The phase.
+     * @return The name for reports.
+     */
+    public static String getPhaseName(int phase) {
+        return PHASE_NAMES[phase];
+    }
+
+    /**
+     * Forgets everything recorded.
+     */
+    public void reset() {
+        for(LogHistogram histogram : histograms) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Gets a summary of every phase in microseconds.
+     *
+     * @return One line for each phase with its count, p50, p99, and max.
+     */
+    public String getReport() {
+        StringBuilder report = new StringBuilder("Phase timings (us):");
+        for(int phase = 0; phase < PHASE_COUNT; phase++) {
+            LogHistogram histogram = histograms[phase];
+            report.append(System.lineSeparator()).append(String.format("  %-14s p50=%8.1f p99=%8.1f max=%8.1f (n=%d)",
+                    PHASE_NAMES[phase], histogram.getValueAtPercentile(50) / 1e3,
+                    histogram.getValueAtPercentile(99) / 1e3, histogram.getMax() / 1e3,
+                    histogram.getTotalCount()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Writes every phase as CSV with the times in ns.
+     *
+     * @param file File to create or replace.
+     * @throws IOException If the file could not be written.
+     */
+    public void writeCsv(Path file) throws IOException {
+        try(PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("phase,count,min,p50,p90,p99,p999,max");
+            for(int phase = 0; phase < PHASE_COUNT; phase++) {
+                LogHistogram histogram = histograms[phase];
+                out.printf("%s,%d,%d,%d,%d,%d,%d,%d%n", PHASE_NAMES[phase], histogram.getTotalCount(),
+                        histogram.getMin(), histogram.getValueAtPercentile(50),
+                        histogram.getValueAtPercentile(90), histogram.getValueAtPercentile(99),
+                        histogram.getValueAtPercentile(99.9), histogram.getMax());
+            }
+        }
+    }
+
+    /**
+     * Writes every phase as JSON with the times in ns.
+     *
+     * @param file File to create or replace.
+     * @throws IOException If the file could not be written.
+     */
+    public void writeJson(Path file) throws IOException {
+        try(PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println("{");
+            out.println("  \"unit\": \"ns\",");
+            out.println("  \"phases\": [");
+            for(int phase = 0; phase < PHASE_COUNT; phase++) {
+                LogHistogram histogram = histograms[phase];
+                out.printf("    {\"phase\": \"%s\", \"count\": %d, \"min\": %d, \"p50\": %d, \"p90\": %d, "
+                                + "\"p99\": %d, \"p999\": %d, \"max\": %d}%s%n",
+                        PHASE_NAMES[phase], histogram.getTotalCount(), histogram.getMin(),
+                        histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+                        histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9),
+                        histogram.getMax(), phase < PHASE_COUNT - 1 ? "," : "");
+            }
+            out.println("  ]");
+            out.println("}");
+        }
+    }
+}
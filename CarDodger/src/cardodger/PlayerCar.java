@@ -0,0 +1,166 @@
+package cardodger;
+
+import java.awt.*;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * PlayerCar class:
+ * Represents the player's car as a police car that can move left/right using the mouse position.
+ */
+public class PlayerCar extends Car {
+    /**
+     * While true the car can be moved.
+     */
+    private boolean isMoving;
+    /**
+     * Animation timer to delay changes in animation state.
+     */
+    private ActionTimer animationTimer;
+    /**
+     * Current state of the animation.
+     */
+    private boolean flashBlue;
+    /**
+     * Width of the world the car is kept inside.
+     */
+    private int worldWidth;
+
+    /**
+     * Configures the player car ready for animation and movement in a world of the default size.
+     *
+     * @param position Start position to return to when reset.
+     */
+    public PlayerCar(Position position) {
+        this(position, Simulation.WORLD_WIDTH);
+    }
+
+    /**
+     * Configures the player car ready for animation and movement.
+     *
+     * @param position Start position to return to when reset.
+     * @param worldWidth Width of the world the car is kept inside.
+     */
+    public PlayerCar(Position position, int worldWidth) {
+        super(position);
+        this.worldWidth = worldWidth;
+        flashBlue = true;
+        animationTimer = new ActionTimer(80);
+    }
+
+    /**
+     * Remembers the position for interpolation, then updates the animation timer,
+     * and if it triggered, the colours will be toggled.
+     *
+     * @param deltaTime Time since last update.
+     */
+    public void update(int deltaTime) {
+        storePreviousPosition();
+        animationTimer.update(deltaTime);
+        if(animationTimer.isTriggered()) {
+            flashBlue = !flashBlue;
+            animationTimer.reset();
+        }
+    }
+
+    /**
+     * Takes the current mouse position and places the car centred on the same X value as the mouse,
+     * with constraints for the world size. It will also check if the mouse has moved too far up or
+     * down from the car and then stop further movement until it is reselected.
+     *
+     * @param mousePosition Current mouse position.
+     */
+    public void updatePosition(Position mousePosition) {
+        position.x = Math.max(Math.min(mousePosition.x-width/2, worldWidth-width),0);
+        if(Math.abs(mousePosition.y - position.y) > 100) {
+            setIsMoving(false);
+        }
+    }
+
+    /**
+     * Resets the position of the player car and sets it to stop moving.
+     */
+    public void reset() {
+        super.reset();
+        isMoving = false;
+    }
+
+    /**
+     * Changes the current state of whether the car can be moved.
+     *
+     * @param isMoving New value to set isMoving to.
+     */
+    public void setIsMoving(boolean isMoving) {
+        this.isMoving = isMoving;
+    }
+
+    /**
+     * Checks if the car can currently be moved.
+     *
+     * @return True if the car can be moved.
+     */
+    public boolean isMoving() {
+        return isMoving;
+    }
+
+    /**
+     * Gets the body colour of the police car.
+     *
+     * @return Always black.
+     */
+    @Override
+    protected Color getBackgroundColour() {
+        return Color.BLACK;
+    }
+
+    /**
+     * Gets the window colour of the police car.
+     *
+     * @return Always white.
+     */
+    @Override
+    protected Color getForegroundColour() {
+        return Color.WHITE;
+    }
+
+    /**
+     * Draws the base car, and then flashing coloured lights to imitate police lights.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     * @param x X coordinate of the top left corner to draw at.
+     * @param y Y coordinate of the top left corner to draw at.
+     */
+    @Override
+    protected void paintAt(Graphics g, int x, int y) {
+        paintPlayerCar(g, x, y, width, height, flashBlue);
+    }
+
+    /**
+     * Gets the sprite matching the current state of the lights.
+     *
+     * @return CarSpriteCache.PLAYER_FLASH_BLUE or CarSpriteCache.PLAYER_FLASH_RED.
+     */
+    @Override
+    protected int getSprite() {
+        return flashBlue ? CarSpriteCache.PLAYER_FLASH_BLUE : CarSpriteCache.PLAYER_FLASH_RED;
+    }
+
+    /**
+     * Draws a player car body with two windows, and then the two police lights.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     * @param x X coordinate of the top left corner to draw at.
+     * @param y Y coordinate of the top left corner to draw at.
+     * @param width Width of the car.
+     * @param height Height of the car.
+     * @param flashBlue True if the left light is blue and the right light red, or false for the opposite.
+     */
+    public static void paintPlayerCar(Graphics g, int x, int y, int width, int height, boolean flashBlue) {
+        paintCar(g, x, y, width, height, Color.BLACK, Color.WHITE);
+        g.setColor(flashBlue ? Color.BLUE : Color.RED);
+        g.fillRect(x + width/2-(width*4/7)/2-1, y + height/2 - height/7, (width*4/7)/2, height/7);
+        g.setColor(!flashBlue ? Color.BLUE : Color.RED);
+        g.fillRect(x + width/2-1, y + height/2 - height/7, (width*4/7)/2, height/7);
+    }
+}
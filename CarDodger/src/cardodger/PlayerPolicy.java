@@ -0,0 +1,64 @@
+package cardodger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * PlayerPolicy class:
+ * A scripted player that controls the player car of a Simulation through the same
+ * press/drag/release input a person would use with the mouse. Used to play games
+ * without a person when balancing the game. The car can only be dragged a limited
+ * distance each update so policies cannot move faster than a quick hand could.
+ */
+public abstract class PlayerPolicy {
+    /**
+     * Furthest the car can be dragged in one update.
+     */
+    public static final int MAX_DRAG_PER_UPDATE = 20;
+
+    /**
+     * Creates a policy by name.
+     *
+     * @param name One of "stay", "random", or "dodge".
+     * @param seed Seed for any randomness in the policy.
+     * @return A new policy.
+     * @throws IllegalArgumentException If the name is not a known policy.
+     */
+    public static PlayerPolicy create(String name, long seed) {
+        switch(name) {
+            case "stay":
+                return new StayPolicy();
+            case "random":
+                return new RandomPolicy(seed);
+            case "dodge":
+                return new DodgePolicy();
+            default:
+                throw new IllegalArgumentException("Unknown policy: " + name);
+        }
+    }
+
+    /**
+     * Called before each update to give input to the simulation.
+     *
+     * @param simulation The simulation being played.
+     */
+    public abstract void act(Simulation simulation);
+
+    /**
+     * Holds the player car and drags it toward a target, moving at most MAX_DRAG_PER_UPDATE.
+     *
+     * @param simulation The simulation being played.
+     * @param targetX X coordinate for the left side of the player car to move toward.
+     */
+    protected void moveToward(Simulation simulation, int targetX) {
+        PlayerCar playerCar = simulation.getPlayerCar();
+        Position position = playerCar.getPosition();
+        int centreX = position.x + playerCar.getWidth()/2;
+        int centreY = position.y + playerCar.getHeight()/2;
+        if(!playerCar.isMoving()) {
+            simulation.pressAt(centreX, centreY);
+        }
+        int distance = Math.max(-MAX_DRAG_PER_UPDATE, Math.min(MAX_DRAG_PER_UPDATE, targetX - position.x));
+        simulation.dragTo(centreX + distance, centreY);
+    }
+}
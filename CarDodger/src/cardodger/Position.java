@@ -1,11 +1,20 @@
+package cardodger;
+
 /**
  * Car Dodger
  * Author: Peter Mitchell (2021)
  *
  * Position class:
- * Used to represent a single position x,y.
+ * Used to represent a single position x,y. Also provides 16.16 fixed-point helpers for
+ * anything that moves by fractions of a pixel: the fixed-point value is kept as the exact
+ * position, and the whole pixel part is stored in a Position for drawing and collisions.
  */
 public class Position {
+    /**
+     * Number of fractional bits in a fixed-point coordinate.
+     */
+    public static final int FIXED_SHIFT = 16;
+
     /**
      * Down moving unit vector.
      */
@@ -57,6 +66,40 @@ public class Position {
         this.y = positionToCopy.y;
     }
 
+    /**
+     * Converts whole pixels to a fixed-point coordinate.
+     *
+     * @param pixels Coordinate in pixels.
+     * @return The same coordinate in 16.16 fixed-point, as a long so any int coordinate fits.
+     */
+    public static long toFixed(int pixels) {
+        return (long) pixels << FIXED_SHIFT;
+    }
+
+    /**
+     * Converts a fixed-point coordinate to whole pixels, rounding down.
+     *
+     * @param fixed Coordinate in 16.16 fixed-point.
+     * @return The pixel containing the coordinate.
+     */
+    public static int toPixels(long fixed) {
+        return (int) (fixed >> FIXED_SHIFT);
+    }
+
+    /**
+     * Gets how far something moves at a speed over a length of time using only integer maths,
+     * so the result is the same on every JVM. Rounded to the nearest 1/65536 of a pixel.
+     * The speed itself stays in whole pixels per second and is converted here each time.
+     *
+     * @param speed Speed in pixels per second, not negative.
+     * @param deltaTime Length of time in ms.
+     * @return Distance moved in 16.16 fixed-point, as a long since a fast speed over a long
+     *         time moves further than an int can hold.
+     */
+    public static long getFixedDistance(int speed, int deltaTime) {
+        return (((long) speed * deltaTime << FIXED_SHIFT) + 500) / 1000;
+    }
+
     /**
      * Sets the Position to the specified x and y coordinate.
      *
@@ -0,0 +1,278 @@
+package cardodger;
+
+import java.awt.*;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ComponentListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * PowerSaveScheduler class:
+ * Watches the game's window and slows the GameLoop down when nobody can be playing.
+ * While the window is minimised or hidden nothing can be seen, so the loop is paused
+ * and its thread parked. While the window is visible but does not have focus the game
+ * keeps running but only renders at a low frame rate. When the window is back in focus
+ * the loop resumes at the full frame rate without a jump in time. The wall clock time and
+ * CPU time of the process spent in each state are measured, so the cost of sitting in
+ * the background can be checked.
+ * AWT does not report when a window is covered by another window, so a covered window
+ * that still has focus keeps running at the full rate.
+ */
+public class PowerSaveScheduler extends WindowAdapter implements ComponentListener {
+    /**
+     * Frames rendered per second while the window is visible without focus.
+     */
+    public static final int UNFOCUSED_FRAME_RATE = 10;
+    /**
+     * State for the window being visible with focus.
+     */
+    public static final int ACTIVE = 0;
+    /**
+     * State for the window being visible without focus.
+     */
+    public static final int UNFOCUSED = 1;
+    /**
+     * State for the window being minimised or hidden.
+     */
+    public static final int HIDDEN = 2;
+    /**
+     * Name of each state for reports.
+     */
+    private static final String[] STATE_NAMES = {"active", "unfocused", "hidden"};
+
+    /**
+     * The loop to slow down and pause.
+     */
+    private final GameLoop gameLoop;
+    /**
+     * Measures the CPU time of the process, or null if the JVM cannot.
+     */
+    private final com.sun.management.OperatingSystemMXBean osBean;
+    /**
+     * True while the window is minimised.
+     */
+    private boolean iconified;
+    /**
+     * True while the window is shown.
+     */
+    private boolean shown;
+    /**
+     * True while the window has focus.
+     */
+    private boolean focused;
+    /**
+     * The state the loop is currently in.
+     */
+    private int state;
+    /**
+     * System.nanoTime() when the current state started.
+     */
+    private long stateStartTime;
+    /**
+     * CPU time of the process in ns when the current state started.
+     */
+    private long stateStartCpuTime;
+    /**
+     * Total wall clock time spent in each state in ns.
+     */
+    private final long[] stateTime;
+    /**
+     * Total CPU time of the process used in each state in ns.
+     */
+    private final long[] stateCpuTime;
+
+    /**
+     * Prepares to control a loop, starting in the active state.
+     * Attach it to a window with attach().
+     *
+     * @param gameLoop The loop to slow down and pause.
+     */
+    public PowerSaveScheduler(GameLoop gameLoop) {
+        this.gameLoop = gameLoop;
+        java.lang.management.OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        osBean = bean instanceof com.sun.management.OperatingSystemMXBean
+                ? (com.sun.management.OperatingSystemMXBean) bean : null;
+        stateTime = new long[STATE_NAMES.length];
+        stateCpuTime = new long[STATE_NAMES.length];
+        shown = true;
+        focused = true;
+        state = ACTIVE;
+        stateStartTime = System.nanoTime();
+        stateStartCpuTime = getProcessCpuTime();
+    }
+
+    /**
+     * Starts watching a window for being minimised, hidden, or losing focus.
+     *
+     * @param window The game's window.
+     */
+    public void attach(Window window) {
+        window.addWindowListener(this);
+        window.addWindowFocusListener(this);
+        window.addComponentListener(this);
+        shown = window.isShowing();
+        focused = window.isFocused();
+        updateState();
+    }
+
+    /**
+     * Gets the state the loop is currently in.
+     *
+     * @return ACTIVE, UNFOCUSED, or HIDDEN.
+     */
+    public synchronized int getState() {
+        return state;
+    }
+
+    /**
+     * Gets the CPU time the process used in a state as a share of the time spent in it.
+     *
+     * @param stateToCheck ACTIVE, UNFOCUSED, or HIDDEN.
+     * @return Percentage of one core, or 0 if the state has not been entered.
+     */
+    public synchronized double getCpuPercent(int stateToCheck) {
+        // Count the time in the current state so far
+        changeState(state);
+        return stateTime[stateToCheck] == 0 ? 0 : 100.0 * stateCpuTime[stateToCheck] / stateTime[stateToCheck];
+    }
+
+    /**
+     * Gets a summary of the time and CPU time spent in each state.
+     *
+     * @return One line for each state that was entered.
+     */
+    public synchronized String getReport() {
+        // Count the time in the current state so far
+        changeState(state);
+        StringBuilder report = new StringBuilder("Power save (CPU time as % of one core):");
+        for(int i = 0; i < STATE_NAMES.length; i++) {
+            if(stateTime[i] == 0) continue;
+            report.append(System.lineSeparator()).append(String.format("  %-10s %8.1f s wall, %8.1f ms CPU (%.2f%%)",
+                    STATE_NAMES[i], stateTime[i] / 1e9, stateCpuTime[i] / 1e6, getCpuPercent(i)));
+        }
+        if(osBean == null) {
+            report.append(System.lineSeparator()).append("  CPU time is not available on this JVM.");
+        }
+        return report.toString();
+    }
+
+    /**
+     * Pauses the loop when the window is minimised.
+     *
+     * @param e Information about the event.
+     */
+    @Override
+    public void windowIconified(WindowEvent e) {
+        iconified = true;
+        updateState();
+    }
+
+    /**
+     * Resumes the loop when the window is restored.
+     *
+     * @param e Information about the event.
+     */
+    @Override
+    public void windowDeiconified(WindowEvent e) {
+        iconified = false;
+        updateState();
+    }
+
+    /**
+     * Returns to the full frame rate when the window gains focus.
+     *
+     * @param e Information about the event.
+     */
+    @Override
+    public void windowGainedFocus(WindowEvent e) {
+        focused = true;
+        updateState();
+    }
+
+    /**
+     * Lowers the frame rate when the window loses focus.
+     *
+     * @param e Information about the event.
+     */
+    @Override
+    public void windowLostFocus(WindowEvent e) {
+        focused = false;
+        updateState();
+    }
+
+    /**
+     * Resumes the loop when the window is shown.
+     *
+     * @param e Information about the event.
+     */
+    @Override
+    public void componentShown(ComponentEvent e) {
+        shown = true;
+        updateState();
+    }
+
+    /**
+     * Pauses the loop when the window is hidden.
+     *
+     * @param e Information about the event.
+     */
+    @Override
+    public void componentHidden(ComponentEvent e) {
+        shown = false;
+        updateState();
+    }
+
+    /**
+     * Not used.
+     *
+     * @param e Not used.
+     */
+    @Override
+    public void componentResized(ComponentEvent e) {}
+    /**
+     * Not used.
+     *
+     * @param e Not used.
+     */
+    @Override
+    public void componentMoved(ComponentEvent e) {}
+
+    /**
+     * Works out the state from what is known about the window, and changes the loop to match.
+     */
+    private synchronized void updateState() {
+        int newState = iconified || !shown ? HIDDEN : focused ? ACTIVE : UNFOCUSED;
+        if(newState == state) return;
+        changeState(newState);
+        gameLoop.setFrameRate(newState == UNFOCUSED ? UNFOCUSED_FRAME_RATE : GameLoop.TARGET_FRAME_RATE);
+        gameLoop.setPaused(newState == HIDDEN);
+    }
+
+    /**
+     * Adds the time since the current state started to its totals, and starts timing a new state.
+     *
+     * @param newState The state to start timing.
+     */
+    private void changeState(int newState) {
+        long time = System.nanoTime();
+        long cpuTime = getProcessCpuTime();
+        stateTime[state] += time - stateStartTime;
+        stateCpuTime[state] += cpuTime - stateStartCpuTime;
+        state = newState;
+        stateStartTime = time;
+        stateStartCpuTime = cpuTime;
+    }
+
+    /**
+     * Gets the CPU time used by the whole process.
+     *
+     * @return CPU time in ns, or 0 if it cannot be measured.
+     */
+    private long getProcessCpuTime() {
+        return osBean == null ? 0 : Math.max(0, osBean.getProcessCpuTime());
+    }
+}
@@ -0,0 +1,61 @@
+package cardodger;
+
+import java.util.SplittableRandom;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * RandomPolicy class:
+ * A policy that picks a random place to move the player car to,
+ * moves toward it for a random amount of time, and then picks another.
+ */
+public class RandomPolicy extends PlayerPolicy {
+    /**
+     * Fewest updates to keep moving toward the same target.
+     */
+    private static final int MIN_UPDATES_PER_TARGET = 10;
+    /**
+     * Most updates to keep moving toward the same target.
+     */
+    private static final int MAX_UPDATES_PER_TARGET = 60;
+
+    /**
+     * Random number generator for choosing targets.
+     */
+    private SplittableRandom random;
+    /**
+     * X coordinate currently being moved toward.
+     */
+    private int targetX;
+    /**
+     * Updates left before choosing a new target.
+     */
+    private int updatesUntilNewTarget;
+
+    /**
+     * Creates the policy ready to choose its first target.
+     *
+     * @param seed Seed for choosing targets.
+     */
+    public RandomPolicy(long seed) {
+        random = new SplittableRandom(seed);
+        updatesUntilNewTarget = 0;
+    }
+
+    /**
+     * Chooses a new target if it is time to, and then moves toward the target.
+     *
+     * @param simulation The simulation being played.
+     */
+    @Override
+    public void act(Simulation simulation) {
+        if(updatesUntilNewTarget <= 0) {
+            targetX = random.nextInt(simulation.getWorldWidth() - Car.CAR_WIDTH + 1);
+            updatesUntilNewTarget = MIN_UPDATES_PER_TARGET
+                    + random.nextInt(MAX_UPDATES_PER_TARGET - MIN_UPDATES_PER_TARGET + 1);
+        }
+        updatesUntilNewTarget--;
+        moveToward(simulation, targetX);
+    }
+}
@@ -0,0 +1,230 @@
+package cardodger;
+
+/**
+ * Rectangle
+ * Author: Peter Mitchell (2021)
+ *
+ * Rectangle class:
+ * Defines a simple Rectangle with a position for the top left corner,
+ * and a width/height to represent the size of the Rectangle.
+ * Moving rectangles can be tested with a swept test that finds the time of impact along
+ * the whole move, so a fast rectangle cannot jump over this one in a single large step.
+ */
+public class Rectangle {
+    /**
+     * Time of impact returned when a moving rectangle never touches this one.
+     */
+    public static final double NO_IMPACT = -1;
+
+    /**
+     * The top left corner of the Rectangle.
+     */
+    protected Position position;
+    /**
+     * Width of the Rectangle.
+     */
+    protected int width;
+    /**
+     * Height of the Rectangle.
+     */
+    protected int height;
+
+    /**
+     * Creates the new Rectangle with provided properties.
+     *
+     * @param position The top left corner of the Rectangle.
+     * @param width Width of the Rectangle.
+     * @param height Height of the Rectangle.
+     */
+    public Rectangle(Position position, int width, int height) {
+        this.position = position;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * @param x X coordinate of the top left corner.
+     * @param y Y coordinate of the top left corner.
+     * @param width Width of the rectangle.
+     * @param height Height of the rectangle.
+     */
+    public Rectangle(int x, int y, int width, int height) {
+        this(new Position(x,y),width,height);
+    }
+
+    /**
+     * Gets the height of the Rectangle.
+     *
+     * @return Height of the Rectangle.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Gets the width of the Rectangle.
+     *
+     * @return Width of the Rectangle.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the top left corner of the Rectangle.
+     *
+     * @return Top left corner of the Rectangle.
+     */
+    public Position getPosition() {
+        return position;
+    }
+
+    /**
+     * Gets the centre of the rectangle based on stored values.
+     * Creates a new Position each time, so use getCentre(Position) in frequently called code.
+     *
+     * @return Centre coordinates of the rectangle.
+     */
+    public Position getCentre() {
+        return getCentre(new Position(0, 0));
+    }
+
+    /**
+     * Stores the centre of the rectangle into an existing Position.
+     *
+     * @param result Position to store the centre coordinates into.
+     * @return The result Position for convenience.
+     */
+    public Position getCentre(Position result) {
+        result.setPosition(position.x + width/2, position.y + height/2);
+        return result;
+    }
+
+    /**
+     * Tests if the targetPosition is inside the Rectangle.
+     *
+     * @param targetPosition Position to test if it is inside the Rectangle.
+     * @return True if the targetPosition is inside this Rectangle.
+     */
+    public boolean isPositionInside(Position targetPosition) {
+        return targetPosition.x >= position.x && targetPosition.y >= position.y
+                && targetPosition.x < position.x + width && targetPosition.y < position.y + height;
+    }
+
+    /**
+     * Tests the Rectangle is intersecting with some otherRectangle.
+     *
+     * @param otherRectangle Other position to compare against for a collision.
+     * @return True if this Rectangle is intersecting the otherRectangle.
+     */
+    public boolean isIntersecting(Rectangle otherRectangle) {
+        return isIntersecting(otherRectangle.position.x, otherRectangle.position.y,
+                otherRectangle.width, otherRectangle.height);
+    }
+
+    /**
+     * Tests the Rectangle is intersecting with another rectangle defined by its values.
+     *
+     * @param x X coordinate of the top left corner of the other rectangle.
+     * @param y Y coordinate of the top left corner of the other rectangle.
+     * @param width Width of the other rectangle.
+     * @param height Height of the other rectangle.
+     * @return True if this Rectangle is intersecting the other rectangle.
+     */
+    public boolean isIntersecting(int x, int y, int width, int height) {
+        // break if any of the following are true because it means they don't intersect
+        if(position.y + this.height < y) return false;
+        if(position.y > y + height) return false;
+        if(position.x + this.width < x) return false;
+        if(position.x > x + width) return false;
+
+        // the bounding boxes do intersect
+        return true;
+    }
+
+    /**
+     * Tests if another rectangle touches this Rectangle at any point while moving in a straight line.
+     *
+     * @param x X coordinate of the top left corner of the other rectangle before it moved.
+     * @param y Y coordinate of the top left corner of the other rectangle before it moved.
+     * @param width Width of the other rectangle.
+     * @param height Height of the other rectangle.
+     * @param dx Distance the other rectangle moved horizontally.
+     * @param dy Distance the other rectangle moved vertically.
+     * @return True if the other rectangle intersected this Rectangle at any point during the move.
+     */
+    public boolean isSweptIntersecting(int x, int y, int width, int height, int dx, int dy) {
+        return getTimeOfImpact(x, y, width, height, dx, dy) != NO_IMPACT;
+    }
+
+    /**
+     * Finds when another rectangle moving in a straight line first touches this Rectangle.
+     * Touching edges count as intersecting, the same as isIntersecting().
+     *
+     * @param x X coordinate of the top left corner of the other rectangle before it moved.
+     * @param y Y coordinate of the top left corner of the other rectangle before it moved.
+     * @param width Width of the other rectangle.
+     * @param height Height of the other rectangle.
+     * @param dx Distance the other rectangle moved horizontally.
+     * @param dy Distance the other rectangle moved vertically.
+     * @return Fraction of the move from 0 to 1 when they first touch, or NO_IMPACT if they never do.
+     */
+    public double getTimeOfImpact(int x, int y, int width, int height, int dx, int dy) {
+        double entry = Math.max(0, Math.max(getEntryTime(x, width, dx, position.x, this.width),
+                getEntryTime(y, height, dy, position.y, this.height)));
+        double exit = Math.min(1, Math.min(getExitTime(x, width, dx, position.x, this.width),
+                getExitTime(y, height, dy, position.y, this.height)));
+        return entry <= exit ? entry : NO_IMPACT;
+    }
+
+    /**
+     * Finds when a moving span starts overlapping a fixed span along one axis.
+     *
+     * @param start Start of the moving span before it moved.
+     * @param size Size of the moving span.
+     * @param delta Distance the moving span moved.
+     * @param otherStart Start of the fixed span.
+     * @param otherSize Size of the fixed span.
+     * @return Fraction of the move when they start overlapping, negative infinity if they always
+     *         overlap, or positive infinity if they never do.
+     */
+    private static double getEntryTime(int start, int size, int delta, int otherStart, int otherSize) {
+        if(delta == 0) {
+            return isOverlapping(start, size, otherStart, otherSize) ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        }
+        int distance = delta > 0 ? otherStart - (start + size) : otherStart + otherSize - start;
+        return distance / (double) delta;
+    }
+
+    /**
+     * Finds when a moving span stops overlapping a fixed span along one axis.
+     *
+     * @param start Start of the moving span before it moved.
+     * @param size Size of the moving span.
+     * @param delta Distance the moving span moved.
+     * @param otherStart Start of the fixed span.
+     * @param otherSize Size of the fixed span.
+     * @return Fraction of the move when they stop overlapping, positive infinity if they always
+     *         overlap, or negative infinity if they never do.
+     */
+    private static double getExitTime(int start, int size, int delta, int otherStart, int otherSize) {
+        if(delta == 0) {
+            return isOverlapping(start, size, otherStart, otherSize) ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+        }
+        int distance = delta > 0 ? otherStart + otherSize - start : otherStart - (start + size);
+        return distance / (double) delta;
+    }
+
+    /**
+     * Tests if two spans along one axis overlap, with touching ends counting as overlapping.
+     *
+     * @param start Start of the first span.
+     * @param size Size of the first span.
+     * @param otherStart Start of the second span.
+     * @param otherSize Size of the second span.
+     * @return True if the spans overlap.
+     */
+    private static boolean isOverlapping(int start, int size, int otherStart, int otherSize) {
+        return start <= otherStart + otherSize && start + size >= otherStart;
+    }
+}
@@ -0,0 +1,57 @@
+package cardodger;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * ReplayRunner class:
+ * Replays a recording made with "Game --record file" without a window at full speed,
+ * reporting how fast it ran and checking the game finished in the same state as when
+ * it was recorded. Can repeat the replay to use a recorded session as a workload.
+ * Exits with a non-zero status if the replay did not match the recording.
+ *
+ * Arguments: the recording to replay, and optionally the number of times to replay it.
+ */
+public class ReplayRunner {
+    /**
+     * Entry point to replay a recording.
+     *
+     * @param args The recording file, and optionally the number of repeats.
+     * @throws IOException If the recording could not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length < 1) {
+            System.out.println("Usage: ReplayRunner <recording> [repeats]");
+            System.exit(2);
+        }
+        InputReplay replay = InputReplay.open(Path.of(args[0]));
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        Simulation simulation = null;
+        long totalTicks = 0;
+        long startTime = System.nanoTime();
+        for(int i = 0; i < repeats; i++) {
+            simulation = replay.createSimulation();
+            replay.play(simulation);
+            totalTicks += simulation.getTick();
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        System.out.printf("Replayed %d bytes, seed %d, %d ticks x %d in %.3f s (%.0f ticks/s)%n",
+                replay.getSize(), replay.getSeed(), simulation.getTick(), repeats,
+                seconds, totalTicks / seconds);
+        System.out.println("Score: " + simulation.getScore() + " Crashes: " + simulation.getCrashCount());
+        if(!replay.isFinished()) {
+            System.out.println("Recording was cut short, so the final state could not be checked.");
+        } else if(replay.getRecordedStateHash() != simulation.getStateHash()) {
+            System.out.printf("FAILED: final state %016x does not match recorded %016x%n",
+                    simulation.getStateHash(), replay.getRecordedStateHash());
+            System.exit(1);
+        } else {
+            System.out.printf("Final state %016x matches the recording%n", simulation.getStateHash());
+        }
+    }
+}
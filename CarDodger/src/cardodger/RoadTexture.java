@@ -0,0 +1,115 @@
+package cardodger;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * RoadTexture class:
+ * A pre-drawn strip of road with the lane markings on it, so the whole road can be drawn
+ * with a single image copy no matter how many lanes there are, instead of filling every
+ * road marking separately. The strip is one marking period taller than the area it covers,
+ * so sliding it down by the animation offset always covers the whole area. The strip is
+ * drawn again whenever the number of lanes, the area size, or the surface changes.
+ */
+public class RoadTexture {
+    /**
+     * Colour of the road surface.
+     */
+    public static final Color ROAD_COLOUR = new Color(76, 72, 72);
+    /**
+     * Width of each lane marking.
+     */
+    public static final int MARKING_WIDTH = 3;
+
+    /**
+     * The pre-drawn road, or null until first drawn.
+     */
+    private BufferedImage strip;
+    /**
+     * Configuration of the surface the strip was made compatible with.
+     */
+    private GraphicsConfiguration configuration;
+    /**
+     * Number of lanes on the strip.
+     */
+    private int lanes;
+    /**
+     * Width of the area the strip covers.
+     */
+    private int width;
+    /**
+     * Height of the area the strip covers.
+     */
+    private int height;
+    /**
+     * Length of each marking and of each gap between markings.
+     */
+    private int segmentLength;
+    /**
+     * Number of times the strip has been drawn.
+     */
+    private int rebuildCount;
+
+    /**
+     * Draws the road covering an area from the top left corner.
+     *
+     * @param g Reference to the Graphics object for rendering.
+     * @param lanes Number of lanes.
+     * @param width Width of the area to cover.
+     * @param height Height of the area to cover.
+     * @param segmentLength Length of each marking and of each gap between markings.
+     * @param offset How far down the markings have moved, from 0 to 2*segmentLength-1.
+     */
+    public void paint(Graphics g, int lanes, int width, int height, int segmentLength, int offset) {
+        GraphicsConfiguration currentConfiguration = ((Graphics2D) g).getDeviceConfiguration();
+        if(strip == null || lanes != this.lanes || width != this.width || height != this.height
+                || segmentLength != this.segmentLength || currentConfiguration != configuration) {
+            rebuild(currentConfiguration, lanes, width, height, segmentLength);
+        }
+        g.drawImage(strip, 0, offset - segmentLength*2, null);
+    }
+
+    /**
+     * Gets the number of times the strip has been drawn.
+     *
+     * @return The number of rebuilds.
+     */
+    public int getRebuildCount() {
+        return rebuildCount;
+    }
+
+    /**
+     * Draws the strip for a new number of lanes, area size, or surface.
+     *
+     * @param configuration Configuration of the surface the strip will be drawn to.
+     * @param lanes Number of lanes.
+     * @param width Width of the area to cover.
+     * @param height Height of the area to cover.
+     * @param segmentLength Length of each marking and of each gap between markings.
+     */
+    private void rebuild(GraphicsConfiguration configuration, int lanes, int width, int height, int segmentLength) {
+        this.configuration = configuration;
+        this.lanes = lanes;
+        this.width = width;
+        this.height = height;
+        this.segmentLength = segmentLength;
+        int stripHeight = height + segmentLength*2;
+        strip = configuration.createCompatibleImage(width, stripHeight, Transparency.OPAQUE);
+
+        Graphics2D g = strip.createGraphics();
+        g.setColor(ROAD_COLOUR);
+        g.fillRect(0, 0, width, stripHeight);
+        g.setColor(Color.WHITE);
+        for(int column = 1; column < lanes; column++) {
+            int x = Simulation.getLaneEdge(width, lanes, column);
+            for(int y = segmentLength; y < stripHeight; y += segmentLength*2) {
+                g.fillRect(x, y, MARKING_WIDTH, segmentLength);
+            }
+        }
+        g.dispose();
+        rebuildCount++;
+    }
+}
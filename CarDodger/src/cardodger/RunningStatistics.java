@@ -0,0 +1,138 @@
+package cardodger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * RunningStatistics class:
+ * Keeps a running count, mean, variance, min, and max of a stream of values
+ * without storing the values themselves (Welford's algorithm). Statistics kept
+ * separately can be merged, so each thread can keep its own and combine them after.
+ */
+public class RunningStatistics {
+    /**
+     * Number of values added.
+     */
+    private long count;
+    /**
+     * Mean of all values added.
+     */
+    private double mean;
+    /**
+     * Sum of squared differences from the mean.
+     */
+    private double sumSquaredDifferences;
+    /**
+     * Smallest value added.
+     */
+    private double min;
+    /**
+     * Largest value added.
+     */
+    private double max;
+
+    /**
+     * Creates an empty set of statistics.
+     */
+    public RunningStatistics() {
+        reset();
+    }
+
+    /**
+     * Adds a value to the statistics.
+     *
+     * @param value Value to add.
+     */
+    public void add(double value) {
+        count++;
+        double difference = value - mean;
+        mean += difference / count;
+        sumSquaredDifferences += difference * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds all the values from other statistics into these statistics.
+     *
+     * @param other Statistics to merge in. Not changed.
+     */
+    public void merge(RunningStatistics other) {
+        if(other.count == 0) return;
+        long totalCount = count + other.count;
+        double difference = other.mean - mean;
+        mean += difference * other.count / totalCount;
+        sumSquaredDifferences += other.sumSquaredDifferences
+                + difference * difference * count * other.count / totalCount;
+        count = totalCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Clears all values back to an empty set of statistics.
+     */
+    public void reset() {
+        count = 0;
+        mean = 0;
+        sumSquaredDifferences = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Gets the number of values added.
+     *
+     * @return Number of values added.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the mean of all values added.
+     *
+     * @return The mean, or 0 if nothing has been added.
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Gets the sample standard deviation of all values added.
+     *
+     * @return The standard deviation, or 0 if fewer than two values have been added.
+     */
+    public double getStandardDeviation() {
+        return count > 1 ? Math.sqrt(sumSquaredDifferences / (count - 1)) : 0;
+    }
+
+    /**
+     * Gets the smallest value added.
+     *
+     * @return The smallest value, or 0 if nothing has been added.
+     */
+    public double getMin() {
+        return count > 0 ? min : 0;
+    }
+
+    /**
+     * Gets the largest value added.
+     *
+     * @return The largest value, or 0 if nothing has been added.
+     */
+    public double getMax() {
+        return count > 0 ? max : 0;
+    }
+
+    /**
+     * Gets a summary of the statistics.
+     *
+     * @return A string in the form "mean=.. sd=.. min=.. max=.. (n=..)".
+     */
+    @Override
+    public String toString() {
+        return String.format("mean=%.3f sd=%.3f min=%.3f max=%.3f (n=%d)",
+                getMean(), getStandardDeviation(), getMin(), getMax(), count);
+    }
+}
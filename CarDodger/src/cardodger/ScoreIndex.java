@@ -0,0 +1,259 @@
+package cardodger;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * ScoreIndex class:
+ * The best scores of one profile in a ScoreJournal, covering the journal's records up to
+ * a point. Only the best TOP_CAPACITY scores are kept, in a min-heap, so adding a score and
+ * asking for the top scores take the same time however many games have been played.
+ * Remembers the checksum of the last record it covers so a saved index can be checked
+ * against the journal it is loaded with.
+ */
+public class ScoreIndex {
+    /**
+     * Number of best scores kept.
+     */
+    public static final int TOP_CAPACITY = 100;
+
+    /**
+     * Profile the index is for, or ScoreJournal.ALL_PROFILES for every profile.
+     */
+    private final int profile;
+    /**
+     * Number of journal records from the start that have been added.
+     */
+    private long coveredCount;
+    /**
+     * Checksum of the last record covered, or 0 if none are.
+     */
+    private int coveredChecksum;
+    /**
+     * Number of games added.
+     */
+    private long gameCount;
+    /**
+     * Min-heap of the best scores, with the lowest of them at index 0.
+     */
+    private final int[] topScores;
+    /**
+     * Number of scores in the heap.
+     */
+    private int topCount;
+
+    /**
+     * Creates an index that covers no records.
+     *
+     * @param profile Profile the index is for, or ScoreJournal.ALL_PROFILES for every profile.
+     */
+    public ScoreIndex(int profile) {
+        this(profile, 0, 0);
+    }
+
+    /**
+     * Creates an index for a profile known to have no games in the records it covers.
+     *
+     * @param profile Profile the index is for, or ScoreJournal.ALL_PROFILES for every profile.
+     * @param coveredCount Number of journal records from the start that are covered.
+     * @param coveredChecksum Checksum of the last record covered, or 0 if none are.
+     */
+    public ScoreIndex(int profile, long coveredCount, int coveredChecksum) {
+        this.profile = profile;
+        this.coveredCount = coveredCount;
+        this.coveredChecksum = coveredChecksum;
+        topScores = new int[TOP_CAPACITY];
+    }
+
+    /**
+     * Checks if a record belongs in this index.
+     *
+     * @param recordProfile Profile of the record.
+     * @return True if the index is for that profile or for every profile.
+     */
+    public boolean includes(int recordProfile) {
+        return profile == ScoreJournal.ALL_PROFILES || profile == recordProfile;
+    }
+
+    /**
+     * Adds the score of a game, keeping it if it is one of the best.
+     *
+     * @param score Score the game ended with.
+     */
+    public void addScore(int score) {
+        gameCount++;
+        if(topCount < TOP_CAPACITY) {
+            topScores[topCount] = score;
+            siftUp(topCount++);
+        } else if(score > topScores[0]) {
+            topScores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Marks one more journal record as covered, whether or not it was added.
+     *
+     * @param checksum Checksum of the record.
+     */
+    public void cover(int checksum) {
+        coveredCount++;
+        coveredChecksum = checksum;
+    }
+
+    /**
+     * Gets the best scores from highest to lowest.
+     *
+     * @param n Most scores to get, up to TOP_CAPACITY.
+     * @return The best scores, fewer than n if fewer games were added.
+     */
+    public int[] getTopScores(int n) {
+        int[] sorted = Arrays.copyOf(topScores, topCount);
+        Arrays.sort(sorted);
+        int count = Math.min(n, topCount);
+        int[] result = new int[count];
+        for(int i = 0; i < count; i++) {
+            result[i] = sorted[topCount - 1 - i];
+        }
+        return result;
+    }
+
+    /**
+     * Gets the best score.
+     *
+     * @return The highest score added, or 0 if none were.
+     */
+    public int getBestScore() {
+        int best = 0;
+        for(int i = 0; i < topCount; i++) {
+            best = Math.max(best, topScores[i]);
+        }
+        return best;
+    }
+
+    /**
+     * Gets the profile the index is for.
+     *
+     * @return The profile, or ScoreJournal.ALL_PROFILES.
+     */
+    public int getProfile() {
+        return profile;
+    }
+
+    /**
+     * Gets the number of journal records covered.
+     *
+     * @return Records from the start of the journal that have been added.
+     */
+    public long getCoveredCount() {
+        return coveredCount;
+    }
+
+    /**
+     * Gets the checksum of the last record covered.
+     *
+     * @return The checksum, or 0 if no records are covered.
+     */
+    public int getCoveredChecksum() {
+        return coveredChecksum;
+    }
+
+    /**
+     * Gets the number of games added.
+     *
+     * @return The number of games.
+     */
+    public long getGameCount() {
+        return gameCount;
+    }
+
+    /**
+     * Writes the index so it can be read back with read().
+     *
+     * @param out Where to write the index.
+     * @throws IOException If the index could not be written.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(profile);
+        out.writeLong(coveredCount);
+        out.writeInt(coveredChecksum);
+        out.writeLong(gameCount);
+        out.writeInt(topCount);
+        for(int i = 0; i < topCount; i++) {
+            out.writeInt(topScores[i]);
+        }
+    }
+
+    /**
+     * Reads an index written by write().
+     *
+     * @param in Where to read the index from.
+     * @return The index.
+     * @throws IOException If the index could not be read or is not valid.
+     */
+    public static ScoreIndex read(DataInput in) throws IOException {
+        ScoreIndex index = new ScoreIndex(in.readInt());
+        index.coveredCount = in.readLong();
+        index.coveredChecksum = in.readInt();
+        index.gameCount = in.readLong();
+        int count = in.readInt();
+        if(count < 0 || count > TOP_CAPACITY) {
+            throw new IOException("Score index has " + count + " top scores");
+        }
+        for(int i = 0; i < count; i++) {
+            index.addTopScore(in.readInt());
+        }
+        return index;
+    }
+
+    /**
+     * Adds a score to the heap without counting a game.
+     *
+     * @param score The score to add.
+     */
+    private void addTopScore(int score) {
+        topScores[topCount] = score;
+        siftUp(topCount++);
+    }
+
+    /**
+     * Moves a score up the heap until its parent is not higher.
+     *
+     * @param index Position of the score in the heap.
+     */
+    private void siftUp(int index) {
+        int score = topScores[index];
+        while(index > 0) {
+            int parent = (index - 1) / 2;
+            if(topScores[parent] <= score) break;
+            topScores[index] = topScores[parent];
+            index = parent;
+        }
+        topScores[index] = score;
+    }
+
+    /**
+     * Moves a score down the heap until neither child is lower.
+     *
+     * @param index Position of the score in the heap.
+     */
+    private void siftDown(int index) {
+        int score = topScores[index];
+        while(true) {
+            int child = index * 2 + 1;
+            if(child >= topCount) break;
+            if(child + 1 < topCount && topScores[child + 1] < topScores[child]) {
+                child++;
+            }
+            if(topScores[child] >= score) break;
+            topScores[index] = topScores[child];
+            index = child;
+        }
+        topScores[index] = score;
+    }
+}
@@ -0,0 +1,774 @@
+package cardodger;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32C;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * ScoreJournal class:
+ * Append-only journal of every game's score and every session, kept in a memory mapped file
+ * so scores survive the game exiting or crashing. Each record is a fixed size with a CRC32C
+ * checksum. Games are handed to a background writer thread through a lock-free ring, so
+ * recording a game never waits on the disk or a lock; if the ring is full the game is
+ * dropped and counted. The best scores of each profile, and of every profile together, are
+ * kept in a ScoreIndex. The indexes are built the first time any profile is asked about,
+ * with a single pass that finds every profile, and are then kept up to date as games are
+ * written and saved next to the journal. Opening the journal and finding a best score only
+ * reads the records added since the indexes were last saved, never the whole file.
+ *
+ * File format:
+ *   64 byte header: magic "CDSJ", version, record size, number of sessions started,
+ *   then the number of committed records as 8 bytes. The rest is reserved.
+ *   Records of 32 bytes follow: time in ms since the epoch as 8 bytes, then type, profile,
+ *   session, score, and crash count as 4 bytes each, then the CRC32C of the first 28 bytes.
+ *   The file is grown ahead of the records, and the space after the last record is zeros.
+ * The count is only written after the records it covers, so records after it with a valid
+ * checksum were written just before an exit and are kept, while a torn record and
+ * everything after it is ignored. The index file is written to a temporary file and moved
+ * into place, with a CRC32C of its contents at the end.
+ * The whole file is mapped as one buffer, which limits a journal to about 67 million records.
+ * The file is locked while open, so a second game started at the same time cannot append
+ * over the first one's records; it fails to open the journal instead.
+ */
+public class ScoreJournal implements AutoCloseable {
+    /**
+     * First bytes of every journal.
+     */
+    public static final int MAGIC = 0x4344534A;
+    /**
+     * Version of the file format.
+     */
+    public static final int VERSION = 1;
+    /**
+     * Size of the header in bytes.
+     */
+    public static final int HEADER_SIZE = 64;
+    /**
+     * Size of each record in bytes.
+     */
+    public static final int RECORD_SIZE = 32;
+    /**
+     * Record type for a session starting.
+     */
+    public static final int SESSION_START = 1;
+    /**
+     * Record type for a game ending with a crash.
+     */
+    public static final int GAME = 2;
+    /**
+     * Record type for a session ending.
+     */
+    public static final int SESSION_END = 3;
+    /**
+     * Profile used to ask about the scores of every profile together.
+     */
+    public static final int ALL_PROFILES = -1;
+    /**
+     * First bytes of every index file.
+     */
+    private static final int INDEX_MAGIC = 0x43445349;
+    /**
+     * Position of the committed record count in the header.
+     */
+    private static final int COUNT_OFFSET = 16;
+    /**
+     * Position of the number of sessions started in the header.
+     */
+    private static final int SESSION_OFFSET = 12;
+    /**
+     * Smallest number of records the file grows by.
+     */
+    private static final int GROW_RECORDS = 1 << 16;
+    /**
+     * Maximum number of games waiting for the writer thread.
+     */
+    private static final int QUEUE_CAPACITY = 1024;
+    /**
+     * Time the writer thread waits when there is nothing to write, in ns.
+     */
+    private static final long WRITER_PARK_NANOS = 10_000_000L;
+    /**
+     * Time between flushing the journal to the disk while games are being written, in ns.
+     */
+    private static final long FORCE_INTERVAL_NANOS = 1_000_000_000L;
+    /**
+     * Number of records written between saving the indexes.
+     */
+    private static final int INDEX_SAVE_RECORDS = 1 << 16;
+
+    /**
+     * The journal file.
+     */
+    private final Path file;
+    /**
+     * File the indexes are saved to.
+     */
+    private final Path indexFile;
+    /**
+     * Channel the journal is mapped from.
+     */
+    private final FileChannel channel;
+    /**
+     * The mapped file, replaced whenever the file grows.
+     */
+    private MappedByteBuffer mapped;
+    /**
+     * View of the mapped file used to compute checksums, replaced whenever the file grows.
+     */
+    private ByteBuffer checksumView;
+    /**
+     * Number of records the mapped file has room for.
+     */
+    private long capacity;
+    /**
+     * Number of records in the journal.
+     */
+    private long recordCount;
+    /**
+     * Records added since the indexes were last saved.
+     */
+    private long recordsSinceIndexSave;
+    /**
+     * Profile the games of this session are recorded for.
+     */
+    private final int profile;
+    /**
+     * Number of this session.
+     */
+    private final int session;
+    /**
+     * Indexes built or loaded so far, by profile.
+     */
+    private final Map<Integer, ScoreIndex> indexes;
+    /**
+     * Number of records from the start for which every profile with a game has an index.
+     */
+    private long catalogCount;
+    /**
+     * Checksum of the last record in the catalog, or 0 if it is empty.
+     */
+    private int catalogChecksum;
+    /**
+     * Reused to compute record checksums.
+     */
+    private final CRC32C checksum;
+    /**
+     * Score of each game in the ring.
+     */
+    private final int[] queuedScores;
+    /**
+     * Crash count of each game in the ring.
+     */
+    private final int[] queuedCrashCounts;
+    /**
+     * Time each game in the ring ended.
+     */
+    private final long[] queuedTimes;
+    /**
+     * Mask to turn a sequence number into an index in the ring.
+     */
+    private final int queueMask;
+    /**
+     * Sequence number of the next game to write. Only changed by the writer thread.
+     */
+    private final AtomicLong queueHead;
+    /**
+     * Sequence number of the next game to record. Only changed by the recording thread.
+     */
+    private final AtomicLong queueTail;
+    /**
+     * Number of games dropped because the ring was full. Only changed by the recording thread.
+     */
+    private long droppedCount;
+    /**
+     * Most recent crash count recorded, for the session end record.
+     */
+    private int lastCrashCount;
+    /**
+     * Thread writing queued games to the file.
+     */
+    private final Thread writerThread;
+    /**
+     * False once the journal is closing.
+     */
+    private volatile boolean running;
+
+    /**
+     * Opens a journal, creating it if it does not exist, and starts a session for a profile.
+     *
+     * @param file The journal file. Its index is kept in the same directory with ".idx" added.
+     * @param profile Profile the games of this session are recorded for.
+     * @return The open journal.
+     * @throws IOException If the file could not be opened, is not a journal, or is open in another game.
+     */
+    public static ScoreJournal open(Path file, int profile) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if(parent != null) {
+            Files.createDirectories(parent);
+        }
+        return new ScoreJournal(file, profile);
+    }
+
+    /**
+     * Maps the journal, finds the last valid record, loads any saved indexes, writes the
+     * session start record, and starts the writer thread.
+     *
+     * @param file The journal file.
+     * @param profile Profile the games of this session are recorded for.
+     * @throws IOException If the file could not be opened, is not a journal, or is open in another game.
+     */
+    private ScoreJournal(Path file, int profile) throws IOException {
+        this.file = file;
+        this.profile = profile;
+        indexFile = file.resolveSibling(file.getFileName() + ".idx");
+        checksum = new CRC32C();
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            if(!tryLock()) {
+                throw new IOException("Score journal is already open in another game");
+            }
+            long size = channel.size();
+            if(size == 0) {
+                map(GROW_RECORDS);
+                mapped.putInt(0, MAGIC);
+                mapped.putInt(4, VERSION);
+                mapped.putInt(8, RECORD_SIZE);
+            } else {
+                if(size < HEADER_SIZE) {
+                    throw new IOException("Score journal header is cut short");
+                }
+                map((size - HEADER_SIZE) / RECORD_SIZE);
+                if(mapped.getInt(0) != MAGIC) {
+                    throw new IOException("Not a score journal");
+                }
+                if(mapped.getInt(4) != VERSION || mapped.getInt(8) != RECORD_SIZE) {
+                    throw new IOException("Unsupported score journal version " + mapped.getInt(4));
+                }
+            }
+            recordCount = recover(mapped.getLong(COUNT_OFFSET));
+            session = mapped.getInt(SESSION_OFFSET) + 1;
+            mapped.putInt(SESSION_OFFSET, session);
+            indexes = loadIndexes();
+            if(catalogCount == 0) {
+                // Building the catalog from the start also builds the index of every profile together
+                indexes.put(ALL_PROFILES, new ScoreIndex(ALL_PROFILES));
+            }
+            append(SESSION_START, profile, 0, 0, System.currentTimeMillis());
+            commit();
+        } catch(IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        int queueSize = Integer.highestOneBit(QUEUE_CAPACITY - 1) << 1;
+        queuedScores = new int[queueSize];
+        queuedCrashCounts = new int[queueSize];
+        queuedTimes = new long[queueSize];
+        queueMask = queueSize - 1;
+        queueHead = new AtomicLong();
+        queueTail = new AtomicLong();
+        running = true;
+        writerThread = new Thread(this::runWriter, "Score journal");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Locks the whole file until the channel is closed.
+     *
+     * @return True if the lock was taken, or false if another process or this one holds it.
+     * @throws IOException If the file could not be locked.
+     */
+    private boolean tryLock() throws IOException {
+        try {
+            return channel.tryLock() != null;
+        } catch(OverlappingFileLockException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Hands a finished game to the writer thread. Never waits; if the writer thread has
+     * fallen too far behind the game is dropped and counted. Only one thread may record games.
+     *
+     * @param score Score the game ended with.
+     * @param crashCount Number of crashes in the session including this one.
+     * @return True if the game was queued, or false if it was dropped.
+     */
+    public boolean recordGame(int score, int crashCount) {
+        long sequence = queueTail.get();
+        if(sequence - queueHead.get() > queueMask) {
+            droppedCount++;
+            return false;
+        }
+        int index = (int) sequence & queueMask;
+        queuedScores[index] = score;
+        queuedCrashCounts[index] = crashCount;
+        queuedTimes[index] = System.currentTimeMillis();
+        // Ordered write so the game is visible before the writer can see the new tail
+        queueTail.lazySet(sequence + 1);
+        return true;
+    }
+
+    /**
+     * Gets the best score of a profile, building its index first if needed.
+     *
+     * @param profile The profile, or ALL_PROFILES.
+     * @return The best score, or 0 if the profile has not played a game.
+     */
+    public synchronized int getBestScore(int profile) {
+        return getIndex(profile).getBestScore();
+    }
+
+    /**
+     * Gets the best scores of a profile from highest to lowest. Up to ScoreIndex.TOP_CAPACITY
+     * scores are answered from the profile's index; asking for more reads every record.
+     *
+     * @param profile The profile, or ALL_PROFILES.
+     * @param n Most scores to get.
+     * @return The best scores, fewer than n if fewer games were played.
+     */
+    public synchronized int[] getTopScores(int profile, int n) {
+        if(n <= ScoreIndex.TOP_CAPACITY) {
+            return getIndex(profile).getTopScores(n);
+        }
+        PriorityQueue<Integer> best = new PriorityQueue<>(n);
+        for(long record = 0; record < recordCount; record++) {
+            int position = getRecordPosition(record);
+            if(mapped.getInt(position + 8) != GAME) continue;
+            if(profile != ALL_PROFILES && mapped.getInt(position + 12) != profile) continue;
+            int score = mapped.getInt(position + 20);
+            if(best.size() < n) {
+                best.add(score);
+            } else if(score > best.peek()) {
+                best.poll();
+                best.add(score);
+            }
+        }
+        int[] result = new int[best.size()];
+        for(int i = result.length - 1; i >= 0; i--) {
+            result[i] = best.poll();
+        }
+        return result;
+    }
+
+    /**
+     * Gets the number of games played by a profile.
+     *
+     * @param profile The profile, or ALL_PROFILES.
+     * @return The number of games.
+     */
+    public synchronized long getGameCount(int profile) {
+        return getIndex(profile).getGameCount();
+    }
+
+    /**
+     * Gets the number of records in the journal, including ones not yet committed.
+     *
+     * @return The number of records.
+     */
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Gets the number of games waiting for the writer thread.
+     *
+     * @return The number of queued games.
+     */
+    public long getQueuedCount() {
+        return queueTail.get() - queueHead.get();
+    }
+
+    /**
+     * Gets the number of games dropped because the writer thread had fallen behind.
+     * Only accurate when called by the recording thread.
+     *
+     * @return The number of dropped games.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Gets the number of this session.
+     *
+     * @return The session number, starting from 1.
+     */
+    public int getSession() {
+        return session;
+    }
+
+    /**
+     * Writes every queued game, ends the session, flushes the journal to the disk,
+     * and saves the indexes. Must not be called while games are being recorded.
+     */
+    @Override
+    public void close() {
+        if(!running) return;
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] savedIndexes;
+        synchronized(this) {
+            append(SESSION_END, profile, getIndex(profile).getBestScore(), lastCrashCount, System.currentTimeMillis());
+            commit();
+            mapped.force();
+            savedIndexes = writeIndexes();
+        }
+        saveIndexes(savedIndexes);
+        try {
+            channel.close();
+        } catch(IOException e) {
+            System.err.println("Unable to close " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes queued games to the file until the journal closes, flushing it to the disk
+     * once a second while games are arriving and saving the indexes every INDEX_SAVE_RECORDS.
+     */
+    private void runWriter() {
+        long lastForceTime = System.nanoTime();
+        boolean unforced = false;
+        while(true) {
+            boolean closing = !running;
+            int written = writeQueued();
+            unforced |= written > 0;
+            long time = System.nanoTime();
+            if(unforced && time - lastForceTime >= FORCE_INTERVAL_NANOS) {
+                synchronized(this) {
+                    mapped.force();
+                }
+                lastForceTime = time;
+                unforced = false;
+            }
+            if(recordsSinceIndexSave >= INDEX_SAVE_RECORDS) {
+                byte[] savedIndexes;
+                synchronized(this) {
+                    savedIndexes = writeIndexes();
+                }
+                saveIndexes(savedIndexes);
+            }
+            if(closing && written == 0) break;
+            if(written == 0) {
+                LockSupport.parkNanos(WRITER_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Appends every queued game to the file and commits them.
+     *
+     * @return The number of games written.
+     */
+    private synchronized int writeQueued() {
+        long sequence = queueHead.get();
+        long end = queueTail.get();
+        if(sequence == end) return 0;
+        for(long next = sequence; next < end; next++) {
+            int index = (int) next & queueMask;
+            append(GAME, profile, queuedScores[index], queuedCrashCounts[index], queuedTimes[index]);
+            lastCrashCount = queuedCrashCounts[index];
+        }
+        commit();
+        // Ordered write so the slots are only reused after they have been read
+        queueHead.lazySet(end);
+        recordsSinceIndexSave += end - sequence;
+        return (int) (end - sequence);
+    }
+
+    /**
+     * Writes a record after the last one, growing the file if it is full, and adds it to
+     * any index that is up to date. The record is not committed until commit() is called.
+     *
+     * @param type SESSION_START, GAME, or SESSION_END.
+     * @param recordProfile Profile of the record.
+     * @param score Score of the game, or the best score of the profile for a session end.
+     * @param crashCount Number of crashes in the session.
+     * @param time Time of the record in ms since the epoch.
+     */
+    private void append(int type, int recordProfile, int score, int crashCount, long time) {
+        if(recordCount == capacity) {
+            try {
+                map(capacity + Math.max(GROW_RECORDS, capacity / 2));
+            } catch(IOException e) {
+                throw new UncheckedIOException("Unable to grow " + file, e);
+            }
+        }
+        int position = getRecordPosition(recordCount);
+        mapped.putLong(position, time);
+        mapped.putInt(position + 8, type);
+        mapped.putInt(position + 12, recordProfile);
+        mapped.putInt(position + 16, session);
+        mapped.putInt(position + 20, score);
+        mapped.putInt(position + 24, crashCount);
+        int recordChecksum = computeChecksum(position);
+        mapped.putInt(position + 28, recordChecksum);
+        addToIndexes(recordCount, type, recordProfile, score, recordChecksum);
+        recordCount++;
+    }
+
+    /**
+     * Adds a record to every index that covers all the records before it. If the record
+     * is next in the catalog, it is added to the catalog, creating an index for its profile
+     * if this is the profile's first game.
+     *
+     * @param record Index of the record.
+     * @param type SESSION_START, GAME, or SESSION_END.
+     * @param recordProfile Profile of the record.
+     * @param score Score of the record.
+     * @param recordChecksum Checksum of the record.
+     */
+    private void addToIndexes(long record, int type, int recordProfile, int score, int recordChecksum) {
+        if(record == catalogCount) {
+            if(type == GAME && !indexes.containsKey(recordProfile)) {
+                indexes.put(recordProfile, new ScoreIndex(recordProfile, catalogCount, catalogChecksum));
+            }
+            catalogCount++;
+            catalogChecksum = recordChecksum;
+        }
+        for(ScoreIndex index : indexes.values()) {
+            if(index.getCoveredCount() != record) continue;
+            if(type == GAME && index.includes(recordProfile)) {
+                index.addScore(score);
+            }
+            index.cover(recordChecksum);
+        }
+    }
+
+    /**
+     * Writes the record count to the header, after the records it covers.
+     */
+    private void commit() {
+        mapped.putLong(COUNT_OFFSET, recordCount);
+    }
+
+    /**
+     * Finds how many records are valid, starting from the count in the header.
+     * Steps back over records that did not reach the disk before a power loss, then
+     * forward over valid records written after the count was last committed.
+     *
+     * @param committedCount The count from the header.
+     * @return The number of valid records.
+     */
+    private long recover(long committedCount) {
+        long count = Math.max(0, Math.min(committedCount, capacity));
+        while(count > 0 && !isValid(count - 1)) {
+            count--;
+        }
+        while(count < capacity && isValid(count)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Checks if a record has a known type and a matching checksum.
+     *
+     * @param record Index of the record.
+     * @return True if the record is valid.
+     */
+    private boolean isValid(long record) {
+        int position = getRecordPosition(record);
+        int type = mapped.getInt(position + 8);
+        return type >= SESSION_START && type <= SESSION_END
+                && mapped.getInt(position + 28) == computeChecksum(position);
+    }
+
+    /**
+     * Gets the index for a profile and adds any records it does not cover yet. A profile
+     * without an index is looked for in the records not yet in the catalog, which builds
+     * the indexes of every profile found along the way; if it has no games it gets an empty index.
+     *
+     * @param indexProfile The profile, or ALL_PROFILES.
+     * @return The up to date index.
+     */
+    private ScoreIndex getIndex(int indexProfile) {
+        ScoreIndex index = indexes.get(indexProfile);
+        if(index == null) {
+            for(long record = catalogCount; record < recordCount; record++) {
+                addRecordToIndexes(record);
+            }
+            index = indexes.get(indexProfile);
+            if(index == null) {
+                index = new ScoreIndex(indexProfile, catalogCount, catalogChecksum);
+                indexes.put(indexProfile, index);
+            }
+        }
+        for(long record = index.getCoveredCount(); record < recordCount; record++) {
+            int position = getRecordPosition(record);
+            if(mapped.getInt(position + 8) == GAME && index.includes(mapped.getInt(position + 12))) {
+                index.addScore(mapped.getInt(position + 20));
+            }
+            index.cover(mapped.getInt(position + 28));
+        }
+        return index;
+    }
+
+    /**
+     * Reads a record from the file and adds it to the indexes.
+     *
+     * @param record Index of the record.
+     */
+    private void addRecordToIndexes(long record) {
+        int position = getRecordPosition(record);
+        addToIndexes(record, mapped.getInt(position + 8), mapped.getInt(position + 12),
+                mapped.getInt(position + 20), mapped.getInt(position + 28));
+    }
+
+    /**
+     * Loads the saved indexes that still match the journal. Any that do not, or a missing
+     * or damaged index file, are left to be built again when they are needed.
+     *
+     * @return The indexes by profile.
+     */
+    private Map<Integer, ScoreIndex> loadIndexes() {
+        Map<Integer, ScoreIndex> loaded = new HashMap<>();
+        if(!Files.exists(indexFile)) return loaded;
+        try {
+            byte[] bytes = Files.readAllBytes(indexFile);
+            if(bytes.length < 12) return loaded;
+            CRC32C fileChecksum = new CRC32C();
+            fileChecksum.update(bytes, 0, bytes.length - 4);
+            if((int) fileChecksum.getValue() != ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt()) {
+                return loaded;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+            if(in.readInt() != INDEX_MAGIC) return loaded;
+            long savedCatalogCount = in.readLong();
+            int savedCatalogChecksum = in.readInt();
+            if(isCovering(savedCatalogCount, savedCatalogChecksum)) {
+                catalogCount = savedCatalogCount;
+                catalogChecksum = savedCatalogChecksum;
+            }
+            int count = in.readInt();
+            for(int i = 0; i < count; i++) {
+                ScoreIndex index = ScoreIndex.read(in);
+                if(!isCovering(index.getCoveredCount(), index.getCoveredChecksum())) {
+                    // The journal is not the one the indexes were saved from
+                    catalogCount = 0;
+                }
+                loaded.put(index.getProfile(), index);
+            }
+        } catch(IOException e) {
+            System.err.println("Rebuilding score indexes, unable to read " + indexFile + ": " + e.getMessage());
+            catalogCount = 0;
+        }
+        if(catalogCount == 0) {
+            // Without the catalog, a profile's first games could be before its index starts
+            catalogChecksum = 0;
+            loaded.clear();
+        }
+        return loaded;
+    }
+
+    /**
+     * Checks if saved records from the start of a journal are the same as the start of this journal.
+     *
+     * @param count Number of records saved.
+     * @param lastChecksum Checksum of the last record saved, or 0 if none were.
+     * @return True if this journal has at least as many records and its last one matches.
+     */
+    private boolean isCovering(long count, int lastChecksum) {
+        return count >= 0 && count <= recordCount && (count == 0
+                || mapped.getInt(getRecordPosition(count - 1) + 28) == lastChecksum);
+    }
+
+    /**
+     * Writes every index into bytes to be saved, bringing them up to date first.
+     *
+     * @return The contents of the index file.
+     */
+    private byte[] writeIndexes() {
+        recordsSinceIndexSave = 0;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(INDEX_MAGIC);
+            out.writeLong(catalogCount);
+            out.writeInt(catalogChecksum);
+            out.writeInt(indexes.size());
+            for(int indexProfile : indexes.keySet()) {
+                getIndex(indexProfile).write(out);
+            }
+            CRC32C fileChecksum = new CRC32C();
+            fileChecksum.update(bytes.toByteArray());
+            out.writeInt((int) fileChecksum.getValue());
+        } catch(IOException e) {
+            // Writing to memory does not fail
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Saves the indexes to a temporary file and moves it over the index file, so an exit
+     * while saving leaves the old index file in place.
+     *
+     * @param contents The contents of the index file.
+     */
+    private void saveIndexes(byte[] contents) {
+        Path temporaryFile = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try {
+            Files.write(temporaryFile, contents);
+            Files.move(temporaryFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch(IOException e) {
+            System.err.println("Unable to save score indexes to " + indexFile + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Maps the file with room for a number of records, growing it if it is smaller.
+     *
+     * @param records Number of records to map.
+     * @throws IOException If the file could not be mapped.
+     */
+    private void map(long records) throws IOException {
+        capacity = records;
+        mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + records * RECORD_SIZE);
+        checksumView = mapped.duplicate();
+    }
+
+    /**
+     * Gets where a record starts in the mapped file.
+     *
+     * @param record Index of the record.
+     * @return Position of the record's first byte.
+     */
+    private static int getRecordPosition(long record) {
+        return (int) (HEADER_SIZE + record * RECORD_SIZE);
+    }
+
+    /**
+     * Computes the checksum of the first 28 bytes of a record.
+     *
+     * @param position Position of the record's first byte.
+     * @return The checksum.
+     */
+    private int computeChecksum(int position) {
+        checksum.reset();
+        checksumView.clear();
+        checksumView.position(position).limit(position + RECORD_SIZE - 4);
+        checksum.update(checksumView);
+        return (int) checksum.getValue();
+    }
+}
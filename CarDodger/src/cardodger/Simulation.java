@@ -0,0 +1,429 @@
+package cardodger;
+
+import java.util.SplittableRandom;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * Simulation class:
+ * Headless core of the game that owns the player, the enemy cars, the road animation,
+ * and the score/crash counters. Has no dependency on Swing or AWT so it can be stepped
+ * as fast as possible without a window, and notifies an optional SimulationListener
+ * whenever the score or crash count changes. All randomness comes from a SplittableRandom
+ * owned by the simulation and created from a single seed, so simulations created with the
+ * same seed and given the same input play out exactly the same way, and simulations
+ * running on different threads never share or wait on a random number generator.
+ * Input can be recorded with an InputRecorder so a game can be replayed by an InputReplay.
+ * The size of the world and the number of lanes are chosen when the simulation is created,
+ * and everything is simulated in world units; drawing scales the world to the screen.
+ */
+public class Simulation {
+    /**
+     * Default width of the simulated world.
+     */
+    public static final int WORLD_WIDTH = 500;
+    /**
+     * Default height of the simulated world.
+     */
+    public static final int WORLD_HEIGHT = 500;
+    /**
+     * Default time between updates in ms.
+     */
+    public static final int TIME_INTERVAL = 20;
+    /**
+     * Default number of lanes to show as columns.
+     */
+    public static final int NUMBER_OF_LANES = 14;
+    /**
+     * Default maximum number of lanes that can be active at one time.
+     */
+    public static final int MAX_ACTIVE_LANES = 10;
+    /**
+     * Space kept below the player car at the bottom of the world.
+     */
+    public static final int PLAYER_MARGIN = 50;
+    /**
+     * Smallest width of world that fits a car.
+     */
+    public static final int MIN_WORLD_WIDTH = Car.CAR_WIDTH;
+    /**
+     * Smallest height of world that fits the player car above its margin.
+     */
+    public static final int MIN_WORLD_HEIGHT = Car.CAR_HEIGHT + PLAYER_MARGIN;
+
+    /**
+     * Width of the simulated world in world units.
+     */
+    private final int worldWidth;
+    /**
+     * Height of the simulated world in world units.
+     */
+    private final int worldHeight;
+    /**
+     * The enemy car manager that stores all the enemy cars.
+     */
+    private EnemyCarManager enemyCarManager;
+    /**
+     * The player object that can be moved left/right.
+     */
+    private PlayerCar playerCar;
+    /**
+     * A simple animated object that makes it appear the car is driving forward.
+     */
+    private AnimatedRoad animatedRoad;
+    /**
+     * Optional listener to notify about score and crash changes. May be null.
+     */
+    private SimulationListener listener;
+    /**
+     * The current score based on number of cars dodged.
+     */
+    private int score;
+    /**
+     * The current crash count based on how many crashes have occurred.
+     */
+    private int crashCount;
+    /**
+     * Seed the simulation's randomness was created from.
+     */
+    private long seed;
+    /**
+     * Number of updates since the simulation was created.
+     */
+    private long tick;
+    /**
+     * Optional recorder to pass every input to. May be null.
+     */
+    private InputRecorder inputRecorder;
+    /**
+     * Optional profiler to record how long each part of an update takes. May be null.
+     */
+    private PhaseProfiler profiler;
+    /**
+     * Optional recorder to pass the state after every update to. May be null.
+     */
+    private TelemetryRecorder telemetryRecorder;
+    /**
+     * Reused to pass input positions to the player without creating a Position for every input.
+     */
+    private Position inputPosition;
+
+    /**
+     * Configures the simulation with the default number of lanes and a random seed.
+     */
+    public Simulation() {
+        this(NUMBER_OF_LANES, MAX_ACTIVE_LANES);
+    }
+
+    /**
+     * Configures the simulation with a random seed.
+     *
+     * @param lanes The total number of lanes.
+     * @param maxActiveLanes The maximum number of lanes that should have a car moving down in them at a time.
+     */
+    public Simulation(int lanes, int maxActiveLanes) {
+        this(lanes, maxActiveLanes, System.nanoTime());
+    }
+
+    /**
+     * Configures the simulation ready to be updated in a world of the default size.
+     *
+     * @param lanes The total number of lanes.
+     * @param maxActiveLanes The maximum number of lanes that should have a car moving down in them at a time.
+     * @param seed Seed for all the randomness in the simulation.
+     */
+    public Simulation(int lanes, int maxActiveLanes, long seed) {
+        this(WORLD_WIDTH, WORLD_HEIGHT, lanes, maxActiveLanes, seed);
+    }
+
+    /**
+     * Configures the simulation ready to be updated.
+     *
+     * @param worldWidth Width of the world in world units.
+     * @param worldHeight Height of the world in world units.
+     * @param lanes The total number of lanes.
+     * @param maxActiveLanes The maximum number of lanes that should have a car moving down in them at a time.
+     * @param seed Seed for all the randomness in the simulation.
+     */
+    public Simulation(int worldWidth, int worldHeight, int lanes, int maxActiveLanes, long seed) {
+        if(worldWidth < MIN_WORLD_WIDTH || worldHeight < MIN_WORLD_HEIGHT) {
+            throw new IllegalArgumentException("World is too small: " + worldWidth + "x" + worldHeight);
+        }
+        if(lanes < 1 || maxActiveLanes < 1 || maxActiveLanes > lanes) {
+            throw new IllegalArgumentException("Need 1 to " + lanes + " active lanes, not " + maxActiveLanes);
+        }
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.seed = seed;
+        playerCar = new PlayerCar(new Position(worldWidth/2, worldHeight - Car.CAR_HEIGHT - PLAYER_MARGIN), worldWidth);
+        enemyCarManager = new EnemyCarManager(lanes, maxActiveLanes, playerCar, this, new SplittableRandom(seed));
+        animatedRoad = new AnimatedRoad(lanes, worldWidth, worldHeight);
+        inputPosition = new Position(0, 0);
+    }
+
+    /**
+     * Updates the enemy cars, the player's animation, and the road animation.
+     *
+     * @param deltaTime Time since last update.
+     */
+    public void update(int deltaTime) {
+        if(profiler == null) {
+            enemyCarManager.update(deltaTime);
+            playerCar.update(deltaTime);
+            animatedRoad.update(deltaTime);
+        } else {
+            long time = System.nanoTime();
+            enemyCarManager.update(deltaTime);
+            time = profiler.record(PhaseProfiler.ENEMY_UPDATE, time);
+            playerCar.update(deltaTime);
+            time = profiler.record(PhaseProfiler.PLAYER_UPDATE, time);
+            animatedRoad.update(deltaTime);
+            profiler.record(PhaseProfiler.ROAD_UPDATE, time);
+        }
+        tick++;
+        if(telemetryRecorder != null) {
+            telemetryRecorder.recordTick(this);
+        }
+    }
+
+    /**
+     * If the position is inside the player car this will start the player's
+     * car being tied to the X position of following drags.
+     *
+     * @param x X coordinate that was pressed.
+     * @param y Y coordinate that was pressed.
+     */
+    public void pressAt(int x, int y) {
+        if(inputRecorder != null) {
+            inputRecorder.recordPress(tick, x, y);
+        }
+        inputPosition.setPosition(x, y);
+        if(playerCar.isPositionInside(inputPosition)) {
+            playerCar.setIsMoving(true);
+        }
+    }
+
+    /**
+     * If the player's car is currently considered to be moving, it will
+     * update the player's X position to follow the drag.
+     *
+     * @param x X coordinate dragged to.
+     * @param y Y coordinate dragged to.
+     */
+    public void dragTo(int x, int y) {
+        if(inputRecorder != null) {
+            inputRecorder.recordDrag(tick, x, y);
+        }
+        if(playerCar.isMoving()) {
+            inputPosition.setPosition(x, y);
+            playerCar.updatePosition(inputPosition);
+        }
+    }
+
+    /**
+     * Releases the player car from any movement it may be engaged in.
+     */
+    public void release() {
+        if(inputRecorder != null) {
+            inputRecorder.recordRelease(tick);
+        }
+        playerCar.setIsMoving(false);
+    }
+
+    /**
+     * Increases the score by the specified amount, and notifies the listener.
+     *
+     * @param amount Amount to change the score by.
+     */
+    public void increaseScore(int amount) {
+        score += amount;
+        if(listener != null) {
+            listener.scoreChanged(score);
+        }
+    }
+
+    /**
+     * Increases the number of crashes by 1. Notifies the listener that this has happened.
+     * Then resets the game state back to default to start with 0 score again.
+     */
+    public void increaseCrashCount() {
+        crashCount++;
+        score = 0;
+        if(listener != null) {
+            listener.crashCountChanged(crashCount);
+            listener.scoreChanged(score);
+        }
+        playerCar.reset();
+        enemyCarManager.reset();
+    }
+
+    /**
+     * Starts a new game without counting a crash: the score goes back to 0 and the player
+     * and every car go back to their start. The randomness carries on from where it was,
+     * so the new game is different from the first one.
+     */
+    public void reset() {
+        score = 0;
+        if(listener != null) {
+            listener.scoreChanged(score);
+        }
+        playerCar.reset();
+        enemyCarManager.reset();
+    }
+
+    /**
+     * Sets the listener to notify about score and crash changes.
+     *
+     * @param listener Listener to notify, or null to stop notifications.
+     */
+    public void setListener(SimulationListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the recorder to pass every input to.
+     *
+     * @param inputRecorder Recorder for the input, or null to stop recording.
+     */
+    public void setInputRecorder(InputRecorder inputRecorder) {
+        this.inputRecorder = inputRecorder;
+    }
+
+    /**
+     * Sets the profiler to record how long each part of an update takes.
+     *
+     * @param profiler Profiler to record to, or null to stop profiling.
+     */
+    public void setProfiler(PhaseProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    /**
+     * Sets the recorder to pass the state after every update to.
+     *
+     * @param telemetryRecorder Recorder for the telemetry, or null to stop recording.
+     */
+    public void setTelemetryRecorder(TelemetryRecorder telemetryRecorder) {
+        this.telemetryRecorder = telemetryRecorder;
+    }
+
+    /**
+     * Gets the number of updates since the simulation was created.
+     *
+     * @return The number of updates.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Hashes everything that can change while playing, so two games can be
+     * compared to check they played out the same way.
+     *
+     * @return Hash of the tick, score, crashes, player position, and every enemy car.
+     */
+    public long getStateHash() {
+        long hash = 17;
+        hash = hash * 31 + tick;
+        hash = hash * 31 + score;
+        hash = hash * 31 + crashCount;
+        hash = hash * 31 + playerCar.getPosition().x;
+        for(int lane = 0; lane < enemyCarManager.getLanes(); lane++) {
+            hash = hash * 31 + enemyCarManager.getCarY(lane);
+            hash = hash * 31 + (enemyCarManager.isActive(lane) ? 1 : 0);
+        }
+        return hash;
+    }
+
+    /**
+     * Gets the current score.
+     *
+     * @return The current score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the number of crashes that have occurred.
+     *
+     * @return The current crash count.
+     */
+    public int getCrashCount() {
+        return crashCount;
+    }
+
+    /**
+     * Gets the width of the simulated world.
+     *
+     * @return Width in world units.
+     */
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    /**
+     * Gets the height of the simulated world.
+     *
+     * @return Height in world units.
+     */
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+
+    /**
+     * Gets the left edge of a lane when a width is split evenly between the lanes.
+     * Every lane is width / lanes wide, leaving any remainder past the last lane.
+     * When there are more lanes than units of width, the lanes are instead spread
+     * over the whole width, with some lanes sharing an edge.
+     *
+     * @param width Width split between the lanes.
+     * @param lanes Number of lanes.
+     * @param lane Lane to find the edge of, or the number of lanes for the right edge of the last lane.
+     * @return The x coordinate of the edge.
+     */
+    public static int getLaneEdge(int width, int lanes, int lane) {
+        int laneWidth = width / lanes;
+        if(laneWidth > 0) {
+            return laneWidth * lane;
+        }
+        return (int) ((long) width * lane / lanes);
+    }
+
+    /**
+     * Gets the seed the simulation's randomness was created from.
+     *
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the player car.
+     *
+     * @return Reference to the player car.
+     */
+    public PlayerCar getPlayerCar() {
+        return playerCar;
+    }
+
+    /**
+     * Gets the manager of all enemy cars.
+     *
+     * @return Reference to the enemy car manager.
+     */
+    public EnemyCarManager getEnemyCarManager() {
+        return enemyCarManager;
+    }
+
+    /**
+     * Gets the animated road.
+     *
+     * @return Reference to the animated road.
+     */
+    public AnimatedRoad getAnimatedRoad() {
+        return animatedRoad;
+    }
+}
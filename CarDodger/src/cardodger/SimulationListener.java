@@ -0,0 +1,24 @@
+package cardodger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * SimulationListener interface:
+ * Receives notifications from a Simulation when the score or crash count changes.
+ */
+public interface SimulationListener {
+    /**
+     * Called when the score has changed.
+     *
+     * @param newScore The new score.
+     */
+    void scoreChanged(int newScore);
+
+    /**
+     * Called when the number of crashes has changed.
+     *
+     * @param newCrashes The new number of crashes.
+     */
+    void crashCountChanged(int newCrashes);
+}
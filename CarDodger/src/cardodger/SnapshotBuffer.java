@@ -0,0 +1,97 @@
+package cardodger;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * SnapshotBuffer class:
+ * Lock-free triple buffer for handing GameSnapshots from the simulation thread to the
+ * drawing thread. The writer always owns one snapshot to fill, the reader always owns one
+ * snapshot to draw, and the third is swapped with either side in a single atomic operation.
+ * Neither side ever waits for the other: the writer can publish as often as it likes,
+ * and the reader always gets the most recently published snapshot, skipping any it missed.
+ * Only one thread may write and only one thread may read.
+ */
+public class SnapshotBuffer {
+    /**
+     * Bits of the shared state holding the index of the snapshot between the two sides.
+     */
+    private static final int INDEX_MASK = 3;
+    /**
+     * Bit of the shared state set when the snapshot between the two sides has not been read.
+     */
+    private static final int FRESH = 4;
+
+    /**
+     * The three snapshots being passed around.
+     */
+    private final GameSnapshot[] snapshots;
+    /**
+     * Index of the snapshot between the two sides, and whether it is fresh.
+     */
+    private final AtomicInteger shared;
+    /**
+     * Index of the snapshot owned by the writer. Only used by the writing thread.
+     */
+    private int backIndex;
+    /**
+     * Index of the snapshot owned by the reader. Only used by the reading thread.
+     */
+    private int frontIndex;
+
+    /**
+     * Creates the three snapshots with room for a number of lanes.
+     *
+     * @param lanes The total number of lanes.
+     */
+    public SnapshotBuffer(int lanes) {
+        snapshots = new GameSnapshot[3];
+        for(int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = new GameSnapshot(lanes);
+        }
+        frontIndex = 0;
+        shared = new AtomicInteger(1);
+        backIndex = 2;
+    }
+
+    /**
+     * Gets the snapshot the writer should fill before publishing. Only called by the writer.
+     *
+     * @return The writer's snapshot.
+     */
+    public GameSnapshot getBack() {
+        return snapshots[backIndex];
+    }
+
+    /**
+     * Makes the filled back snapshot the latest one, and takes back whichever snapshot the
+     * reader is not using to fill next. Only called by the writer.
+     */
+    public void publish() {
+        backIndex = shared.getAndSet(backIndex | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Gets the most recently published snapshot. The reader can use it until the next call,
+     * and it will not be changed by the writer until then. Only called by the reader.
+     *
+     * @return The latest snapshot, or the same one as last time if nothing new was published.
+     */
+    public GameSnapshot acquire() {
+        if((shared.get() & FRESH) != 0) {
+            frontIndex = shared.getAndSet(frontIndex) & INDEX_MASK;
+        }
+        return snapshots[frontIndex];
+    }
+
+    /**
+     * Checks if a snapshot has been published that the reader has not acquired yet.
+     *
+     * @return True if acquire() would return a new snapshot.
+     */
+    public boolean hasNewSnapshot() {
+        return (shared.get() & FRESH) != 0;
+    }
+}
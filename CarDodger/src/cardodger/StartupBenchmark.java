@@ -0,0 +1,161 @@
+package cardodger;
+
+import java.awt.*;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * StartupBenchmark class:
+ * Measures how long the game takes to start, from launching a new JVM to the first frame
+ * being drawn, by running the game several times with --exit-after-first-frame and timing
+ * each run from before the process is started. The game prints how long after main() it
+ * drew its first frame and was ready, which gives the time spent starting the JVM itself.
+ * The normal start and the fast start are measured, and when given a folder made by
+ * FastStartImage, also its runtime on its own and the launcher's runtime, AppCDS archive,
+ * and fast start together. The first run of each is reported as the cold start and the
+ * median of the rest as the warm start; the operating system's file cache is not cleared,
+ * so the cold start only includes what the first run in a JVM's life pays for.
+ * Runs offscreen when there is no display, which leaves out creating the window.
+ *
+ * Arguments (all optional): number of runs of each (default 6), then the FastStartImage folder.
+ */
+public class StartupBenchmark {
+    /**
+     * Number of runs of each way of starting if none is given.
+     */
+    private static final int DEFAULT_RUNS = 6;
+
+    /**
+     * Entry point to run the benchmark.
+     *
+     * @param args See the class description.
+     * @throws IOException If a run could not be started.
+     * @throws InterruptedException If interrupted while waiting for a run.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        Path image = args.length > 1 ? Path.of(args[1]) : null;
+
+        // Keep scores in a journal of its own, created before the first run so every run opens the same one
+        Path journal = Files.createTempFile("cardodger-startup", ".journal");
+        Files.delete(journal);
+        ScoreJournal.open(journal, 0).close();
+        List<String> gameArgs = new ArrayList<>(List.of("--exit-after-first-frame", "--journal", journal.toString()));
+        boolean headless = GraphicsEnvironment.isHeadless();
+        if(headless) {
+            gameArgs.add("--offscreen");
+        }
+        List<String> fastArgs = new ArrayList<>(gameArgs);
+        fastArgs.add("--fast-start");
+
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classPath = System.getProperty("java.class.path");
+        System.out.printf("%d runs of each%s%n", runs, headless ? ", offscreen as there is no display" : "");
+        System.out.printf("%-34s %12s %12s %14s%n", "", "cold (ms)", "warm (ms)", "JVM start (ms)");
+        boolean failed = false;
+        try {
+            failed |= !measure("Normal start", runs, List.of(java, "-cp", classPath), gameArgs);
+            failed |= !measure("Fast start", runs, List.of(java, "-cp", classPath), fastArgs);
+            if(image != null) {
+                String imageJava = image.resolve(FastStartImage.RUNTIME).resolve("bin").resolve("java").toString();
+                String imageJar = image.resolve(FastStartImage.JAR).toString();
+                failed |= !measure("jlink runtime, normal start", runs, List.of(imageJava, "-cp", imageJar), gameArgs);
+                failed |= !measure("jlink runtime, AppCDS, fast start", runs, List.of(imageJava,
+                        "-XX:SharedArchiveFile=" + image.resolve(FastStartImage.ARCHIVE), "-cp", imageJar), fastArgs);
+            }
+        } finally {
+            Files.deleteIfExists(journal);
+            Files.deleteIfExists(Path.of(journal + ".idx"));
+        }
+        if(failed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Starts the game several times one way and prints the time to its first frame.
+     *
+     * @param name Name of the way of starting.
+     * @param runs Number of times to start the game.
+     * @param java The java command and its options.
+     * @param gameArgs The game's options.
+     * @return True if every run reported its startup.
+     * @throws IOException If a run could not be started.
+     * @throws InterruptedException If interrupted while waiting for a run.
+     */
+    private static boolean measure(String name, int runs, List<String> java, List<String> gameArgs)
+            throws IOException, InterruptedException {
+        List<String> fullCommand = new ArrayList<>(java);
+        fullCommand.add(Game.class.getName());
+        fullCommand.addAll(gameArgs);
+
+        double[] firstFrameTimes = new double[runs];
+        double[] jvmStartTimes = new double[runs];
+        for(int run = 0; run < runs; run++) {
+            double[] times = startOnce(fullCommand);
+            if(times == null) {
+                System.out.printf("%-34s did not report its startup%n", name);
+                return false;
+            }
+            firstFrameTimes[run] = times[0];
+            jvmStartTimes[run] = times[1];
+        }
+        System.out.printf("%-34s %12.1f %12.1f %14.1f%n", name, firstFrameTimes[0],
+                getWarmMedian(firstFrameTimes), getWarmMedian(jvmStartTimes));
+        return true;
+    }
+
+    /**
+     * Starts the game once and waits for it to exit.
+     *
+     * @param command The full command to start the game.
+     * @return The ms from launching to the first frame and from launching to main(),
+     *         or null if the game did not report its startup.
+     * @throws IOException If the game could not be started.
+     * @throws InterruptedException If interrupted while waiting for the game.
+     */
+    private static double[] startOnce(List<String> command) throws IOException, InterruptedException {
+        long launchTime = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        double[] times = null;
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                if(times == null && line.startsWith("Startup: ")) {
+                    double readyTime = (System.nanoTime() - launchTime) / 1e6;
+                    // "Startup: first frame F ms, ready R ms after main() started"
+                    String[] words = line.split(" ");
+                    double firstFrameAfterMain = Double.parseDouble(words[3]);
+                    double readyAfterMain = Double.parseDouble(words[6]);
+                    double jvmStart = readyTime - readyAfterMain;
+                    times = new double[] {jvmStart + firstFrameAfterMain, jvmStart};
+                }
+            }
+        }
+        process.waitFor();
+        return times;
+    }
+
+    /**
+     * Finds the median of every run except the first.
+     *
+     * @param times The time of each run.
+     * @return The median warm time, or the first time if there was only one run.
+     */
+    private static double getWarmMedian(double[] times) {
+        if(times.length == 1) return times[0];
+        double[] warm = Arrays.copyOfRange(times, 1, times.length);
+        Arrays.sort(warm);
+        int middle = warm.length / 2;
+        return warm.length % 2 == 1 ? warm[middle] : (warm[middle - 1] + warm[middle]) / 2;
+    }
+}
@@ -1,3 +1,5 @@
+package cardodger;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
@@ -10,29 +12,28 @@ import java.awt.event.ActionListener;
  * StatusPanel class:
  * Shows the current status of the game for current score,
  * best score, and number of crashes. Also provides
- *  a quit button to exit the game.
+ *  a quit button to exit the game. The numbers are NumberLabels updated
+ * together at most once per frame, so a change in score never lays out the panel.
+ * Every label and the button share the one GameFonts.STATUS font.
  */
 public class StatusPanel extends JPanel implements ActionListener {
+    /**
+     * Width of the panel and everything on it.
+     */
+    public static final int PANEL_WIDTH = 260;
+
     /**
      * Label showing the current score number.
      */
-    private JLabel scoreLabel;
+    private NumberLabel scoreLabel;
     /**
      * Label showing the max score during the session.
      */
-    private JLabel maxScoreLabel;
+    private NumberLabel maxScoreLabel;
     /**
      * Label showing the number of crashes that occurred.
      */
-    private JLabel crashesLabel;
-    /**
-     * Best score used for comparison when the crashes changes.
-     */
-    private int bestScore;
-    /**
-     * Current score used for comparison when the crashes changes.
-     */
-    private int currentScore;
+    private NumberLabel crashesLabel;
     /**
      * Reference to the quit button for exiting.
      */
@@ -40,20 +41,21 @@ public class StatusPanel extends JPanel implements ActionListener {
 
     /**
      * Configures the panel to display score, best score, crashes, and the quit button.
+     *
+     * @param height Height of the panel, matching the game beside it.
      */
-    public StatusPanel() {
-        setPreferredSize(new Dimension(260, GamePanel.PANEL_HEIGHT));
-        bestScore = 0;
+    public StatusPanel(int height) {
+        setPreferredSize(new Dimension(PANEL_WIDTH, height));
 
         JLabel scoreDescriptionLabel = createLabel("SCORE");
-        scoreLabel = createLabel("0");
+        scoreLabel = createNumberLabel();
         JLabel maxScoreDescriptionLabel = createLabel("BEST SCORE");
-        maxScoreLabel = createLabel("0");
+        maxScoreLabel = createNumberLabel();
         JLabel crashesDescriptionLabel = createLabel("CRASHES");
-        crashesLabel = createLabel("0");
+        crashesLabel = createNumberLabel();
         quitButton = new JButton("Quit");
         quitButton.addActionListener(this);
-        quitButton.setFont(new Font("Arial", Font.BOLD, 40));
+        quitButton.setFont(GameFonts.STATUS);
 
         setLayout(new GridBagLayout());
         JPanel centredPanel = new JPanel(new GridLayout(7,1));
@@ -70,27 +72,17 @@ public class StatusPanel extends JPanel implements ActionListener {
     }
 
     /**
-     * Updates the score label to display the new score.
+     * Updates the numbers shown. Only the numbers that changed are repainted.
+     * Safe to call from any thread.
      *
-     * @param newScore The new score to display.
+     * @param score The current score to display.
+     * @param bestScore The best score during the session to display.
+     * @param crashes Number of crashes to display.
      */
-    public void setScore(int newScore) {
-        currentScore = newScore;
-        scoreLabel.setText(String.valueOf(currentScore));
-    }
-
-    /**
-     * Updates the best score if the current score is better.
-     * Then updates the crashes label.
-     *
-     * @param newCrashes Number of crashes to display.
-     */
-    public void setCrashes(int newCrashes) {
-        if(currentScore > bestScore) {
-            bestScore = currentScore;
-            maxScoreLabel.setText(String.valueOf(bestScore));
-        }
-        crashesLabel.setText(String.valueOf(newCrashes));
+    public void showStatus(int score, int bestScore, int crashes) {
+        scoreLabel.setValue(score);
+        maxScoreLabel.setValue(bestScore);
+        crashesLabel.setValue(crashes);
     }
 
     /**
@@ -101,12 +93,21 @@ public class StatusPanel extends JPanel implements ActionListener {
      */
     private JLabel createLabel(String message) {
         JLabel label = new JLabel(message);
-        label.setFont(new Font("Arial", Font.BOLD, 40));
-        label.setPreferredSize(new Dimension(260,50));
+        label.setFont(GameFonts.STATUS);
+        label.setPreferredSize(new Dimension(PANEL_WIDTH,50));
         label.setHorizontalAlignment(JLabel.CENTER);
         return label;
     }
 
+    /**
+     * Factory method to create NumberLabels matching the JLabels.
+     *
+     * @return Reference to the newly created NumberLabel showing 0.
+     */
+    private NumberLabel createNumberLabel() {
+        return new NumberLabel(GameFonts.STATUS, PANEL_WIDTH, 50);
+    }
+
     /**
      * Called when the quit button is pressed to exit the game.
      *
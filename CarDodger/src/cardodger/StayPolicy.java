@@ -0,0 +1,19 @@
+package cardodger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * StayPolicy class:
+ * A policy that never moves the player car. Gives a baseline for how often
+ * the cars alone cause crashes.
+ */
+public class StayPolicy extends PlayerPolicy {
+    /**
+     * Does nothing.
+     *
+     * @param simulation Not used.
+     */
+    @Override
+    public void act(Simulation simulation) {}
+}
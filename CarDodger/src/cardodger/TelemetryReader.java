@@ -0,0 +1,435 @@
+package cardodger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * TelemetryReader class:
+ * Reads the updates written by a TelemetryRecorder one at a time. The file is memory mapped
+ * and each block is checked and decompressed into a reused buffer when the previous one
+ * runs out, so reading does not create any objects per update. A block that is cut short
+ * or fails its checksum ends the telemetry, as happens when the game did not exit cleanly.
+ * See TelemetryRecorder for the file format.
+ *
+ * Run with the telemetry file as the argument to print a summary of it.
+ */
+public class TelemetryReader {
+    /**
+     * Length of the file header in bytes.
+     */
+    private static final int HEADER_SIZE = 24;
+    /**
+     * Length of a block header in bytes.
+     */
+    private static final int BLOCK_HEADER_SIZE = 24;
+
+    /**
+     * The whole file, positioned at the next block.
+     */
+    private final ByteBuffer file;
+    /**
+     * Number of lanes in the recorded simulation.
+     */
+    private final int lanes;
+    /**
+     * Width of the recorded simulation's world.
+     */
+    private final int worldWidth;
+    /**
+     * Height of the recorded simulation's world.
+     */
+    private final int worldHeight;
+    /**
+     * Reused to decompress each block.
+     */
+    private final Inflater inflater;
+    /**
+     * Reused to check each block.
+     */
+    private final CRC32C checksum;
+    /**
+     * Reused to hold each compressed block.
+     */
+    private byte[] compressed;
+    /**
+     * The decompressed records of the current block, positioned at the next record.
+     */
+    private ByteBuffer block;
+    /**
+     * Number of complete blocks read.
+     */
+    private long blockCount;
+    /**
+     * Number of updates the recorder dropped, in the blocks read so far.
+     */
+    private long droppedCount;
+    /**
+     * Total length of the blocks read after compressing, including their headers.
+     */
+    private long compressedBytes;
+    /**
+     * Total length of the blocks read before compressing.
+     */
+    private long uncompressedBytes;
+    /**
+     * True if reading stopped at a block that was cut short or failed its checksum.
+     */
+    private boolean torn;
+    /**
+     * Tick of the current update.
+     */
+    private long tick;
+    /**
+     * TelemetryRecorder.SCORED and CRASHED flags of the current update.
+     */
+    private int events;
+    /**
+     * Score after the current update.
+     */
+    private int score;
+    /**
+     * Crash count after the current update.
+     */
+    private int crashCount;
+    /**
+     * Player's x coordinate after the current update.
+     */
+    private int playerX;
+    /**
+     * Number of moving cars after the current update.
+     */
+    private int carCount;
+    /**
+     * Lane, y coordinate, type, and speed of each moving car after the current update.
+     */
+    private final int[] cars;
+
+    /**
+     * Memory maps a telemetry file and reads its header.
+     *
+     * @param file The telemetry file to open.
+     * @return The reader, positioned before the first update.
+     * @throws IOException If the file could not be read or is not telemetry.
+     */
+    public static TelemetryReader open(Path file) throws IOException {
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new TelemetryReader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads the header of telemetry.
+     *
+     * @param file The whole telemetry file.
+     * @throws IOException If the buffer is not telemetry.
+     */
+    public TelemetryReader(ByteBuffer file) throws IOException {
+        if(file.remaining() < HEADER_SIZE || file.getInt() != TelemetryRecorder.MAGIC) {
+            throw new IOException("Not a telemetry file");
+        }
+        int version = file.getInt();
+        if(version != TelemetryRecorder.VERSION) {
+            throw new IOException("Unsupported telemetry version " + version);
+        }
+        lanes = file.getInt();
+        worldWidth = file.getInt();
+        worldHeight = file.getInt();
+        file.getInt();
+        if(lanes < 1) {
+            throw new IOException("Telemetry has " + lanes + " lanes");
+        }
+        this.file = file;
+        inflater = new Inflater();
+        checksum = new CRC32C();
+        compressed = new byte[0];
+        block = ByteBuffer.allocate(0);
+        cars = new int[lanes * TelemetryRecorder.CAR_INTS];
+    }
+
+    /**
+     * Moves to the next recorded update.
+     *
+     * @return True if there was another update, or false at the end of the telemetry.
+     * @throws IOException If a block decompressed to something that is not records.
+     */
+    public boolean next() throws IOException {
+        while(!block.hasRemaining()) {
+            if(!readBlock()) return false;
+        }
+        tick = block.getLong();
+        events = block.getInt();
+        score = block.getInt();
+        crashCount = block.getInt();
+        playerX = block.getInt();
+        carCount = block.getInt();
+        if(carCount < 0 || carCount > lanes) {
+            throw new IOException("Telemetry update has " + carCount + " cars");
+        }
+        for(int i = 0; i < carCount * TelemetryRecorder.CAR_INTS; i++) {
+            cars[i] = block.getInt();
+        }
+        return true;
+    }
+
+    /**
+     * Gets the tick of the current update.
+     *
+     * @return The simulation's tick after the update.
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets what happened in the current update.
+     *
+     * @return TelemetryRecorder.SCORED and CRASHED flags.
+     */
+    public int getEvents() {
+        return events;
+    }
+
+    /**
+     * Gets the score after the current update.
+     *
+     * @return The score.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Gets the crash count after the current update.
+     *
+     * @return The crash count.
+     */
+    public int getCrashCount() {
+        return crashCount;
+    }
+
+    /**
+     * Gets the player's x coordinate after the current update.
+     *
+     * @return The player's x coordinate.
+     */
+    public int getPlayerX() {
+        return playerX;
+    }
+
+    /**
+     * Gets the number of moving cars after the current update.
+     *
+     * @return The number of cars, from 0 up to the number of lanes.
+     */
+    public int getCarCount() {
+        return carCount;
+    }
+
+    /**
+     * Gets the lane of a moving car.
+     *
+     * @param car Index of the car, less than getCarCount().
+     * @return The car's lane.
+     */
+    public int getCarLane(int car) {
+        return cars[car * TelemetryRecorder.CAR_INTS];
+    }
+
+    /**
+     * Gets the y coordinate of a moving car.
+     *
+     * @param car Index of the car, less than getCarCount().
+     * @return The car's y coordinate.
+     */
+    public int getCarY(int car) {
+        return cars[car * TelemetryRecorder.CAR_INTS + 1];
+    }
+
+    /**
+     * Gets the type of a moving car.
+     *
+     * @param car Index of the car, less than getCarCount().
+     * @return The car's type.
+     */
+    public int getCarType(int car) {
+        return cars[car * TelemetryRecorder.CAR_INTS + 2];
+    }
+
+    /**
+     * Gets the speed of a moving car.
+     *
+     * @param car Index of the car, less than getCarCount().
+     * @return The car's speed.
+     */
+    public int getCarSpeed(int car) {
+        return cars[car * TelemetryRecorder.CAR_INTS + 3];
+    }
+
+    /**
+     * Gets the number of lanes in the recorded simulation.
+     *
+     * @return The number of lanes.
+     */
+    public int getLanes() {
+        return lanes;
+    }
+
+    /**
+     * Gets the width of the recorded simulation's world.
+     *
+     * @return The world width.
+     */
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    /**
+     * Gets the height of the recorded simulation's world.
+     *
+     * @return The world height.
+     */
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+
+    /**
+     * Gets the number of updates the recorder dropped, in the blocks read so far.
+     *
+     * @return The number of dropped updates.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Gets the number of complete blocks read so far.
+     *
+     * @return The number of blocks.
+     */
+    public long getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Checks if reading stopped at a block that was cut short or failed its checksum.
+     *
+     * @return True if the end of the telemetry was torn.
+     */
+    public boolean isTorn() {
+        return torn;
+    }
+
+    /**
+     * Gets how many times smaller the blocks read so far were made by compressing.
+     *
+     * @return The length before compressing divided by the length after, or 0 if nothing was read.
+     */
+    public double getCompressionRatio() {
+        return compressedBytes == 0 ? 0 : uncompressedBytes / (double) compressedBytes;
+    }
+
+    /**
+     * Checks and decompresses the next block.
+     *
+     * @return True if a block was read, or false at the end of the telemetry.
+     * @throws IOException If the block decompressed to something other than its stated length.
+     */
+    private boolean readBlock() throws IOException {
+        if(torn || file.remaining() < BLOCK_HEADER_SIZE) {
+            torn |= file.hasRemaining();
+            return false;
+        }
+        int start = file.position();
+        int magic = file.getInt();
+        int records = file.getInt();
+        int dropped = file.getInt();
+        int length = file.getInt();
+        int compressedLength = file.getInt();
+        int expectedChecksum = file.getInt();
+        if(magic != TelemetryRecorder.BLOCK_MAGIC || records < 0 || dropped < 0 || length < 0
+                || compressedLength < 0 || compressedLength > file.remaining()) {
+            file.position(start);
+            torn = true;
+            return false;
+        }
+        if(compressed.length < compressedLength) {
+            compressed = new byte[compressedLength];
+        }
+        file.get(compressed, 0, compressedLength);
+        checksum.reset();
+        checksum.update(compressed, 0, compressedLength);
+        if((int) checksum.getValue() != expectedChecksum) {
+            file.position(start);
+            torn = true;
+            return false;
+        }
+        if(block.capacity() < length) {
+            block = ByteBuffer.allocate(length);
+        }
+        block.clear();
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            int inflated = inflater.inflate(block.array(), 0, length);
+            if(inflated != length || !inflater.finished()) {
+                throw new IOException("Telemetry block decompressed to the wrong length");
+            }
+        } catch(DataFormatException e) {
+            throw new IOException("Telemetry block could not be decompressed", e);
+        }
+        block.limit(length);
+        blockCount++;
+        droppedCount += dropped;
+        compressedBytes += BLOCK_HEADER_SIZE + compressedLength;
+        uncompressedBytes += length;
+        return true;
+    }
+
+    /**
+     * Prints a summary of a telemetry file.
+     *
+     * @param args The telemetry file.
+     * @throws IOException If the file could not be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if(args.length != 1) {
+            System.out.println("Usage: TelemetryReader FILE");
+            return;
+        }
+        TelemetryReader reader = open(Path.of(args[0]));
+        long updates = 0;
+        long firstTick = -1;
+        long lastTick = -1;
+        long crashes = 0;
+        long cars = 0;
+        int bestScore = 0;
+        while(reader.next()) {
+            if(firstTick < 0) {
+                firstTick = reader.getTick();
+            }
+            lastTick = reader.getTick();
+            updates++;
+            cars += reader.getCarCount();
+            bestScore = Math.max(bestScore, reader.getScore());
+            if((reader.getEvents() & TelemetryRecorder.CRASHED) != 0) {
+                crashes++;
+            }
+        }
+        System.out.printf("%d lanes in a %dx%d world%n", reader.getLanes(), reader.getWorldWidth(), reader.getWorldHeight());
+        System.out.printf("%d updates from tick %d to %d, %d dropped, in %d blocks compressed %.1fx%s%n",
+                updates, firstTick, lastTick, reader.getDroppedCount(), reader.getBlockCount(),
+                reader.getCompressionRatio(), reader.isTorn() ? ", torn at the end" : "");
+        System.out.printf("%d crashes, best score %d, %.2f moving cars per update%n",
+                crashes, bestScore, updates == 0 ? 0 : cars / (double) updates);
+    }
+}
@@ -0,0 +1,414 @@
+package cardodger;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * TelemetryRecorder class:
+ * Records the state of a Simulation after every update so a long session can be studied
+ * offline with a TelemetryReader: every moving car's lane, position, type, and speed, the
+ * player's position, and the score and crash count. Each update is written as a record of
+ * ints into a fixed size lock-free ring, which a background thread drains into blocks that
+ * are compressed and written to a file. Recording never waits and never allocates: if the
+ * ring does not have room for a whole record, the update is dropped and counted instead, so
+ * a slow disk can never slow the game down. Only one thread may record updates.
+ *
+ * File format:
+ *   magic "CDTM", version, number of lanes, world width, world height, and ring capacity
+ *   in ints, all as 4 byte ints.
+ *   Then blocks, each with a header of magic "CDTB", number of records, number of updates
+ *   dropped since the previous block, length before compressing, length after compressing,
+ *   and the CRC32C of the compressed bytes, all as 4 byte ints, followed by the compressed bytes.
+ *   Compressed with Deflate, each block holds whole records of big-endian ints:
+ *   tick as 8 bytes, events, score, crash count, player x, number of moving cars, then for
+ *   each moving car its lane, y coordinate, type, and speed.
+ * Each block is written within a second of its first record, so a crash loses at most
+ * about a second of telemetry, and a torn block at the end of a file is ignored by the reader.
+ */
+public class TelemetryRecorder implements AutoCloseable {
+    /**
+     * First bytes of every telemetry file.
+     */
+    public static final int MAGIC = 0x4344544D;
+    /**
+     * First bytes of every block.
+     */
+    public static final int BLOCK_MAGIC = 0x43445442;
+    /**
+     * Version of the file format.
+     */
+    public static final int VERSION = 1;
+    /**
+     * Event flag for the score going up in the update.
+     */
+    public static final int SCORED = 1;
+    /**
+     * Event flag for the player crashing in the update.
+     */
+    public static final int CRASHED = 2;
+    /**
+     * Number of ints in a record before its cars, including the record length kept in the ring.
+     */
+    public static final int HEADER_INTS = 8;
+    /**
+     * Number of ints for each moving car in a record.
+     */
+    public static final int CAR_INTS = 4;
+    /**
+     * Default capacity of the ring in ints, enough for about 3 seconds of a 1000 lane game.
+     */
+    public static final int DEFAULT_RING_CAPACITY = 1 << 20;
+    /**
+     * Length of a block before compressing, unless a single record is longer.
+     */
+    private static final int BLOCK_BYTES = 1 << 16;
+    /**
+     * Time the writer thread waits when there is nothing to write, in ns.
+     */
+    private static final long WRITER_PARK_NANOS = 10_000_000L;
+    /**
+     * Longest time a record waits in a block before the block is written, in ns.
+     */
+    private static final long BLOCK_INTERVAL_NANOS = 1_000_000_000L;
+
+    /**
+     * Records waiting for the writer thread, as ints in a ring.
+     */
+    private final int[] ring;
+    /**
+     * Mask to turn a sequence number into an index in the ring.
+     */
+    private final int mask;
+    /**
+     * Sequence number of the next int to write. Only changed by the writer thread.
+     */
+    private final AtomicLong head;
+    /**
+     * Sequence number of the next int to record. Only changed by the recording thread.
+     */
+    private final AtomicLong tail;
+    /**
+     * Number of updates dropped because the ring was full. Only changed by the recording thread.
+     */
+    private volatile long droppedCount;
+    /**
+     * Number of updates recorded into the ring.
+     */
+    private long recordedCount;
+    /**
+     * Reused to list the lanes with moving cars.
+     */
+    private final int[] activeLanes;
+    /**
+     * Score after the previous recorded update, to find when the score goes up.
+     */
+    private int lastScore;
+    /**
+     * Crash count after the previous recorded update, to find crashes.
+     */
+    private int lastCrashCount;
+    /**
+     * Where the blocks are written.
+     */
+    private final DataOutputStream out;
+    /**
+     * Records being gathered for the next block, before compressing.
+     */
+    private final ByteBuffer block;
+    /**
+     * Number of records in the block being gathered.
+     */
+    private int blockRecords;
+    /**
+     * System.nanoTime() when the first record was added to the block being gathered.
+     */
+    private long blockStartTime;
+    /**
+     * Number of dropped updates already noted in a written block.
+     */
+    private long writtenDroppedCount;
+    /**
+     * Reused to compress each block.
+     */
+    private final Deflater deflater;
+    /**
+     * Reused to hold each compressed block.
+     */
+    private byte[] compressed;
+    /**
+     * Reused to compute the checksum of each compressed block.
+     */
+    private final CRC32C checksum;
+    /**
+     * Number of blocks written.
+     */
+    private long blockCount;
+    /**
+     * Total length of the blocks before compressing.
+     */
+    private long uncompressedBytes;
+    /**
+     * Total length of the blocks after compressing, including their headers.
+     */
+    private long compressedBytes;
+    /**
+     * Thread writing recorded updates to the file.
+     */
+    private final Thread writerThread;
+    /**
+     * False once the recorder is closing.
+     */
+    private volatile boolean running;
+
+    /**
+     * Creates a file and starts a thread to write a simulation's telemetry to it. The recorder
+     * must then be given to the simulation with Simulation.setTelemetryRecorder().
+     *
+     * @param file File to create or replace.
+     * @param simulation The simulation to record.
+     * @param ringCapacity Number of ints the ring can hold, rounded up to a power of two.
+     * @throws IOException If the file could not be created.
+     */
+    public TelemetryRecorder(Path file, Simulation simulation, int ringCapacity) throws IOException {
+        int lanes = simulation.getEnemyCarManager().getLanes();
+        int size = Integer.highestOneBit(Math.max(1, ringCapacity - 1)) << 1;
+        int maxRecordInts = HEADER_INTS + lanes * CAR_INTS;
+        if(size < maxRecordInts) {
+            throw new IllegalArgumentException("Ring of " + size + " ints cannot hold a record of " + maxRecordInts);
+        }
+        ring = new int[size];
+        mask = size - 1;
+        head = new AtomicLong();
+        tail = new AtomicLong();
+        activeLanes = new int[lanes];
+        lastScore = simulation.getScore();
+        lastCrashCount = simulation.getCrashCount();
+
+        block = ByteBuffer.allocate(Math.max(BLOCK_BYTES, maxRecordInts * 4));
+        deflater = new Deflater(Deflater.BEST_SPEED);
+        compressed = new byte[block.capacity()];
+        checksum = new CRC32C();
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(lanes);
+        out.writeInt(simulation.getWorldWidth());
+        out.writeInt(simulation.getWorldHeight());
+        out.writeInt(size);
+        out.flush();
+
+        running = true;
+        writerThread = new Thread(this::runWriter, "Telemetry");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Adds the state of a simulation after an update to the ring, or drops and counts it
+     * if the ring does not have room. Only called by the recording thread.
+     *
+     * @param simulation The simulation that has just been updated.
+     * @return True if the update was recorded, or false if it was dropped.
+     */
+    public boolean recordTick(Simulation simulation) {
+        EnemyCarManager manager = simulation.getEnemyCarManager();
+        int carCount = manager.getActiveLanes(activeLanes);
+        int length = HEADER_INTS + carCount * CAR_INTS;
+        int score = simulation.getScore();
+        int crashCount = simulation.getCrashCount();
+        int events = (crashCount != lastCrashCount ? CRASHED : 0) | (score > lastScore ? SCORED : 0);
+        lastScore = score;
+        lastCrashCount = crashCount;
+
+        long sequence = tail.get();
+        if(sequence + length - head.get() > ring.length) {
+            droppedCount++;
+            return false;
+        }
+        long tick = simulation.getTick();
+        long next = sequence;
+        ring[(int) next++ & mask] = length;
+        ring[(int) next++ & mask] = (int) (tick >>> 32);
+        ring[(int) next++ & mask] = (int) tick;
+        ring[(int) next++ & mask] = events;
+        ring[(int) next++ & mask] = score;
+        ring[(int) next++ & mask] = crashCount;
+        ring[(int) next++ & mask] = simulation.getPlayerCar().getPosition().x;
+        ring[(int) next++ & mask] = carCount;
+        for(int i = 0; i < carCount; i++) {
+            int lane = activeLanes[i];
+            ring[(int) next++ & mask] = lane;
+            ring[(int) next++ & mask] = manager.getCarY(lane);
+            ring[(int) next++ & mask] = manager.getCarType(lane);
+            ring[(int) next++ & mask] = manager.getCarSpeed(lane);
+        }
+        // Ordered write so the record is visible before the writer can see the new tail
+        tail.lazySet(next);
+        recordedCount++;
+        return true;
+    }
+
+    /**
+     * Gets the number of updates dropped because the ring was full.
+     *
+     * @return The number of dropped updates.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Gets the number of updates recorded into the ring. Only accurate when called by the recording thread.
+     *
+     * @return The number of recorded updates.
+     */
+    public long getRecordedCount() {
+        return recordedCount;
+    }
+
+    /**
+     * Gets a summary of how much was recorded, dropped, and written.
+     * Only accurate once the recorder is closed.
+     *
+     * @return One line describing the telemetry.
+     */
+    public String getReport() {
+        return String.format("Telemetry: %d updates recorded, %d dropped, %d blocks, %d KB compressed to %d KB (%.1fx)",
+                recordedCount, droppedCount, blockCount, uncompressedBytes / 1024, compressedBytes / 1024,
+                compressedBytes == 0 ? 0 : uncompressedBytes / (double) compressedBytes);
+    }
+
+    /**
+     * Writes every recorded update and closes the file. Must not be called while updates are being recorded.
+     */
+    @Override
+    public void close() {
+        if(!running) return;
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        deflater.end();
+        try {
+            out.close();
+        } catch(IOException e) {
+            System.err.println("Unable to finish telemetry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Moves records from the ring into blocks until the recorder closes, writing each block
+     * when it is full or has waited BLOCK_INTERVAL_NANOS.
+     */
+    private void runWriter() {
+        try {
+            while(true) {
+                boolean closing = !running;
+                boolean drained = drainRing();
+                if(blockRecords > 0 && (closing || System.nanoTime() - blockStartTime >= BLOCK_INTERVAL_NANOS)) {
+                    writeBlock();
+                }
+                if(closing) {
+                    if(droppedCount != writtenDroppedCount) {
+                        // Note drops after the last record in an empty block
+                        writeBlock();
+                    }
+                    break;
+                }
+                if(!drained) {
+                    LockSupport.parkNanos(WRITER_PARK_NANOS);
+                }
+            }
+        } catch(IOException e) {
+            System.err.println("Telemetry stopped, unable to write: " + e.getMessage());
+            // Keep emptying the ring so recording carries on dropping rather than blocking
+            while(running) {
+                head.lazySet(tail.get());
+                LockSupport.parkNanos(WRITER_PARK_NANOS);
+            }
+        }
+    }
+
+    /**
+     * Moves every waiting record from the ring into blocks, writing blocks as they fill up.
+     *
+     * @return True if any records were moved.
+     * @throws IOException If a block could not be written.
+     */
+    private boolean drainRing() throws IOException {
+        long sequence = head.get();
+        long end = tail.get();
+        if(sequence == end) return false;
+        while(sequence < end) {
+            int length = ring[(int) sequence & mask];
+            int recordBytes = (length - 1) * 4;
+            if(block.remaining() < recordBytes) {
+                writeBlock();
+            }
+            if(blockRecords == 0) {
+                blockStartTime = System.nanoTime();
+            }
+            for(long next = sequence + 1; next < sequence + length; next++) {
+                block.putInt(ring[(int) next & mask]);
+            }
+            blockRecords++;
+            sequence += length;
+            // Ordered write so the ints are only reused after they have been read
+            head.lazySet(sequence);
+        }
+        return true;
+    }
+
+    /**
+     * Compresses the block being gathered and writes it with its header, then starts a new block.
+     *
+     * @throws IOException If the block could not be written.
+     */
+    private void writeBlock() throws IOException {
+        int length = block.position();
+        deflater.reset();
+        deflater.setInput(block.array(), 0, length);
+        deflater.finish();
+        int compressedLength = 0;
+        while(!deflater.finished()) {
+            if(compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+        checksum.reset();
+        checksum.update(compressed, 0, compressedLength);
+        long dropped = droppedCount;
+
+        out.writeInt(BLOCK_MAGIC);
+        out.writeInt(blockRecords);
+        out.writeInt((int) (dropped - writtenDroppedCount));
+        out.writeInt(length);
+        out.writeInt(compressedLength);
+        out.writeInt((int) checksum.getValue());
+        out.write(compressed, 0, compressedLength);
+        out.flush();
+
+        writtenDroppedCount = dropped;
+        blockCount++;
+        uncompressedBytes += length;
+        compressedBytes += compressedLength + 24;
+        blockRecords = 0;
+        block.clear();
+    }
+}
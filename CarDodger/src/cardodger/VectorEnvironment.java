@@ -0,0 +1,353 @@
+package cardodger;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * VectorEnvironment class:
+ * A batch of independent headless games with a reset/step/observe interface for training
+ * agents. Each game is a Simulation, so the cars and the player follow exactly the same
+ * rules as the game in a window, and the player is moved through the same press and drag
+ * input as a PlayerPolicy. All the games are stepped together by one call, and their
+ * observations, rewards, and done flags are written into flat arrays that are created
+ * once, so stepping does not allocate and the observations can be handed to a learner
+ * as a single float[] or FloatBuffer.
+ *
+ * Observation layout for game i, starting at i * getObservationSize():
+ *   lanes floats    1 if the lane has a car moving in it, otherwise 0.
+ *   lanes floats    Gap from the bottom of the car in the lane to the top of the player,
+ *                   as a fraction of the world height. 1 if the lane is empty or its car
+ *                   has passed the player.
+ *   1 float         Player x as a fraction of how far it can move, from 0 (left) to 1 (right).
+ *
+ * A game is done when the player crashes, or when it reaches the episode length limit.
+ * Games that are done start again straight away, so the next step plays a new episode
+ * and its observation is already from the new episode.
+ */
+public class VectorEnvironment {
+    /**
+     * Action to leave the player where it is.
+     */
+    public static final int STAY = 0;
+    /**
+     * Action to move the player left by PlayerPolicy.MAX_DRAG_PER_UPDATE.
+     */
+    public static final int LEFT = 1;
+    /**
+     * Action to move the player right by PlayerPolicy.MAX_DRAG_PER_UPDATE.
+     */
+    public static final int RIGHT = 2;
+    /**
+     * Number of different actions.
+     */
+    public static final int ACTION_COUNT = 3;
+    /**
+     * Reward for a step where the player crashed.
+     */
+    public static final float CRASH_REWARD = -10;
+
+    /**
+     * Number of games in the batch.
+     */
+    private final int size;
+    /**
+     * Width of each game's world.
+     */
+    private final int worldWidth;
+    /**
+     * Height of each game's world.
+     */
+    private final int worldHeight;
+    /**
+     * Number of lanes in each game.
+     */
+    private final int lanes;
+    /**
+     * Maximum active lanes in each game.
+     */
+    private final int maxActiveLanes;
+    /**
+     * Length of each step in ms.
+     */
+    private final int deltaTime;
+    /**
+     * Most steps in an episode before it is ended, or 0 for no limit.
+     */
+    private final int maxEpisodeSteps;
+    /**
+     * Number of floats observed for each game.
+     */
+    private final int observationSize;
+    /**
+     * The games being played.
+     */
+    private final Simulation[] simulations;
+    /**
+     * Observations of every game, one after another.
+     */
+    private final float[] observations;
+    /**
+     * The observations as a buffer sharing the same array.
+     */
+    private final FloatBuffer observationBuffer;
+    /**
+     * Reward each game got in the most recent step.
+     */
+    private final float[] rewards;
+    /**
+     * True for each game whose episode ended in the most recent step.
+     */
+    private final boolean[] dones;
+    /**
+     * Score of each game after the previous step.
+     */
+    private final int[] lastScores;
+    /**
+     * Crash count of each game after the previous step.
+     */
+    private final int[] lastCrashCounts;
+    /**
+     * Steps played in each game's current episode.
+     */
+    private final int[] episodeSteps;
+
+    /**
+     * Creates a batch of games in worlds of the default size, and resets them with seeds from 0.
+     *
+     * @param size Number of games to play at once.
+     * @param maxEpisodeSteps Most steps in an episode before it is ended, or 0 for no limit.
+     */
+    public VectorEnvironment(int size, int maxEpisodeSteps) {
+        this(size, Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT, Simulation.NUMBER_OF_LANES,
+                Simulation.MAX_ACTIVE_LANES, Simulation.TIME_INTERVAL, maxEpisodeSteps);
+    }
+
+    /**
+     * Creates a batch of games and resets them with seeds from 0.
+     *
+     * @param size Number of games to play at once.
+     * @param worldWidth Width of each game's world.
+     * @param worldHeight Height of each game's world.
+     * @param lanes Number of lanes in each game.
+     * @param maxActiveLanes Maximum active lanes in each game.
+     * @param deltaTime Length of each step in ms.
+     * @param maxEpisodeSteps Most steps in an episode before it is ended, or 0 for no limit.
+     */
+    public VectorEnvironment(int size, int worldWidth, int worldHeight, int lanes, int maxActiveLanes,
+                             int deltaTime, int maxEpisodeSteps) {
+        this.size = size;
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.lanes = lanes;
+        this.maxActiveLanes = maxActiveLanes;
+        this.deltaTime = deltaTime;
+        this.maxEpisodeSteps = maxEpisodeSteps;
+        observationSize = lanes * 2 + 1;
+        simulations = new Simulation[size];
+        observations = new float[size * observationSize];
+        observationBuffer = FloatBuffer.wrap(observations);
+        rewards = new float[size];
+        dones = new boolean[size];
+        lastScores = new int[size];
+        lastCrashCounts = new int[size];
+        episodeSteps = new int[size];
+        reset(0);
+    }
+
+    /**
+     * Creates every game again from a seed, so the same seed always gives the same episodes.
+     * Game i is seeded with seed + i. Observes the new games.
+     *
+     * @param seed Seed for game 0.
+     * @return The observations of every game.
+     */
+    public float[] reset(long seed) {
+        for(int i = 0; i < size; i++) {
+            simulations[i] = new Simulation(worldWidth, worldHeight, lanes, maxActiveLanes, seed + i);
+            startEpisode(i);
+        }
+        return observe();
+    }
+
+    /**
+     * Starts a new episode in every game, carrying on each game's randomness.
+     * Observes the new episodes.
+     *
+     * @return The observations of every game.
+     */
+    public float[] reset() {
+        for(int i = 0; i < size; i++) {
+            simulations[i].reset();
+            startEpisode(i);
+        }
+        return observe();
+    }
+
+    /**
+     * Gives every game its action, updates every game by one step, works out the rewards
+     * and which episodes ended, starts new episodes for those that did, and observes every game.
+     * The reward is the score gained in the step, or CRASH_REWARD if the player crashed.
+     *
+     * @param actions One of STAY, LEFT, or RIGHT for each game.
+     * @return The observations of every game.
+     */
+    public float[] step(int[] actions) {
+        for(int i = 0; i < size; i++) {
+            Simulation simulation = simulations[i];
+            act(simulation, actions[i]);
+            simulation.update(deltaTime);
+            episodeSteps[i]++;
+            int crashCount = simulation.getCrashCount();
+            if(crashCount != lastCrashCounts[i]) {
+                // The simulation has already started again after the crash
+                rewards[i] = CRASH_REWARD;
+                dones[i] = true;
+                lastCrashCounts[i] = crashCount;
+                lastScores[i] = 0;
+                episodeSteps[i] = 0;
+            } else {
+                int score = simulation.getScore();
+                rewards[i] = score - lastScores[i];
+                lastScores[i] = score;
+                dones[i] = maxEpisodeSteps > 0 && episodeSteps[i] >= maxEpisodeSteps;
+                if(dones[i]) {
+                    simulation.reset();
+                    startEpisode(i);
+                }
+            }
+        }
+        return observe();
+    }
+
+    /**
+     * Writes the observations of every game into the observation array.
+     *
+     * @return The observations of every game.
+     */
+    public float[] observe() {
+        for(int i = 0; i < size; i++) {
+            observe(simulations[i], i * observationSize);
+        }
+        return observations;
+    }
+
+    /**
+     * Gets the observations of every game, as written by the most recent reset, step, or observe.
+     *
+     * @return The observations, size * getObservationSize() floats.
+     */
+    public float[] getObservations() {
+        return observations;
+    }
+
+    /**
+     * Gets the observations as a buffer sharing the observation array.
+     *
+     * @return The observations, size * getObservationSize() floats.
+     */
+    public FloatBuffer getObservationBuffer() {
+        return observationBuffer;
+    }
+
+    /**
+     * Gets the reward each game got in the most recent step.
+     *
+     * @return One reward for each game.
+     */
+    public float[] getRewards() {
+        return rewards;
+    }
+
+    /**
+     * Gets which games ended an episode in the most recent step.
+     *
+     * @return True for each game whose episode ended.
+     */
+    public boolean[] getDones() {
+        return dones;
+    }
+
+    /**
+     * Gets the number of games in the batch.
+     *
+     * @return The number of games.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the number of floats observed for each game.
+     *
+     * @return Twice the number of lanes plus one.
+     */
+    public int getObservationSize() {
+        return observationSize;
+    }
+
+    /**
+     * Gets one of the games being played, to inspect or record it.
+     *
+     * @param index Index of the game.
+     * @return The game's simulation.
+     */
+    public Simulation getSimulation(int index) {
+        return simulations[index];
+    }
+
+    /**
+     * Clears the per-episode counters of a game that has just started a new episode.
+     *
+     * @param index Index of the game.
+     */
+    private void startEpisode(int index) {
+        lastScores[index] = simulations[index].getScore();
+        lastCrashCounts[index] = simulations[index].getCrashCount();
+        episodeSteps[index] = 0;
+        rewards[index] = 0;
+    }
+
+    /**
+     * Holds the player car and drags it one step left or right, or leaves it where it is.
+     *
+     * @param simulation The game to act in.
+     * @param action One of STAY, LEFT, or RIGHT.
+     */
+    private static void act(Simulation simulation, int action) {
+        if(action == STAY) return;
+        PlayerCar playerCar = simulation.getPlayerCar();
+        Position position = playerCar.getPosition();
+        int centreX = position.x + playerCar.getWidth()/2;
+        int centreY = position.y + playerCar.getHeight()/2;
+        if(!playerCar.isMoving()) {
+            simulation.pressAt(centreX, centreY);
+        }
+        int distance = action == LEFT ? -PlayerPolicy.MAX_DRAG_PER_UPDATE : PlayerPolicy.MAX_DRAG_PER_UPDATE;
+        simulation.dragTo(centreX + distance, centreY);
+    }
+
+    /**
+     * Writes the observation of one game. See the class description for the layout.
+     *
+     * @param simulation The game to observe.
+     * @param offset Index in the observation array to write the first float to.
+     */
+    private void observe(Simulation simulation, int offset) {
+        EnemyCarManager manager = simulation.getEnemyCarManager();
+        Position playerPosition = simulation.getPlayerCar().getPosition();
+        int playerTop = playerPosition.y;
+        int playerBottom = playerTop + Car.CAR_HEIGHT;
+        float heightScale = 1f / worldHeight;
+        int gapOffset = offset + lanes;
+        for(int lane = 0; lane < lanes; lane++) {
+            boolean active = manager.isActive(lane);
+            observations[offset + lane] = active ? 1 : 0;
+            int carY = manager.getCarY(lane);
+            observations[gapOffset + lane] = active && carY < playerBottom
+                    ? Math.max(0, playerTop - carY - Car.CAR_HEIGHT) * heightScale : 1;
+        }
+        observations[offset + lanes * 2] = playerPosition.x / (float) Math.max(1, worldWidth - Car.CAR_WIDTH);
+    }
+}
@@ -0,0 +1,191 @@
+package cardodger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * ViewTransform class:
+ * Maps the world a Simulation plays in onto the area of the screen it is drawn in.
+ * The simulation only ever works in world units; this is the one place they are scaled
+ * to screen pixels, when drawing, and where mouse positions are scaled back to world units.
+ * The width and height are scaled separately so the whole world always fills the view.
+ * Has no dependency on Swing or AWT.
+ */
+public class ViewTransform {
+    /**
+     * Width of the world in world units.
+     */
+    private final int worldWidth;
+    /**
+     * Height of the world in world units.
+     */
+    private final int worldHeight;
+    /**
+     * Width of the view in pixels.
+     */
+    private final int screenWidth;
+    /**
+     * Height of the view in pixels.
+     */
+    private final int screenHeight;
+    /**
+     * Pixels per world unit across.
+     */
+    private final double scaleX;
+    /**
+     * Pixels per world unit down.
+     */
+    private final double scaleY;
+
+    /**
+     * Creates a transform that stretches a world over a view.
+     *
+     * @param worldWidth Width of the world in world units.
+     * @param worldHeight Height of the world in world units.
+     * @param screenWidth Width of the view in pixels.
+     * @param screenHeight Height of the view in pixels.
+     */
+    public ViewTransform(int worldWidth, int worldHeight, int screenWidth, int screenHeight) {
+        this.worldWidth = worldWidth;
+        this.worldHeight = worldHeight;
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        scaleX = screenWidth / (double) worldWidth;
+        scaleY = screenHeight / (double) worldHeight;
+    }
+
+    /**
+     * Checks if world units and pixels are the same, so nothing needs to be scaled.
+     *
+     * @return True if the world is the same size as the view.
+     */
+    public boolean isIdentity() {
+        return worldWidth == screenWidth && worldHeight == screenHeight;
+    }
+
+    /**
+     * Gets the number of pixels per world unit across.
+     *
+     * @return The horizontal scale.
+     */
+    public double getScaleX() {
+        return scaleX;
+    }
+
+    /**
+     * Gets the number of pixels per world unit down.
+     *
+     * @return The vertical scale.
+     */
+    public double getScaleY() {
+        return scaleY;
+    }
+
+    /**
+     * Gets the width of the world.
+     *
+     * @return Width in world units.
+     */
+    public int getWorldWidth() {
+        return worldWidth;
+    }
+
+    /**
+     * Gets the height of the world.
+     *
+     * @return Height in world units.
+     */
+    public int getWorldHeight() {
+        return worldHeight;
+    }
+
+    /**
+     * Gets the width of the view.
+     *
+     * @return Width in pixels.
+     */
+    public int getScreenWidth() {
+        return screenWidth;
+    }
+
+    /**
+     * Gets the height of the view.
+     *
+     * @return Height in pixels.
+     */
+    public int getScreenHeight() {
+        return screenHeight;
+    }
+
+    /**
+     * Gets the pixel column a world x coordinate starts in.
+     *
+     * @param worldX X coordinate in world units.
+     * @return X coordinate in pixels, rounded down.
+     */
+    public int toScreenX(int worldX) {
+        return (int) Math.floor(worldX * scaleX);
+    }
+
+    /**
+     * Gets the pixel row a world y coordinate starts in.
+     *
+     * @param worldY Y coordinate in world units.
+     * @return Y coordinate in pixels, rounded down.
+     */
+    public int toScreenY(int worldY) {
+        return (int) Math.floor(worldY * scaleY);
+    }
+
+    /**
+     * Gets the number of pixel columns touched by a span of the world.
+     *
+     * @param worldX X coordinate of the left of the span in world units.
+     * @param worldWidth Width of the span in world units.
+     * @return Width in pixels, rounded out so it covers every column the span touches.
+     */
+    public int toScreenWidth(int worldX, int worldWidth) {
+        return (int) Math.ceil((worldX + worldWidth) * scaleX) - toScreenX(worldX);
+    }
+
+    /**
+     * Gets the number of pixel rows touched by a span of the world.
+     *
+     * @param worldY Y coordinate of the top of the span in world units.
+     * @param worldHeight Height of the span in world units.
+     * @return Height in pixels, rounded out so it covers every row the span touches.
+     */
+    public int toScreenHeight(int worldY, int worldHeight) {
+        return (int) Math.ceil((worldY + worldHeight) * scaleY) - toScreenY(worldY);
+    }
+
+    /**
+     * Scales a vertical length of the world to the screen.
+     *
+     * @param worldLength Length in world units.
+     * @return Length in pixels, rounded to the nearest pixel but never less than 1.
+     */
+    public int toScreenLength(int worldLength) {
+        return Math.max(1, (int) Math.round(worldLength * scaleY));
+    }
+
+    /**
+     * Gets the world x coordinate under a pixel column.
+     *
+     * @param screenX X coordinate in pixels.
+     * @return X coordinate in world units.
+     */
+    public int toWorldX(int screenX) {
+        return (int) Math.floor(screenX / scaleX);
+    }
+
+    /**
+     * Gets the world y coordinate under a pixel row.
+     *
+     * @param screenY Y coordinate in pixels.
+     * @return Y coordinate in world units.
+     */
+    public int toWorldY(int screenY) {
+        return (int) Math.floor(screenY / scaleY);
+    }
+}
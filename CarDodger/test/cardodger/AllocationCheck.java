@@ -0,0 +1,93 @@
+package cardodger;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * AllocationCheck class:
+ * Regression check that the steady state of the game does not allocate any memory.
+ * Plays a headless Simulation with scripted mouse presses, drags, and releases, then
+ * uses the ThreadMXBean to measure the bytes allocated by this thread while updating.
+ * Exits with a non-zero status if anything was allocated.
+ */
+public class AllocationCheck {
+    /**
+     * Number of updates to run before measuring so classes are loaded and code is compiled.
+     * Run in several calls so the play loop is compiled as a whole method and not only
+     * replaced mid-loop, which would otherwise allocate while compiling during the measurement.
+     */
+    private static final int WARM_UP_TICKS = 20_000;
+    /**
+     * Number of times to run the warm up.
+     */
+    private static final int WARM_UP_ROUNDS = 20;
+    /**
+     * Number of updates to measure.
+     */
+    private static final int MEASURED_TICKS = 1_000_000;
+
+    /**
+     * Entry point to run the check.
+     *
+     * @param args Not used.
+     */
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if(!threadBean.isThreadAllocatedMemorySupported()) {
+            System.out.println("Thread allocation measurement is not supported by this JVM.");
+            System.exit(2);
+        }
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        Simulation simulation = new Simulation();
+        // Profile the phases as the game does, so the timing probes are checked as well
+        simulation.setProfiler(new PhaseProfiler());
+        Position playerCentre = new Position(0, 0);
+        for(int i = 0; i < WARM_UP_ROUNDS; i++) {
+            play(simulation, playerCentre, WARM_UP_TICKS);
+        }
+
+        // Measure the cost of measuring so it can be ignored
+        long overhead = threadBean.getCurrentThreadAllocatedBytes();
+        overhead = threadBean.getCurrentThreadAllocatedBytes() - overhead;
+
+        long startBytes = threadBean.getCurrentThreadAllocatedBytes();
+        play(simulation, playerCentre, MEASURED_TICKS);
+        long allocatedBytes = threadBean.getCurrentThreadAllocatedBytes() - startBytes - overhead;
+
+        System.out.printf("Allocated %d bytes over %d ticks (%.4f bytes/tick), %d crashes%n",
+                allocatedBytes, MEASURED_TICKS, allocatedBytes / (double) MEASURED_TICKS,
+                simulation.getCrashCount());
+        if(allocatedBytes > 0) {
+            System.out.println("FAILED: the update, input, or respawn path allocated memory.");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    /**
+     * Updates the simulation while pressing on the player, dragging it from side to side,
+     * and releasing it again on a fixed pattern.
+     *
+     * @param simulation The simulation to play.
+     * @param playerCentre Reused to find where to press on the player.
+     * @param ticks Number of updates to run.
+     */
+    private static void play(Simulation simulation, Position playerCentre, int ticks) {
+        for(int tick = 0; tick < ticks; tick++) {
+            int step = tick % 200;
+            if(step == 0) {
+                simulation.getPlayerCar().getCentre(playerCentre);
+                simulation.pressAt(playerCentre.x, playerCentre.y);
+            } else if(step < 150) {
+                simulation.dragTo((tick * 7) % simulation.getWorldWidth(), playerCentre.y);
+            } else if(step == 150) {
+                simulation.release();
+            }
+            simulation.update(Simulation.TIME_INTERVAL);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package cardodger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * DeterminismCheck class:
+ * Regression check that a Simulation is completely decided by its seed and its input.
+ * Plays the same seed twice with the same scripted player, once on this thread and once
+ * on another thread while other simulations are also running, and compares a hash of the
+ * whole game state after every update. Also checks that a different seed plays differently.
+ * Exits with a non-zero status if the games do not match.
+ */
+public class DeterminismCheck {
+    /**
+     * Seed to play with if none is given.
+     */
+    private static final long DEFAULT_SEED = 20210101L;
+    /**
+     * Number of updates to play.
+     */
+    private static final int TICKS = 200_000;
+    /**
+     * Number of other simulations to run at the same time as the second game.
+     */
+    private static final int OTHER_THREADS = 3;
+
+    /**
+     * Entry point to run the check.
+     *
+     * @param args Optional seed to play with.
+     * @throws InterruptedException If interrupted while waiting for the other threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_SEED;
+
+        long[] firstHashes = new long[TICKS];
+        play(seed, firstHashes);
+
+        // Play again on another thread with other simulations running at the same time
+        long[] secondHashes = new long[TICKS];
+        Thread[] threads = new Thread[OTHER_THREADS + 1];
+        threads[0] = new Thread(() -> play(seed, secondHashes));
+        for(int i = 1; i < threads.length; i++) {
+            long otherSeed = seed + i;
+            threads[i] = new Thread(() -> play(otherSeed, new long[TICKS]));
+        }
+        for(Thread thread : threads) {
+            thread.start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] otherSeedHashes = new long[TICKS];
+        play(seed + 1, otherSeedHashes);
+
+        System.out.printf("Seed %d final state hash %016x%n", seed, firstHashes[TICKS - 1]);
+        for(int tick = 0; tick < TICKS; tick++) {
+            if(firstHashes[tick] != secondHashes[tick]) {
+                System.out.println("FAILED: the same seed diverged at tick " + tick);
+                System.exit(1);
+            }
+        }
+        if(firstHashes[TICKS - 1] == otherSeedHashes[TICKS - 1]) {
+            System.out.println("FAILED: a different seed played exactly the same game.");
+            System.exit(1);
+        }
+        System.out.println("PASSED: " + TICKS + " ticks identical for the same seed");
+    }
+
+    /**
+     * Plays a game with a scripted random player and stores the state hash after every update.
+     *
+     * @param seed Seed for the simulation and the player.
+     * @param hashes Filled with the state hash after each update.
+     */
+    private static void play(long seed, long[] hashes) {
+        Simulation simulation = new Simulation(Simulation.NUMBER_OF_LANES, Simulation.MAX_ACTIVE_LANES, seed);
+        PlayerPolicy policy = PlayerPolicy.create("random", ~seed);
+        for(int tick = 0; tick < hashes.length; tick++) {
+            policy.act(simulation);
+            simulation.update(Simulation.TIME_INTERVAL);
+            hashes[tick] = simulation.getStateHash();
+        }
+    }
+}
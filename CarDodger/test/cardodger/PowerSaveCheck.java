@@ -0,0 +1,133 @@
+package cardodger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * PowerSaveCheck class:
+ * Regression check that a backgrounded game costs almost nothing and resumes cleanly.
+ * Runs a GameLoop driving a Simulation without a window, and feeds a PowerSaveScheduler
+ * the events a window would send as it loses focus, is minimised, and is restored.
+ * Updates must keep up with the game's time while unfocused at the lower frame rate,
+ * no updates may run while minimised, the process must use under 1% of a core while
+ * minimised, and resuming must not run a burst of updates to catch up on the lost time.
+ * Exits with a non-zero status if any of these fail.
+ */
+public class PowerSaveCheck implements GameLoopListener {
+    /**
+     * Time to spend in each state in ms.
+     */
+    private static final int STATE_MILLIS = 2000;
+    /**
+     * Most CPU time the process may use while minimised, as a percentage of one core.
+     */
+    private static final double MAX_HIDDEN_CPU_PERCENT = 1;
+    /**
+     * Fewest updates that must run while unfocused, as a fraction of the updates due.
+     */
+    private static final double MIN_UNFOCUSED_UPDATE_FRACTION = 0.9;
+
+    /**
+     * The simulation being driven.
+     */
+    private final Simulation simulation;
+    /**
+     * Number of updates run.
+     */
+    private volatile long updates;
+    /**
+     * Number of renders run.
+     */
+    private volatile long renders;
+    /**
+     * Most updates run between two renders.
+     */
+    private volatile int maxUpdatesPerRender;
+    /**
+     * Updates run since the last render.
+     */
+    private int updatesSinceRender;
+
+    /**
+     * Creates the simulation to drive.
+     */
+    private PowerSaveCheck() {
+        simulation = new Simulation();
+    }
+
+    /**
+     * Updates the simulation.
+     *
+     * @param deltaTime Length of the fixed step in ms.
+     */
+    @Override
+    public void update(int deltaTime) {
+        simulation.update(deltaTime);
+        updates++;
+        updatesSinceRender++;
+    }
+
+    /**
+     * Counts the frame instead of drawing it.
+     *
+     * @param alpha Not used.
+     */
+    @Override
+    public void render(float alpha) {
+        renders++;
+        maxUpdatesPerRender = Math.max(maxUpdatesPerRender, updatesSinceRender);
+        updatesSinceRender = 0;
+    }
+
+    /**
+     * Entry point to run the check.
+     *
+     * @param args Not used.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        PowerSaveCheck check = new PowerSaveCheck();
+        GameLoop gameLoop = new GameLoop(check, Simulation.TIME_INTERVAL);
+        PowerSaveScheduler scheduler = new PowerSaveScheduler(gameLoop);
+        gameLoop.start();
+
+        Thread.sleep(STATE_MILLIS);
+        long activeRenders = check.renders;
+        long unfocusedStartUpdates = check.updates;
+        scheduler.windowLostFocus(null);
+        Thread.sleep(STATE_MILLIS);
+        long unfocusedRenders = check.renders - activeRenders;
+        long unfocusedUpdates = check.updates - unfocusedStartUpdates;
+        long unfocusedDueUpdates = STATE_MILLIS / Simulation.TIME_INTERVAL;
+
+        scheduler.windowIconified(null);
+        // Let the loop finish its frame and park
+        Thread.sleep(100);
+        long hiddenStartUpdates = check.updates;
+        long hiddenStartRenders = check.renders;
+        Thread.sleep(STATE_MILLIS);
+        long hiddenUpdates = check.updates - hiddenStartUpdates;
+        long hiddenRenders = check.renders - hiddenStartRenders;
+
+        check.maxUpdatesPerRender = 0;
+        scheduler.windowDeiconified(null);
+        scheduler.windowGainedFocus(null);
+        Thread.sleep(STATE_MILLIS);
+        int resumeBurst = check.maxUpdatesPerRender;
+        gameLoop.stop();
+
+        System.out.println(scheduler.getReport());
+        System.out.printf("Frames: %d active, %d unfocused, %d hidden; %d of %d updates due while unfocused; "
+                        + "%d updates while hidden; at most %d updates per frame after resuming%n",
+                activeRenders, unfocusedRenders, hiddenRenders, unfocusedUpdates, unfocusedDueUpdates,
+                hiddenUpdates, resumeBurst);
+        double hiddenCpuPercent = scheduler.getCpuPercent(PowerSaveScheduler.HIDDEN);
+        if(hiddenUpdates > 0 || hiddenRenders > 0 || hiddenCpuPercent > MAX_HIDDEN_CPU_PERCENT
+                || unfocusedRenders >= activeRenders
+                || unfocusedUpdates < unfocusedDueUpdates * MIN_UNFOCUSED_UPDATE_FRACTION || resumeBurst > GameLoop.MAX_UPDATES_PER_FRAME / 2) {
+            System.out.println("FAILED: the game fell behind or kept running in the background, or jumped on resuming.");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+}
@@ -0,0 +1,84 @@
+package cardodger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * ReplayCheck class:
+ * Regression check that a game recorded by an InputRecorder plays out exactly the same when
+ * replayed by an InputReplay. Records a seeded game in a world that is not the default size
+ * with the dodging player, letting go of the car every so often so presses, drags, and
+ * releases are all recorded, then replays it and compares the final state hash with the
+ * recorded game's. Also replays the recording cut short, which must stop at its last
+ * complete event without reporting it finished.
+ * Exits with a non-zero status if the replay does not match.
+ */
+public class ReplayCheck {
+    /**
+     * Seed to play with.
+     */
+    private static final long SEED = 20210101L;
+    /**
+     * Number of updates to record.
+     */
+    private static final int TICKS = 100_000;
+    /**
+     * Number of updates between each time the player lets go of the car.
+     */
+    private static final int RELEASE_INTERVAL = 500;
+
+    /**
+     * Entry point to run the check.
+     *
+     * @param args Not used.
+     * @throws IOException If the recording could not be written or read.
+     */
+    public static void main(String[] args) throws IOException {
+        Simulation recorded = new Simulation(600, 700, 20, 12, SEED);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InputRecorder recorder = new InputRecorder(out, recorded, Simulation.TIME_INTERVAL);
+        recorded.setInputRecorder(recorder);
+        PlayerPolicy policy = PlayerPolicy.create("dodge", SEED);
+        for(int tick = 0; tick < TICKS; tick++) {
+            if(tick % RELEASE_INTERVAL == RELEASE_INTERVAL - 1) {
+                recorded.release();
+            } else {
+                policy.act(recorded);
+            }
+            recorded.update(Simulation.TIME_INTERVAL);
+        }
+        recorder.finish(recorded);
+        byte[] recording = out.toByteArray();
+
+        InputReplay replay = new InputReplay(ByteBuffer.wrap(recording));
+        Simulation replayed = replay.createSimulation();
+        replay.play(replayed);
+        System.out.printf("Recorded %d ticks in %d bytes, score %d, crashes %d, final state %016x%n",
+                recorded.getTick(), recording.length, recorded.getScore(), recorded.getCrashCount(),
+                recorded.getStateHash());
+        System.out.printf("Replayed %d ticks, score %d, crashes %d, final state %016x%n",
+                replayed.getTick(), replayed.getScore(), replayed.getCrashCount(), replayed.getStateHash());
+        if(!replay.isFinished() || replayed.getTick() != recorded.getTick()
+                || replayed.getStateHash() != recorded.getStateHash()
+                || replay.getRecordedStateHash() != recorded.getStateHash()) {
+            System.out.println("FAILED: the replay did not finish in the recorded state.");
+            System.exit(1);
+        }
+
+        // Cut the recording part way through an event
+        InputReplay cutShort = new InputReplay(ByteBuffer.wrap(Arrays.copyOf(recording, recording.length / 2 + 1)));
+        Simulation partial = cutShort.createSimulation();
+        cutShort.play(partial);
+        System.out.printf("Cut short to %d bytes, replayed %d ticks%n", recording.length / 2 + 1, partial.getTick());
+        if(cutShort.isFinished() || partial.getTick() == 0 || partial.getTick() >= recorded.getTick()) {
+            System.out.println("FAILED: the cut short recording was not replayed up to its last event.");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+}
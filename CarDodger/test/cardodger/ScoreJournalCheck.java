@@ -0,0 +1,237 @@
+package cardodger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * ScoreJournalCheck class:
+ * Regression check that a ScoreJournal keeps its scores through an exit, a crash, and a torn
+ * record, and stays quick with millions of games in it. Opening the journal a second time
+ * while it is open must fail. Fills a journal with games for one profile and closes it,
+ * then has a second JVM add games for another profile and halt without closing the
+ * journal. The journal is reopened and must hold every game from both, with the right
+ * best and top scores. A record is then torn and the count in the header
+ * moved back, and reopening must keep every record before the torn one. The time taken to
+ * open the journal, to find the best score, and to record a game are reported, along with
+ * rebuilding the indexes from the whole file after the index file is deleted.
+ * Exits with a non-zero status if a score is lost or changed.
+ */
+public class ScoreJournalCheck {
+    /**
+     * Number of games recorded in the session that closes the journal.
+     */
+    private static final int CLOSED_GAMES = 2_000_000;
+    /**
+     * Number of games recorded in the session that halts.
+     */
+    private static final int HALTED_GAMES = 300_000;
+    /**
+     * Number of top scores to compare.
+     */
+    private static final int TOP_N = 10;
+    /**
+     * Seed for the scores of each profile.
+     */
+    private static final long SEED = 20210101L;
+
+    /**
+     * Entry point to run the check, or to record games and halt when run as the second JVM.
+     *
+     * @param args Nothing, or "--halt" followed by the journal file when run as the second JVM.
+     * @throws IOException If the journal could not be used.
+     * @throws InterruptedException If interrupted while waiting for the second JVM.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if(args.length == 2 && args[0].equals("--halt")) {
+            ScoreJournal journal = ScoreJournal.open(Path.of(args[1]), 1);
+            recordGames(journal, 1, HALTED_GAMES);
+            while(journal.getQueuedCount() > 0) {
+                Thread.onSpinWait();
+            }
+            // Exit without closing the journal, as if the game had crashed
+            Runtime.getRuntime().halt(0);
+        }
+
+        Path directory = Files.createTempDirectory("cardodger-journal");
+        Path file = directory.resolve("scores.journal");
+        Path indexFile = directory.resolve("scores.journal.idx");
+        boolean failed = false;
+        try {
+            ScoreJournal journal = ScoreJournal.open(file, 0);
+            if(!isLocked(file)) {
+                System.out.println("FAILED: a second game could open the journal while it was open.");
+                System.exit(1);
+            }
+            LogHistogram recordTimes = recordGames(journal, 0, CLOSED_GAMES);
+            journal.close();
+            System.out.printf("Recorded %d games, record time (ns): %s%n", CLOSED_GAMES, recordTimes);
+
+            Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                    "-cp", System.getProperty("java.class.path"), ScoreJournalCheck.class.getName(),
+                    "--halt", file.toString()).inheritIO().start();
+            if(process.waitFor() != 0) {
+                System.out.println("FAILED: the second JVM did not record its games.");
+                System.exit(1);
+            }
+
+            // Both sessions have a start record, and only the first has an end record
+            long expectedRecords = CLOSED_GAMES + HALTED_GAMES + 3;
+            long startTime = System.nanoTime();
+            journal = ScoreJournal.open(file, 2);
+            long openTime = System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+            int bestScore = journal.getBestScore(1);
+            long bestTime = System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+            int[] topScores = journal.getTopScores(ScoreJournal.ALL_PROFILES, TOP_N);
+            long topTime = System.nanoTime() - startTime;
+            System.out.printf("Reopened after halting in %.2f ms with %d records; best score in %.2f ms, top %d in %.2f ms%n",
+                    openTime / 1e6, journal.getRecordCount() - 1, bestTime / 1e6, TOP_N, topTime / 1e6);
+            failed |= journal.getRecordCount() - 1 != expectedRecords
+                    || journal.getGameCount(0) != CLOSED_GAMES || journal.getGameCount(1) != HALTED_GAMES
+                    || bestScore != getExpectedTopScores(1, HALTED_GAMES)[0]
+                    || journal.getBestScore(0) != getExpectedTopScores(0, CLOSED_GAMES)[0]
+                    || !Arrays.equals(topScores, getExpectedAllTopScores())
+                    || !Arrays.equals(journal.getTopScores(ScoreJournal.ALL_PROFILES, ScoreIndex.TOP_CAPACITY + 1),
+                            getExpectedAllTopScores(ScoreIndex.TOP_CAPACITY + 1));
+            journal.close();
+            long closedRecords = expectedRecords + 2;
+
+            // Tear the last record and move the count back, as if the exit happened while writing
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long lastRecord = ScoreJournal.HEADER_SIZE + (closedRecords - 1) * ScoreJournal.RECORD_SIZE;
+                channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), lastRecord + 20);
+                ByteBuffer count = ByteBuffer.allocate(8).putLong(0, closedRecords - 100);
+                channel.write(count, 16);
+            }
+            journal = ScoreJournal.open(file, 2);
+            long recovered = journal.getRecordCount() - 1;
+            System.out.printf("Recovered %d of %d records after tearing the last one%n", recovered, closedRecords);
+            failed |= recovered != closedRecords - 1 || journal.getGameCount(ScoreJournal.ALL_PROFILES) != CLOSED_GAMES + HALTED_GAMES;
+            journal.close();
+
+            Files.delete(indexFile);
+            startTime = System.nanoTime();
+            journal = ScoreJournal.open(file, 2);
+            openTime = System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+            bestScore = journal.getBestScore(0);
+            bestTime = System.nanoTime() - startTime;
+            System.out.printf("Without the index file: opened in %.2f ms, rebuilt the best score in %.2f ms%n",
+                    openTime / 1e6, bestTime / 1e6);
+            failed |= bestScore != getExpectedTopScores(0, CLOSED_GAMES)[0];
+            journal.close();
+        } finally {
+            try(var files = Files.list(directory)) {
+                for(Path path : (Iterable<Path>) files::iterator) {
+                    Files.delete(path);
+                }
+            }
+            Files.delete(directory);
+        }
+
+        if(failed) {
+            System.out.println("FAILED: the journal lost or changed scores.");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    /**
+     * Checks that a journal cannot be opened a second time while it is open.
+     *
+     * @param file The open journal.
+     * @return True if opening it again failed.
+     */
+    private static boolean isLocked(Path file) {
+        try {
+            ScoreJournal.open(file, 1).close();
+            return false;
+        } catch(IOException e) {
+            System.out.println("Opening the journal twice failed as it should: " + e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Records games with random scores, waiting whenever the journal's writer falls behind.
+     *
+     * @param journal The journal to record to.
+     * @param profile Profile the scores are made for.
+     * @param games Number of games to record.
+     * @return The time taken by each successful call to record a game, in ns.
+     */
+    private static LogHistogram recordGames(ScoreJournal journal, int profile, int games) {
+        LogHistogram recordTimes = new LogHistogram();
+        SplittableRandom random = new SplittableRandom(SEED + profile);
+        for(int game = 1; game <= games; game++) {
+            int score = random.nextInt(1_000_000);
+            while(true) {
+                long startTime = System.nanoTime();
+                boolean recorded = journal.recordGame(score, game);
+                if(recorded) {
+                    recordTimes.record(System.nanoTime() - startTime);
+                    break;
+                }
+                Thread.onSpinWait();
+            }
+        }
+        return recordTimes;
+    }
+
+    /**
+     * Works out the best scores recorded by recordGames() for a profile.
+     *
+     * @param profile The profile.
+     * @param games Number of games recorded.
+     * @return Every score from highest to lowest.
+     */
+    private static int[] getExpectedTopScores(int profile, int games) {
+        SplittableRandom random = new SplittableRandom(SEED + profile);
+        int[] scores = new int[games];
+        for(int game = 0; game < games; game++) {
+            scores[game] = random.nextInt(1_000_000);
+        }
+        Arrays.sort(scores);
+        for(int i = 0; i < games / 2; i++) {
+            int score = scores[i];
+            scores[i] = scores[games - 1 - i];
+            scores[games - 1 - i] = score;
+        }
+        return scores;
+    }
+
+    /**
+     * Works out the best TOP_N scores of both profiles together.
+     *
+     * @return The best scores from highest to lowest.
+     */
+    private static int[] getExpectedAllTopScores() {
+        return getExpectedAllTopScores(TOP_N);
+    }
+
+    /**
+     * Works out the best scores of both profiles together.
+     *
+     * @param n Number of scores.
+     * @return The best scores from highest to lowest.
+     */
+    private static int[] getExpectedAllTopScores(int n) {
+        int[] first = Arrays.copyOf(getExpectedTopScores(0, CLOSED_GAMES), n);
+        int[] second = Arrays.copyOf(getExpectedTopScores(1, HALTED_GAMES), n);
+        int[] all = new int[n];
+        for(int i = 0, a = 0, b = 0; i < n; i++) {
+            all[i] = first[a] >= second[b] ? first[a++] : second[b++];
+        }
+        return all;
+    }
+}
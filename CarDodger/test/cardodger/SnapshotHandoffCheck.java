@@ -0,0 +1,151 @@
+package cardodger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * SnapshotHandoffCheck class:
+ * Regression check for the lock-free hand-off between the simulation thread and the
+ * drawing thread. Runs a headless Simulation on one thread as fast as possible, publishing
+ * a GameSnapshot through a SnapshotBuffer after every update and applying input from an
+ * InputQueue, while another thread acquires and reads snapshots and a third offers mouse input.
+ * Every snapshot read must hash the same as the simulation did when it was captured, ticks
+ * must never go backwards, and every input offered must be applied or counted as dropped.
+ * The simulation thread keeps the hash of every tick so the game's own capture does not
+ * have to.
+ * Exits with a non-zero status on a torn snapshot or lost input.
+ */
+public class SnapshotHandoffCheck {
+    /**
+     * Seed to play with.
+     */
+    private static final long SEED = 20210101L;
+    /**
+     * Number of updates to play.
+     */
+    private static final int TICKS = 500_000;
+    /**
+     * Number of mouse events to offer.
+     */
+    private static final int INPUT_EVENTS = 200_000;
+
+    /**
+     * Number of events offered by the input thread.
+     */
+    private static long offeredEvents;
+    /**
+     * Number of events applied by the simulation thread.
+     */
+    private static long appliedEvents;
+    /**
+     * Number of snapshots read by the drawing thread.
+     */
+    private static long snapshotsRead;
+    /**
+     * Number of snapshots read that did not match the simulation when they were captured.
+     */
+    private static long tornSnapshots;
+    /**
+     * Number of snapshots read with an earlier tick than the one before.
+     */
+    private static long ticksBackwards;
+    /**
+     * Set by the simulation thread once it has published its last snapshot.
+     */
+    private static volatile boolean simulationFinished;
+    /**
+     * Simulation.getStateHash() after each tick, written before the tick's snapshot is published.
+     */
+    private static final long[] tickHashes = new long[TICKS + 1];
+
+    /**
+     * Entry point to run the check.
+     *
+     * @param args Not used.
+     * @throws InterruptedException If interrupted while waiting for the threads.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        Simulation simulation = new Simulation(Simulation.NUMBER_OF_LANES, Simulation.MAX_ACTIVE_LANES, SEED);
+        SnapshotBuffer snapshots = new SnapshotBuffer(simulation.getEnemyCarManager().getLanes());
+        InputQueue inputQueue = new InputQueue(64);
+        tickHashes[0] = simulation.getStateHash();
+        snapshots.getBack().capture(simulation, 0, 1);
+        snapshots.publish();
+
+        Thread simulationThread = new Thread(() -> {
+            for(int tick = 0; tick < TICKS; tick++) {
+                appliedEvents += inputQueue.applyTo(simulation);
+                simulation.update(Simulation.TIME_INTERVAL);
+                tickHashes[tick + 1] = simulation.getStateHash();
+                snapshots.getBack().capture(simulation, 0, 0);
+                snapshots.publish();
+            }
+            simulationFinished = true;
+        }, "Simulation");
+        Thread drawingThread = new Thread(() -> {
+            long lastTick = -1;
+            boolean finished;
+            do {
+                finished = simulationFinished;
+                GameSnapshot snapshot = snapshots.acquire();
+                snapshotsRead++;
+                if(hash(snapshot) != tickHashes[(int) snapshot.getTick()]) {
+                    tornSnapshots++;
+                }
+                if(snapshot.getTick() < lastTick) {
+                    ticksBackwards++;
+                }
+                lastTick = snapshot.getTick();
+            } while(!finished);
+        }, "Drawing");
+        Thread inputThread = new Thread(() -> {
+            for(int i = 0; i < INPUT_EVENTS && !simulationFinished; i++) {
+                int step = i % 50;
+                int type = step == 0 ? InputQueue.PRESS : step == 49 ? InputQueue.RELEASE : InputQueue.DRAG;
+                inputQueue.offer(type, (i * 7) % Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT - 80);
+                offeredEvents++;
+            }
+        }, "Input");
+
+        long startTime = System.nanoTime();
+        simulationThread.start();
+        drawingThread.start();
+        inputThread.start();
+        inputThread.join();
+        simulationThread.join();
+        drawingThread.join();
+        // Apply anything offered after the last update
+        appliedEvents += inputQueue.applyTo(simulation);
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+
+        System.out.printf("%d ticks in %.3f s, %d snapshots read, %d torn, %d out of order%n",
+                TICKS, seconds, snapshotsRead, tornSnapshots, ticksBackwards);
+        System.out.printf("Input: %d offered, %d applied, %d dropped%n",
+                offeredEvents, appliedEvents, inputQueue.getDroppedCount());
+        if(tornSnapshots > 0 || ticksBackwards > 0 || snapshots.acquire().getTick() != TICKS
+                || appliedEvents + inputQueue.getDroppedCount() != offeredEvents) {
+            System.out.println("FAILED: snapshots or input were not handed off intact.");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    /**
+     * Hashes the state copied into a snapshot the same way as Simulation.getStateHash().
+     *
+     * @param snapshot The snapshot to hash.
+     * @return Hash of the tick, score, crashes, player position, and every enemy car.
+     */
+    private static long hash(GameSnapshot snapshot) {
+        long hash = 17;
+        hash = hash * 31 + snapshot.getTick();
+        hash = hash * 31 + snapshot.getScore();
+        hash = hash * 31 + snapshot.getCrashCount();
+        hash = hash * 31 + snapshot.getPlayerX();
+        for(int lane = 0; lane < snapshot.getLanes(); lane++) {
+            hash = hash * 31 + snapshot.getCarY(lane);
+            hash = hash * 31 + (snapshot.isActive(lane) ? 1 : 0);
+        }
+        return hash;
+    }
+}
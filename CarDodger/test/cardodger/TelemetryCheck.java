@@ -0,0 +1,171 @@
+package cardodger;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * TelemetryCheck class:
+ * Regression check that a TelemetryRecorder writes every update it does not drop exactly
+ * as it happened, and drops rather than waits when its ring is full. Plays a seed as fast
+ * as possible while recording, then reads the file back while playing the same seed again,
+ * and every update read must match the second game at the same tick. Updates read plus
+ * updates dropped must add up to the updates played. Playing flat out can outrun the
+ * writer thread, particularly on a single core, so some drops are allowed. The file then
+ * has its end cut off, which must lose only the last block. Playing is then repeated with
+ * a ring too small to keep up, which must drop updates. The time to record an update is
+ * reported against playing without recording.
+ * Exits with a non-zero status if an update read does not match the game.
+ */
+public class TelemetryCheck {
+    /**
+     * Seed to play with.
+     */
+    private static final long SEED = 20210101L;
+    /**
+     * Number of updates to play.
+     */
+    private static final int TICKS = 500_000;
+    /**
+     * Ring capacity that only has room for a couple of updates.
+     */
+    private static final int TINY_RING_CAPACITY = 128;
+
+    /**
+     * Entry point to run the check.
+     *
+     * @param args Not used.
+     * @throws IOException If the telemetry could not be written or read.
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("cardodger", ".telemetry");
+        boolean failed = false;
+        try {
+            long baseTime = play(null, 0);
+            long recordTime = play(file, TelemetryRecorder.DEFAULT_RING_CAPACITY);
+            System.out.printf("Update without telemetry %.0f ns, with telemetry %.0f ns%n",
+                    baseTime / (double) TICKS, recordTime / (double) TICKS);
+            failed |= !verify(file, false);
+
+            // Cut the file with many blocks short, as the tiny ring may only write one
+            TelemetryReader reader = readAll(file);
+            long blockCount = reader.getBlockCount();
+            try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.truncate(channel.size() - 10);
+            }
+            reader = readAll(file);
+            System.out.printf("After cutting the file short: %d of %d blocks read, torn %b%n",
+                    reader.getBlockCount(), blockCount, reader.isTorn());
+            failed |= !reader.isTorn() || reader.getBlockCount() != blockCount - 1;
+
+            play(file, TINY_RING_CAPACITY);
+            failed |= !verify(file, true);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        if(failed) {
+            System.out.println("FAILED: the telemetry did not match the game.");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    /**
+     * Plays the seed with a DodgePolicy, optionally recording telemetry.
+     *
+     * @param file File to record to, or null to not record.
+     * @param ringCapacity Capacity of the recorder's ring in ints.
+     * @return Time taken to play, in ns.
+     * @throws IOException If the file could not be created.
+     */
+    private static long play(Path file, int ringCapacity) throws IOException {
+        Simulation simulation = new Simulation(Simulation.NUMBER_OF_LANES, Simulation.MAX_ACTIVE_LANES, SEED);
+        PlayerPolicy policy = new DodgePolicy();
+        TelemetryRecorder recorder = null;
+        if(file != null) {
+            recorder = new TelemetryRecorder(file, simulation, ringCapacity);
+            simulation.setTelemetryRecorder(recorder);
+        }
+        long startTime = System.nanoTime();
+        for(int tick = 0; tick < TICKS; tick++) {
+            policy.act(simulation);
+            simulation.update(Simulation.TIME_INTERVAL);
+        }
+        long elapsed = System.nanoTime() - startTime;
+        if(recorder != null) {
+            recorder.close();
+            System.out.println(recorder.getReport());
+        }
+        return elapsed;
+    }
+
+    /**
+     * Reads every update in a telemetry file.
+     *
+     * @param file The telemetry to read.
+     * @return The reader, at the end of the telemetry.
+     * @throws IOException If the telemetry could not be read.
+     */
+    private static TelemetryReader readAll(Path file) throws IOException {
+        TelemetryReader reader = TelemetryReader.open(file);
+        while(reader.next()) {
+            // Read to the end
+        }
+        return reader;
+    }
+
+    /**
+     * Reads telemetry back while playing the seed again, comparing every update read.
+     *
+     * @param file The telemetry to read.
+     * @param expectDrops True if the recorder must have dropped updates.
+     * @return True if every update matched and the counts add up.
+     * @throws IOException If the telemetry could not be read.
+     */
+    private static boolean verify(Path file, boolean expectDrops) throws IOException {
+        Simulation simulation = new Simulation(Simulation.NUMBER_OF_LANES, Simulation.MAX_ACTIVE_LANES, SEED);
+        PlayerPolicy policy = new DodgePolicy();
+        EnemyCarManager manager = simulation.getEnemyCarManager();
+        int[] lanes = new int[manager.getLanes()];
+        TelemetryReader reader = TelemetryReader.open(file);
+        long updates = 0;
+        long lastTick = 0;
+        while(reader.next()) {
+            if(reader.getTick() <= lastTick) {
+                System.out.println("Update for tick " + reader.getTick() + " is out of order");
+                return false;
+            }
+            lastTick = reader.getTick();
+            while(simulation.getTick() < reader.getTick()) {
+                policy.act(simulation);
+                simulation.update(Simulation.TIME_INTERVAL);
+            }
+            updates++;
+            int carCount = manager.getActiveLanes(lanes);
+            boolean matches = reader.getScore() == simulation.getScore()
+                    && reader.getCrashCount() == simulation.getCrashCount()
+                    && reader.getPlayerX() == simulation.getPlayerCar().getPosition().x
+                    && reader.getCarCount() == carCount;
+            for(int i = 0; matches && i < carCount; i++) {
+                int lane = lanes[i];
+                matches = reader.getCarLane(i) == lane && reader.getCarY(i) == manager.getCarY(lane)
+                        && reader.getCarType(i) == manager.getCarType(lane)
+                        && reader.getCarSpeed(i) == manager.getCarSpeed(lane);
+            }
+            if(!matches) {
+                System.out.println("Update for tick " + reader.getTick() + " does not match the game");
+                return false;
+            }
+        }
+        System.out.printf("Read %d updates and %d drops in %d blocks, compressed %.1fx%n",
+                updates, reader.getDroppedCount(), reader.getBlockCount(), reader.getCompressionRatio());
+        return updates + reader.getDroppedCount() == TICKS && !reader.isTorn()
+                && (!expectDrops || reader.getDroppedCount() > 0);
+    }
+}
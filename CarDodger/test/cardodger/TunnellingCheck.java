@@ -0,0 +1,50 @@
+package cardodger;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * TunnellingCheck class:
+ * Regression check that fast cars cannot jump over the player when the simulation runs
+ * with long updates. Plays a single lane with the player parked in it, so every car must
+ * hit the player before it can leave the screen, at tick lengths from the default up to
+ * a whole second. Any score means a car passed through the player without a crash.
+ * Exits with a non-zero status if that happens.
+ */
+public class TunnellingCheck {
+    /**
+     * Tick lengths to play in ms.
+     */
+    private static final int[] TICK_LENGTHS = {Simulation.TIME_INTERVAL, 50, 100, 250, 1000};
+    /**
+     * Number of updates to play at each tick length.
+     */
+    private static final int TICKS = 100_000;
+
+    /**
+     * Entry point to run the check.
+     *
+     * @param args Not used.
+     */
+    public static void main(String[] args) {
+        boolean failed = false;
+        for(int tickLength : TICK_LENGTHS) {
+            // With one lane the only car is centred under the player's start position
+            Simulation simulation = new Simulation(1, 1, tickLength);
+            for(int tick = 0; tick < TICKS; tick++) {
+                simulation.update(tickLength);
+                if(simulation.getScore() > 0) {
+                    failed = true;
+                    break;
+                }
+            }
+            System.out.printf("%4d ms ticks: %d crashes, score %d%n",
+                    tickLength, simulation.getCrashCount(), simulation.getScore());
+        }
+        if(failed) {
+            System.out.println("FAILED: a car passed through the player without crashing.");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+}
@@ -0,0 +1,112 @@
+package cardodger;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * CarsPerFrameBenchmark class:
+ * Measures drawing a frame of many cars, drawing each car with fills as before and then by
+ * copying sprites from a CarSpriteCache. A frame at 60 fps has 16667 us, so the number of
+ * cars that fit in a frame is cars * 16667 / score. Draws to an image compatible with the
+ * screen when there is one so the same pipeline as the game is used, or to a BufferedImage
+ * when running without a display.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CarsPerFrameBenchmark {
+    /**
+     * Number of cars drawn each frame.
+     */
+    @Param({"1000"})
+    public int cars;
+
+    /**
+     * Image the cars are drawn to.
+     */
+    private Image target;
+    /**
+     * Graphics for drawing to the image.
+     */
+    private Graphics2D graphics;
+    /**
+     * Sprite cache to draw the cars from.
+     */
+    private CarSpriteCache sprites;
+    /**
+     * Number of frames drawn, so the cars move a little between frames.
+     */
+    private int frame;
+
+    /**
+     * Creates the image to draw to and the sprite cache.
+     */
+    @Setup
+    public void setUp() {
+        if(GraphicsEnvironment.isHeadless()) {
+            target = new BufferedImage(Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        } else {
+            target = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDefaultConfiguration()
+                    .createCompatibleVolatileImage(Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT);
+        }
+        graphics = (Graphics2D) target.getGraphics();
+        sprites = new CarSpriteCache();
+    }
+
+    /**
+     * Releases the graphics.
+     */
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+    /**
+     * Draws a frame of cars, each with fills.
+     */
+    @Benchmark
+    public void drawFills() {
+        drawFrame(null);
+    }
+
+    /**
+     * Draws a frame of cars, each copied from its sprite.
+     */
+    @Benchmark
+    public void drawSprites() {
+        sprites.validate(graphics);
+        drawFrame(sprites);
+    }
+
+    /**
+     * Draws a frame of cars spread over the image.
+     *
+     * @param sprites Sprite cache to draw with, or null to draw each car with fills.
+     */
+    private void drawFrame(CarSpriteCache sprites) {
+        int columns = Simulation.WORLD_WIDTH - Car.CAR_WIDTH;
+        int rows = Simulation.WORLD_HEIGHT - Car.CAR_HEIGHT;
+        for(int car = 0; car < cars; car++) {
+            int x = (car * 37 + frame) % columns;
+            int y = (car * 53 + frame * 3) % rows;
+            int carType = car % EnemyCarManager.CAR_TYPES;
+            if(sprites != null) {
+                sprites.drawSprite(graphics, carType, x, y);
+            } else {
+                Car.paintCar(graphics, x, y, Car.CAR_WIDTH, Car.CAR_HEIGHT, EnemyCarManager.getColour(carType), Color.BLACK);
+            }
+        }
+        Toolkit.getDefaultToolkit().sync();
+        frame++;
+    }
+}
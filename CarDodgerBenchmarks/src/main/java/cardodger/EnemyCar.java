@@ -0,0 +1,146 @@
+package cardodger;
+
+import java.awt.*;
+import java.util.SplittableRandom;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * EnemyCar class:
+ * Extends from the basic car to enable the car moving down while active.
+ * Speed and colour of the car are chosen based on a random type of car each time it is reset.
+ * The game stores its cars as arrays in the EnemyCarManager instead, so this object per car
+ * is only kept for FleetBenchmark to compare against. The rules for each type of car come
+ * from the EnemyCarManager.
+ */
+public class EnemyCar extends Car {
+    /**
+     * Will only move while active.
+     */
+    private boolean isActive;
+    /**
+     * Type of car determines speed/colour. Is changed each time the car is reset.
+     */
+    private int carType;
+    /**
+     * Speed of the car is based on the carType, and can randomly change for carType 2 every update.
+     */
+    private int speed;
+    /**
+     * Random number generator for the car type and speed.
+     */
+    private SplittableRandom random;
+
+    /**
+     * Initialises the car as a new random enemy car.
+     *
+     * @param position Start position to reset back to.
+     * @param random Random number generator for the car type and speed.
+     */
+    public EnemyCar(Position position, SplittableRandom random) {
+        super(position);
+        this.random = random;
+        isActive = false;
+        setRandomCarType();
+    }
+
+    /**
+     * Resets the car back to start position,
+     * deactivates the car, and randomises it to a new car type.
+     */
+    @Override
+    public void reset() {
+        super.reset();
+        isActive = false;
+        setRandomCarType();
+    }
+
+    /**
+     * Remembers the position for interpolation. Then does nothing if not active.
+     * Updates the speed based on car type, and then moves the car based on the speed.
+     *
+     * @param deltaTime Time since last update.
+     */
+    public void update(int deltaTime) {
+        storePreviousPosition();
+        if(!isActive) return;
+
+        updateSpeed();
+        position.y += speed * deltaTime / 1000.0;
+    }
+
+    /**
+     * Enables the cars movement.
+     */
+    public void activate() {
+        isActive = true;
+    }
+
+    /**
+     * Gets the number representing which type of car this is.
+     *
+     * @return The number representing the type of car.
+     */
+    public int getCarType() {
+        return carType;
+    }
+
+    /**
+     * Updates the speed based on car type.
+     */
+    private void updateSpeed() {
+        speed = getSpeed(carType, random);
+    }
+
+    /**
+     * Randomly selects a new car type.
+     */
+    private void setRandomCarType() {
+        carType = EnemyCarManager.getRandomCarType(random);
+    }
+
+    /**
+     * Gets the sprite matching the car type.
+     *
+     * @return The car type, which is also its sprite.
+     */
+    @Override
+    protected int getSprite() {
+        return carType;
+    }
+
+    /**
+     * Gets the body colour to match the car type.
+     *
+     * @return Blue, green, or red for car types 0, 1, and 2.
+     */
+    @Override
+    protected Color getBackgroundColour() {
+        return EnemyCarManager.getColour(carType);
+    }
+
+    /**
+     * Gets the speed for a type of car. 0 and 1 use set speeds,
+     * but 2 uses a random speed every time this method is applied.
+     *
+     * @param carType The type of car.
+     * @param random Random number generator to use.
+     * @return Speed in pixels per second.
+     */
+    private static int getSpeed(int carType, SplittableRandom random) {
+        int minSpeed = EnemyCarManager.getDefaultMinSpeed(carType);
+        int speedRange = EnemyCarManager.getDefaultMaxSpeed(carType) - minSpeed;
+        return minSpeed + (speedRange > 0 ? random.nextInt(speedRange) : 0);
+    }
+
+    /**
+     * Gets the window colour used for all enemy cars.
+     *
+     * @return Always black.
+     */
+    @Override
+    protected Color getForegroundColour() {
+        return Color.BLACK;
+    }
+}
@@ -0,0 +1,96 @@
+package cardodger;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * EnemyCarManagerBenchmark class:
+ * Measures updating the whole fleet, respawning a single car, and testing the player
+ * for collisions, for different numbers of lanes and different fractions of them active.
+ * The player is moved out of the world so no crash resets the fleet while measuring.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnemyCarManagerBenchmark {
+    /**
+     * Total number of lanes.
+     */
+    @Param({"14", "1000", "10000"})
+    public int lanes;
+    /**
+     * Percentage of the lanes that have a car moving at once. 70% of 14 lanes is the game's default of 10.
+     * At 10% most lanes are waiting in the inactive pool, which is the worst case for picking a lane to respawn.
+     */
+    @Param({"10", "70", "100"})
+    public int activePercent;
+
+    /**
+     * The simulation owning the manager.
+     */
+    private Simulation simulation;
+    /**
+     * The manager being measured.
+     */
+    private EnemyCarManager manager;
+    /**
+     * Lane of the car to respawn next.
+     */
+    private int respawnLane;
+
+    /**
+     * Creates the fleet and moves the player out of the way.
+     */
+    @Setup
+    public void setUp() {
+        int maxActiveLanes = Math.max(1, lanes * activePercent / 100);
+        simulation = new Simulation(lanes, maxActiveLanes, 1);
+        simulation.getPlayerCar().getPosition().x = -Simulation.WORLD_WIDTH;
+        manager = simulation.getEnemyCarManager();
+        respawnLane = 0;
+        while(!manager.isActive(respawnLane)) {
+            respawnLane++;
+        }
+    }
+
+    /**
+     * Moves every active car by one update, respawning any that leave the screen.
+     */
+    @Benchmark
+    public void update() {
+        manager.update(Simulation.TIME_INTERVAL);
+    }
+
+    /**
+     * Resets one active car and activates a random inactive one, as happens when a car leaves the screen.
+     *
+     * @return The lane that was activated.
+     */
+    @Benchmark
+    public int respawnCar() {
+        manager.resetCar(respawnLane);
+        respawnLane = manager.activateRandomCar();
+        return respawnLane;
+    }
+
+    /**
+     * Tests the player car against the fleet, with the player placed back in the world.
+     *
+     * @return True if the player is colliding with a car.
+     */
+    @Benchmark
+    public boolean isCollidingWithPlayer() {
+        PlayerCar playerCar = simulation.getPlayerCar();
+        playerCar.getPosition().x = Simulation.WORLD_WIDTH / 2;
+        boolean colliding = manager.isCollidingWith(playerCar);
+        playerCar.getPosition().x = -Simulation.WORLD_WIDTH;
+        return colliding;
+    }
+}
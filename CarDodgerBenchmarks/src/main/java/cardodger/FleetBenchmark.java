@@ -0,0 +1,153 @@
+package cardodger;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * FleetBenchmark class:
+ * Compares one update of the array based EnemyCarManager against the previous layout
+ * of one EnemyCar object per lane. Both fleets are updated with the player moved out of
+ * the way so no crashes reset them, and with every lane active so a car leaving the
+ * screen is respawned straight away in the same lane, leaving the cost of the linear
+ * scan over the fleet as what is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FleetBenchmark {
+    /**
+     * Total number of lanes, all of them active.
+     */
+    @Param({"14", "1000", "10000", "50000"})
+    public int lanes;
+
+    /**
+     * The fleet stored as one object per car.
+     */
+    private ObjectFleet objectFleet;
+    /**
+     * The fleet stored as arrays.
+     */
+    private EnemyCarManager manager;
+
+    /**
+     * Creates both fleets with the player out of the way.
+     */
+    @Setup
+    public void setUp() {
+        Position outOfTheWay = new Position(-Simulation.WORLD_WIDTH,
+                Simulation.WORLD_HEIGHT - Car.CAR_HEIGHT - Simulation.PLAYER_MARGIN);
+        objectFleet = new ObjectFleet(lanes, lanes, new PlayerCar(outOfTheWay));
+        Simulation simulation = new Simulation(lanes, lanes, 1);
+        simulation.getPlayerCar().getPosition().x = -Simulation.WORLD_WIDTH;
+        manager = simulation.getEnemyCarManager();
+    }
+
+    /**
+     * Moves every car stored as an object by one update.
+     *
+     * @return The number of crashes so far, so the collision tests are not removed.
+     */
+    @Benchmark
+    public int updateObjects() {
+        return objectFleet.update();
+    }
+
+    /**
+     * Moves every car stored in the arrays by one update.
+     */
+    @Benchmark
+    public void updateArrays() {
+        manager.update(Simulation.TIME_INTERVAL);
+    }
+
+    /**
+     * The previous EnemyCarManager layout with one EnemyCar object for each lane.
+     */
+    private static class ObjectFleet {
+        /**
+         * Collection of all the cars with one for each lane.
+         */
+        private final EnemyCar[] cars;
+        /**
+         * List of the inactive cars for easy randomisation of which should active next.
+         */
+        private final List<EnemyCar> inactiveCars;
+        /**
+         * Reference to the player car to check for collisions.
+         */
+        private final PlayerCar playerCar;
+        /**
+         * Random number generator shared by all the cars in the fleet.
+         */
+        private final SplittableRandom random;
+        /**
+         * Number of crashes, kept so the collision checks are not optimised away.
+         */
+        private int crashes;
+
+        /**
+         * Creates all the cars and activates the correct number of them.
+         *
+         * @param lanes The total number of lanes.
+         * @param maxActiveLanes The maximum number of lanes that should have a car moving down in them at a time.
+         * @param playerCar Reference to the player car to check for collisions.
+         */
+        ObjectFleet(int lanes, int maxActiveLanes, PlayerCar playerCar) {
+            this.playerCar = playerCar;
+            random = new SplittableRandom(lanes);
+            cars = new EnemyCar[lanes];
+            inactiveCars = new ArrayList<>();
+            for(int i = 0; i < lanes; i++) {
+                int laneCentre = (Simulation.getLaneEdge(Simulation.WORLD_WIDTH, lanes, i)
+                        + Simulation.getLaneEdge(Simulation.WORLD_WIDTH, lanes, i + 1)) / 2;
+                cars[i] = new EnemyCar(new Position(laneCentre - Car.CAR_WIDTH/2, -Car.CAR_HEIGHT), random);
+                inactiveCars.add(cars[i]);
+            }
+            for(int i = 0; i < maxActiveLanes; i++) {
+                activateRandomCar();
+            }
+        }
+
+        /**
+         * Updates all the cars once the same way the previous manager did.
+         *
+         * @return The number of crashes so far.
+         */
+        int update() {
+            for(EnemyCar car : cars) {
+                car.update(Simulation.TIME_INTERVAL);
+                if(car.isIntersecting(playerCar)) {
+                    crashes++;
+                } else if(car.getPosition().y > Simulation.WORLD_HEIGHT) {
+                    car.reset();
+                    inactiveCars.add(car);
+                    activateRandomCar();
+                }
+            }
+            return crashes;
+        }
+
+        /**
+         * Activates a random car that is not currently active.
+         */
+        private void activateRandomCar() {
+            for(int i = inactiveCars.size() - 1; i > 0; i--) {
+                Collections.swap(inactiveCars, i, random.nextInt(i + 1));
+            }
+            inactiveCars.get(0).activate();
+            inactiveCars.remove(0);
+        }
+    }
+}
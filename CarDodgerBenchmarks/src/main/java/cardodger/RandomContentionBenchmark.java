@@ -0,0 +1,86 @@
+package cardodger;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * RandomContentionBenchmark class:
+ * Measures how throughput changes as more threads run at once. Compares drawing random
+ * numbers from the single shared generator behind Math.random, which every thread has to
+ * update atomically, against each thread drawing from its own SplittableRandom. Also steps
+ * an independent Simulation on every thread, each with its own generator, to show the games
+ * scale with the number of threads without contending.
+ * Runs on every available processor by default; compare against a run with -t 1.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class RandomContentionBenchmark {
+    /**
+     * Generator owned by this thread.
+     */
+    private SplittableRandom random;
+    /**
+     * Simulation owned by this thread.
+     */
+    private Simulation simulation;
+    /**
+     * Scripted player for this thread's simulation.
+     */
+    private PlayerPolicy policy;
+
+    /**
+     * Creates this thread's generator and simulation, seeded from the thread's index.
+     *
+     * @param threadParams The thread running the benchmark.
+     */
+    @Setup
+    public void setUp(ThreadParams threadParams) {
+        int thread = threadParams.getThreadIndex();
+        random = new SplittableRandom(thread);
+        simulation = new Simulation(Simulation.NUMBER_OF_LANES, Simulation.MAX_ACTIVE_LANES, thread);
+        policy = PlayerPolicy.create("dodge", thread);
+    }
+
+    /**
+     * Draws a random number from the generator shared by every thread.
+     *
+     * @return The number drawn.
+     */
+    @Benchmark
+    public double drawShared() {
+        return Math.random();
+    }
+
+    /**
+     * Draws a random number from the generator owned by this thread.
+     *
+     * @return The number drawn.
+     */
+    @Benchmark
+    public double drawOwn() {
+        return random.nextDouble();
+    }
+
+    /**
+     * Plays one update of this thread's simulation with the scripted player.
+     *
+     * @return The number of crashes so far.
+     */
+    @Benchmark
+    public int playSimulation() {
+        policy.act(simulation);
+        simulation.update(Simulation.TIME_INTERVAL);
+        return simulation.getCrashCount();
+    }
+}
@@ -0,0 +1,77 @@
+package cardodger;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * RectangleBenchmark class:
+ * Measures the exact intersection test used for every collision candidate, against a
+ * rectangle and against raw coordinates. Cycles through a set of rectangles where about
+ * half intersect so the result cannot be predicted or folded away.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RectangleBenchmark {
+    /**
+     * Number of rectangles to cycle through. A power of 2.
+     */
+    private static final int RECTANGLES = 1024;
+
+    /**
+     * Rectangle every other rectangle is tested against.
+     */
+    private Rectangle target;
+    /**
+     * Rectangles to test against the target.
+     */
+    private Rectangle[] others;
+    /**
+     * Index of the next rectangle to test.
+     */
+    private int next;
+
+    /**
+     * Places the rectangles randomly around the target.
+     */
+    @Setup
+    public void setUp() {
+        target = new Rectangle(200, 200, Car.CAR_WIDTH, Car.CAR_HEIGHT);
+        others = new Rectangle[RECTANGLES];
+        SplittableRandom random = new SplittableRandom(1);
+        for(int i = 0; i < RECTANGLES; i++) {
+            others[i] = new Rectangle(150 + random.nextInt(100), 130 + random.nextInt(140),
+                    Car.CAR_WIDTH, Car.CAR_HEIGHT);
+        }
+    }
+
+    /**
+     * Tests the target against the next rectangle.
+     *
+     * @return True if they intersect.
+     */
+    @Benchmark
+    public boolean isIntersectingRectangle() {
+        Rectangle other = others[next++ & (RECTANGLES - 1)];
+        return target.isIntersecting(other);
+    }
+
+    /**
+     * Tests the target against the coordinates of the next rectangle.
+     *
+     * @return True if they intersect.
+     */
+    @Benchmark
+    public boolean isIntersectingCoordinates() {
+        Position position = others[next++ & (RECTANGLES - 1)].getPosition();
+        return target.isIntersecting(position.x, position.y, Car.CAR_WIDTH, Car.CAR_HEIGHT);
+    }
+}
@@ -0,0 +1,193 @@
+package cardodger;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * RenderBenchmark class:
+ * Measures drawing the road, a single car, and the whole enemy fleet into an offscreen
+ * image the size of the game panel, without a window. Cars are drawn both with fills
+ * and by copying sprites from a CarSpriteCache. A frame's dirty regions are drawn both
+ * with the whole game clipped to each region in turn, as the GamePanel used to, and with
+ * the road drawn again in each region and the cars drawn once, before each region is
+ * copied to a second image standing in for the screen, as it does now.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+    /**
+     * Total number of lanes.
+     */
+    @Param({"14", "100"})
+    public int lanes;
+
+    /**
+     * The simulation being drawn.
+     */
+    private Simulation simulation;
+    /**
+     * Image being drawn to.
+     */
+    private BufferedImage image;
+    /**
+     * Graphics for drawing to the image.
+     */
+    private Graphics2D graphics;
+    /**
+     * Pre-drawn images of every car.
+     */
+    private CarSpriteCache sprites;
+    /**
+     * Image standing in for the screen that dirty regions are copied to.
+     */
+    private BufferedImage screen;
+    /**
+     * Graphics for drawing to the screen image.
+     */
+    private Graphics2D screenGraphics;
+    /**
+     * Dirty regions of one frame part way through the game.
+     */
+    private DirtyRegions dirtyRegions;
+
+    /**
+     * Creates the image and a simulation that has been running for a few seconds
+     * so the cars are spread down the screen.
+     */
+    @Setup
+    public void setUp() {
+        simulation = new Simulation(lanes, Math.max(1, lanes * 70 / 100), 1);
+        simulation.getPlayerCar().getPosition().x = -Simulation.WORLD_WIDTH;
+        for(int i = 0; i < 200; i++) {
+            simulation.update(Simulation.TIME_INTERVAL);
+        }
+        simulation.getPlayerCar().getPosition().x = Simulation.WORLD_WIDTH / 2;
+        simulation.getPlayerCar().storePreviousPosition();
+        image = new BufferedImage(Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        graphics = image.createGraphics();
+        sprites = new CarSpriteCache();
+        sprites.validate(graphics);
+        screen = new BufferedImage(Simulation.WORLD_WIDTH, Simulation.WORLD_HEIGHT, BufferedImage.TYPE_INT_RGB);
+        screenGraphics = screen.createGraphics();
+
+        // Collect where everything is, then what changed over one more update
+        int width = Simulation.WORLD_WIDTH;
+        int height = Simulation.WORLD_HEIGHT;
+        dirtyRegions = new DirtyRegions(2 + lanes, width, height, 1.0);
+        for(int i = 0; i < 2; i++) {
+            dirtyRegions.clear();
+            simulation.getAnimatedRoad().addDirtyRegions(dirtyRegions, 0, width, height);
+            simulation.getPlayerCar().addDirtyRegion(dirtyRegions, 1, 0.5f);
+            simulation.getEnemyCarManager().addDirtyRegions(dirtyRegions, 2, 0.5f);
+            simulation.update(Simulation.TIME_INTERVAL);
+        }
+    }
+
+    /**
+     * Releases the graphics.
+     */
+    @TearDown
+    public void tearDown() {
+        graphics.dispose();
+        screenGraphics.dispose();
+    }
+
+    /**
+     * Draws the road surface and lines.
+     */
+    @Benchmark
+    public void paintRoad() {
+        simulation.getAnimatedRoad().paint(graphics);
+    }
+
+    /**
+     * Draws the player car.
+     */
+    @Benchmark
+    public void paintPlayerCar() {
+        simulation.getPlayerCar().paint(graphics, 0.5f);
+    }
+
+    /**
+     * Draws every active enemy car.
+     */
+    @Benchmark
+    public void paintEnemyCars() {
+        simulation.getEnemyCarManager().paint(graphics, 0.5f);
+    }
+
+    /**
+     * Draws the player car from its sprite.
+     */
+    @Benchmark
+    public void paintPlayerCarSprite() {
+        simulation.getPlayerCar().paint(graphics, 0.5f, sprites);
+    }
+
+    /**
+     * Draws every active enemy car from their sprites.
+     */
+    @Benchmark
+    public void paintEnemyCarsSprites() {
+        sprites.validate(graphics);
+        simulation.getEnemyCarManager().paint(graphics, 0.5f, sprites);
+    }
+
+    /**
+     * Draws a whole frame the same way the GamePanel does.
+     */
+    @Benchmark
+    public void paintFrame() {
+        simulation.getAnimatedRoad().paint(graphics);
+        sprites.validate(graphics);
+        simulation.getPlayerCar().paint(graphics, 0.5f, sprites);
+        simulation.getEnemyCarManager().paint(graphics, 0.5f, sprites);
+    }
+
+    /**
+     * Draws the whole frame once for each dirty region, clipped to that region.
+     */
+    @Benchmark
+    public void paintEachDirtyRegion() {
+        for(int i = 0; i < dirtyRegions.getCount(); i++) {
+            graphics.setClip(dirtyRegions.getX(i), dirtyRegions.getY(i),
+                    dirtyRegions.getWidth(i), dirtyRegions.getHeight(i));
+            paintFrame();
+        }
+        graphics.setClip(null);
+    }
+
+    /**
+     * Draws the road clipped to each dirty region and the cars once on top, then copies
+     * each region to the screen image.
+     */
+    @Benchmark
+    public void paintDirtyRoadCarsOnce() {
+        for(int i = 0; i < dirtyRegions.getCount(); i++) {
+            graphics.setClip(dirtyRegions.getX(i), dirtyRegions.getY(i),
+                    dirtyRegions.getWidth(i), dirtyRegions.getHeight(i));
+            simulation.getAnimatedRoad().paint(graphics);
+        }
+        graphics.setClip(null);
+        sprites.validate(graphics);
+        simulation.getPlayerCar().paint(graphics, 0.5f, sprites);
+        simulation.getEnemyCarManager().paint(graphics, 0.5f, sprites);
+        for(int i = 0; i < dirtyRegions.getCount(); i++) {
+            int x = dirtyRegions.getX(i);
+            int y = dirtyRegions.getY(i);
+            int right = x + dirtyRegions.getWidth(i);
+            int bottom = y + dirtyRegions.getHeight(i);
+            screenGraphics.drawImage(image, x, y, right, bottom, x, y, right, bottom, null);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package cardodger;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Car Dodger
+ * Author: Peter Mitchell (2021)
+ *
+ * VectorEnvironmentBenchmark class:
+ * Measures stepping and observing a batch of games through VectorEnvironment with random
+ * actions, for different batch sizes. The time is for the whole batch, so dividing it by
+ * the batch size gives the cost of one game step.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorEnvironmentBenchmark {
+    /**
+     * Number of games stepped together.
+     */
+    @Param({"1", "64", "1024"})
+    public int size;
+
+    /**
+     * The batch being measured.
+     */
+    private VectorEnvironment environment;
+    /**
+     * Random actions to cycle through, one set for each of several steps.
+     */
+    private int[][] actions;
+    /**
+     * Index of the set of actions to use next.
+     */
+    private int nextActions;
+
+    /**
+     * Creates the batch and the actions to play.
+     */
+    @Setup
+    public void setUp() {
+        environment = new VectorEnvironment(size, 3_000);
+        SplittableRandom random = new SplittableRandom(1);
+        actions = new int[16][size];
+        for(int[] stepActions : actions) {
+            for(int i = 0; i < size; i++) {
+                stepActions[i] = random.nextInt(VectorEnvironment.ACTION_COUNT);
+            }
+        }
+    }
+
+    /**
+     * Steps every game in the batch once and observes them.
+     *
+     * @return The observations.
+     */
+    @Benchmark
+    public float[] step() {
+        nextActions = (nextActions + 1) & (actions.length - 1);
+        return environment.step(actions[nextActions]);
+    }
+}